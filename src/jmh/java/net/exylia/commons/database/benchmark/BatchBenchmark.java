@@ -0,0 +1,79 @@
+package net.exylia.commons.database.benchmark;
+
+import net.exylia.commons.database.core.AbstractDatabaseManager;
+import net.exylia.commons.database.executor.SQLBatchExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving many rows at once: one update per row in a transaction, {@link SQLBatchExecutor}
+ * and {@link AbstractDatabaseManager#upsertAll}. Each operation writes {@code rows} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchBenchmark {
+    private static final String[] COLUMNS = {"id", "name", "kills", "balance"};
+    private static final String[] KEY_COLUMNS = {"id"};
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private List<Object[]> data;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = BenchmarkDatabase.sqlite(false, 2);
+        data = new ArrayList<>(rows);
+        for (int id = 0; id < rows; id++) {
+            data.add(new Object[]{id, "player" + id, id % 50, id * 2.5});
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public int updatePerRow() throws Exception {
+        return database.manager().executeTransaction(executor -> {
+            int written = 0;
+            for (Object[] row : data) {
+                written += executor.update(BenchmarkDatabase.insertSql(), row);
+            }
+            return written;
+        });
+    }
+
+    @Benchmark
+    public int batch() throws Exception {
+        try (Connection conn = database.manager().getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, BenchmarkDatabase.insertSql(), 1000, false,
+                     database.manager().getConnectionPool().getStatementCache())) {
+            for (Object[] row : data) {
+                batch.addBatch(row);
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int upsertAll() throws Exception {
+        return database.manager().upsertAll(BenchmarkDatabase.TABLE, COLUMNS, KEY_COLUMNS, data);
+    }
+}
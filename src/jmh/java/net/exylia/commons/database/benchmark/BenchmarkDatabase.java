@@ -0,0 +1,103 @@
+package net.exylia.commons.database.benchmark;
+
+import net.exylia.commons.database.connection.DatabaseCredentials;
+import net.exylia.commons.database.core.AbstractDatabaseManager;
+import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.SQLBatchExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * SQLite database in a temporary directory for benchmarks, deleted when closed.
+ * It holds a {@code players} table with {@link #ROWS} rows that benchmarks read and update.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+    public static final int ROWS = 10_000;
+    public static final String TABLE = "players";
+
+    private final Path directory;
+    private final Manager manager;
+
+    private BenchmarkDatabase(Path directory, Manager manager) {
+        this.directory = directory;
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a populated SQLite database in a new temporary directory.
+     *
+     * @param singleWriter Whether writes go through the SQLite single writer
+     * @param maxPoolSize The maximum number of pool connections
+     * @return The benchmark database
+     * @throws IOException If the directory can't be created
+     * @throws SQLException If the table can't be populated
+     */
+    public static BenchmarkDatabase sqlite(boolean singleWriter, int maxPoolSize) throws IOException, SQLException {
+        Path directory = Files.createTempDirectory("exylia-bench");
+        DatabaseCredentials credentials = new DatabaseCredentials.Builder(DatabaseType.SQLITE)
+                .sqliteFile(directory.resolve("bench.db").toString())
+                .sqliteSingleWriter(singleWriter)
+                .maxPoolSize(maxPoolSize)
+                .minIdle(maxPoolSize)
+                .slowQueryThreshold(0)
+                .leakDetectionThreshold(0)
+                .poolName("bench")
+                .build();
+
+        BenchmarkDatabase database = new BenchmarkDatabase(directory, new Manager(credentials));
+        database.populate();
+        return database;
+    }
+
+    private void populate() throws SQLException {
+        manager.executeOperation(executor -> executor.update("CREATE TABLE " + TABLE
+                + " (id INTEGER PRIMARY KEY, name TEXT NOT NULL, kills INTEGER NOT NULL, balance REAL NOT NULL)"));
+
+        try (Connection conn = manager.getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, insertSql(), 1000)) {
+            for (int id = 0; id < ROWS; id++) {
+                batch.addBatch(id, "player" + id, id % 100, id * 1.5);
+            }
+        }
+    }
+
+    /**
+     * Gets the insert statement of the players table, with id, name, kills and balance parameters.
+     *
+     * @return The SQL statement
+     */
+    public static String insertSql() {
+        return "INSERT OR REPLACE INTO " + TABLE + " (id, name, kills, balance) VALUES (?, ?, ?, ?)";
+    }
+
+    /**
+     * Gets the database manager.
+     *
+     * @return The database manager
+     */
+    public AbstractDatabaseManager manager() {
+        return manager;
+    }
+
+    @Override
+    public void close() throws IOException {
+        manager.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static class Manager extends AbstractDatabaseManager {
+        private Manager(DatabaseCredentials credentials) {
+            super(credentials);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.exylia.commons.database.benchmark;
+
+import net.exylia.commons.database.annotation.Column;
+import net.exylia.commons.database.annotation.Table;
+import net.exylia.commons.database.executor.RowMapper;
+import net.exylia.commons.database.executor.SQLExecutor;
+import net.exylia.commons.database.mapping.EntityMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping 1000 rows with {@link EntityMapper} against a handwritten {@link RowMapper}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EntityMapperBenchmark {
+    private static final String QUERY = "SELECT id, name, kills, balance FROM " + BenchmarkDatabase.TABLE
+            + " WHERE id < 1000";
+
+    private static final RowMapper<PlayerRow> HANDWRITTEN = rs -> {
+        PlayerRow row = new PlayerRow();
+        row.id = rs.getInt("id");
+        row.name = rs.getString("name");
+        row.kills = rs.getInt("kills");
+        row.balance = rs.getDouble("balance");
+        return row;
+    };
+
+    private BenchmarkDatabase database;
+    private SQLExecutor executor;
+    private EntityMapper<PlayerRow> mapper;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = BenchmarkDatabase.sqlite(false, 2);
+        executor = database.manager().createExecutor();
+        mapper = EntityMapper.of(PlayerRow.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<PlayerRow> entityMapper() throws Exception {
+        return executor.queryList(QUERY, mapper);
+    }
+
+    @Benchmark
+    public List<PlayerRow> handwritten() throws Exception {
+        return executor.queryList(QUERY, HANDWRITTEN);
+    }
+
+    @Table(BenchmarkDatabase.TABLE)
+    public static class PlayerRow {
+        @Column(key = true)
+        private int id;
+        @Column
+        private String name;
+        @Column
+        private int kills;
+        @Column
+        private double balance;
+    }
+}
@@ -0,0 +1,54 @@
+package net.exylia.commons.database.benchmark;
+
+import net.exylia.commons.database.core.AbstractDatabaseManager;
+import net.exylia.commons.database.executor.SQLExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single statements through {@link SQLExecutor} on one pool connection, so the numbers
+ * show the statement cache and parameter binding rather than pool acquisition.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SQLExecutorBenchmark {
+    private BenchmarkDatabase database;
+    private SQLExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = BenchmarkDatabase.sqlite(false, 2);
+        AbstractDatabaseManager manager = database.manager();
+        executor = manager.createExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int update() throws Exception {
+        int id = ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ROWS);
+        return executor.update("UPDATE " + BenchmarkDatabase.TABLE + " SET kills = kills + 1 WHERE id = ?", id);
+    }
+
+    @Benchmark
+    public String queryOne() throws Exception {
+        int id = ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ROWS);
+        return executor.queryOne("SELECT name FROM " + BenchmarkDatabase.TABLE + " WHERE id = ?",
+                rs -> rs.getString(1), id);
+    }
+}
@@ -0,0 +1,163 @@
+package net.exylia.commons.database.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import net.exylia.commons.database.util.ItemStackCodec;
+import net.exylia.commons.database.util.SerializationUtil;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Populated player inventories through the legacy format, the whole array written with
+ * {@link BukkitObjectOutputStream} as Base64 text, and through {@link ItemStackCodec}.
+ * Items need a server, so the trial runs on a MockBukkit server: stacks of blocks plus gear
+ * with names, lore, enchantments and damage. MockBukkit implements the Spigot API, so the codec
+ * uses its per-item Bukkit serialization; Paper's {@code serializeAsBytes} needs a real server.
+ * The encoded sizes are logged at the start of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializationBenchmark {
+    private static final Logger LOGGER = Logger.getLogger(SerializationBenchmark.class.getName());
+    private static final int INVENTORY_SIZE = 41;
+    private static final Material[] BLOCKS = {
+            Material.STONE, Material.OAK_LOG, Material.COBBLESTONE, Material.IRON_INGOT, Material.BREAD, Material.TORCH
+    };
+    private static final Material[] GEAR = {
+            Material.DIAMOND_SWORD, Material.DIAMOND_PICKAXE, Material.NETHERITE_AXE, Material.BOW, Material.DIAMOND_CHESTPLATE
+    };
+
+    @Param({"10", "36", "41"})
+    public int filledSlots;
+
+    private final HashMap<String, Integer> stats = new HashMap<>();
+    private ItemStack[] inventory;
+    private String legacyBase64;
+    private byte[] inventoryBytes;
+    private String statsBase64;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        MockBukkit.mock();
+        inventory = inventory(filledSlots);
+        legacyBase64 = legacyEncode(inventory);
+        inventoryBytes = ItemStackCodec.encode(inventory);
+
+        if (!Arrays.equals(inventory, ItemStackCodec.decode(inventoryBytes))
+                || !Arrays.equals(inventory, SerializationUtil.base64ToItemStackArray(legacyBase64))) {
+            throw new IllegalStateException("Inventory round trip changed the items");
+        }
+        LOGGER.info(filledSlots + " filled slots: legacy " + legacyBase64.length() + " chars, codec "
+                + inventoryBytes.length + " bytes (" + ItemStackCodec.encodeToString(inventory).length() + " chars as Base64)");
+
+        for (int i = 0; i < 100; i++) {
+            stats.put("stat." + i, i * 31);
+        }
+        statsBase64 = SerializationUtil.objectToBase64(stats);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public String legacyEncode() throws IOException {
+        return legacyEncode(inventory);
+    }
+
+    @Benchmark
+    public ItemStack[] legacyDecode() {
+        return SerializationUtil.base64ToItemStackArray(legacyBase64);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() throws IOException {
+        return ItemStackCodec.encode(inventory);
+    }
+
+    @Benchmark
+    public ItemStack[] codecDecode() throws IOException {
+        return ItemStackCodec.decode(inventoryBytes);
+    }
+
+    @Benchmark
+    public String codecEncodeToString() throws IOException {
+        return ItemStackCodec.encodeToString(inventory);
+    }
+
+    @Benchmark
+    public Map<String, Integer> objectRoundTrip() {
+        return SerializationUtil.base64ToObject(SerializationUtil.objectToBase64(stats));
+    }
+
+    @Benchmark
+    public Map<String, Integer> objectDecode() {
+        return SerializationUtil.base64ToObject(statsBase64);
+    }
+
+    /**
+     * The format SerializationUtil wrote before ItemStackCodec, still accepted when decoding.
+     */
+    private static String legacyEncode(ItemStack[] items) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
+            dataOutput.writeInt(items.length);
+            for (ItemStack item : items) {
+                dataOutput.writeObject(item);
+            }
+        }
+        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    }
+
+    private static ItemStack[] inventory(int filledSlots) {
+        Random random = new Random(42);
+        ItemStack[] items = new ItemStack[INVENTORY_SIZE];
+        for (int slot = 0; slot < filledSlots; slot++) {
+            items[slot] = slot % 3 == 0 ? gear(random, slot) : new ItemStack(BLOCKS[random.nextInt(BLOCKS.length)], 1 + random.nextInt(64));
+        }
+        return items;
+    }
+
+    private static ItemStack gear(Random random, int slot) {
+        ItemStack item = new ItemStack(GEAR[random.nextInt(GEAR.length)]);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(ChatColor.GOLD + "Reliquia #" + slot);
+        meta.setLore(List.of(ChatColor.GRAY + "Forjada en la temporada " + (1 + random.nextInt(5)),
+                ChatColor.GRAY + "Ligada al jugador"));
+        meta.addEnchant(Enchantment.DURABILITY, 3, true);
+        meta.addEnchant(Enchantment.MENDING, 1, true);
+        if (random.nextBoolean()) {
+            meta.addEnchant(Enchantment.DAMAGE_ALL, 1 + random.nextInt(5), true);
+        }
+        ((Damageable) meta).setDamage(random.nextInt(200));
+        item.setItemMeta(meta);
+        return item;
+    }
+}
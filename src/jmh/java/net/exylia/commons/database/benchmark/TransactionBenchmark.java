@@ -0,0 +1,88 @@
+package net.exylia.commons.database.benchmark;
+
+import net.exylia.commons.database.core.AbstractDatabaseManager.DatabaseOperation;
+import net.exylia.commons.database.core.RetryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Small read-modify-write transactions through {@code executeTransaction} from 1 to 64
+ * threads, with writes on the pool or on the SQLite single writer.
+ * Pool transactions that lose the SQLite write lock are rolled back and retried, the retry
+ * count shows in the metrics report logged at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionBenchmark {
+    private static final Logger LOGGER = Logger.getLogger(TransactionBenchmark.class.getName());
+
+    @Param({"false", "true"})
+    public boolean singleWriter;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = BenchmarkDatabase.sqlite(singleWriter, 10);
+        database.manager().setRetryPolicy(RetryPolicy.builder().maxAttempts(20).retryConnectionErrors(false).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        LOGGER.info("Pool metrics (singleWriter=" + singleWriter + "):" + System.lineSeparator()
+                + String.join(System.lineSeparator(), database.manager().getConnectionPool().getMetricsReport(3)));
+        database.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int threads1() throws Exception {
+        return transfer();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int threads8() throws Exception {
+        return transfer();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int threads16() throws Exception {
+        return transfer();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int threads64() throws Exception {
+        return transfer();
+    }
+
+    private int transfer() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(BenchmarkDatabase.ROWS);
+        int to = random.nextInt(BenchmarkDatabase.ROWS);
+
+        return database.manager().executeTransaction(DatabaseOperation.idempotent(executor -> {
+            Double balance = executor.queryOne("SELECT balance FROM " + BenchmarkDatabase.TABLE + " WHERE id = ?",
+                    rs -> rs.getDouble(1), from);
+            double amount = balance != null ? Math.min(balance, 1.0) : 0;
+            executor.update("UPDATE " + BenchmarkDatabase.TABLE + " SET balance = balance - ? WHERE id = ?", amount, from);
+            return executor.update("UPDATE " + BenchmarkDatabase.TABLE + " SET balance = balance + ? WHERE id = ?", amount, to);
+        }));
+    }
+}
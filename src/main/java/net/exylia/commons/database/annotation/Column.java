@@ -0,0 +1,27 @@
+package net.exylia.commons.database.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field to a table column. Fields without this annotation are not mapped.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Column {
+    /**
+     * The column name, or empty to use the field name.
+     *
+     * @return The column name
+     */
+    String value() default "";
+
+    /**
+     * Whether the column is part of the table key.
+     *
+     * @return true if the column is a key column
+     */
+    boolean key() default false;
+}
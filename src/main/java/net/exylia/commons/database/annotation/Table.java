@@ -0,0 +1,20 @@
+package net.exylia.commons.database.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose instances are stored as rows of a table.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Table {
+    /**
+     * The table name.
+     *
+     * @return The table name
+     */
+    String value();
+}
@@ -2,22 +2,37 @@ package net.exylia.commons.database.connection;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.SQLiteWriteExecutor;
+import net.exylia.commons.database.executor.StatementCache;
+import net.exylia.commons.database.metrics.DatabaseMetrics;
+import net.exylia.commons.database.metrics.PoolStats;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages database connections using HikariCP connection pool.
+ * MySQL/MariaDB read replicas, if configured, get their own pools and serve
+ * {@link #getReadConnection()}, falling back to the primary when none is available.
  */
 public class ConnectionPool implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+    private static final int DEFAULT_SQLITE_STATEMENT_CACHE_SIZE = 64;
 
     private final HikariDataSource dataSource;
     private final DatabaseCredentials credentials;
+    private final StatementCache statementCache;
+    private final SQLiteWriteExecutor sqliteWriter;
+    private final DatabaseMetrics metrics;
+    private final ReplicaSet replicas;
 
     /**
      * Creates a new connection pool with the given credentials.
@@ -26,6 +41,7 @@ public class ConnectionPool implements AutoCloseable {
      */
     public ConnectionPool(DatabaseCredentials credentials) {
         this.credentials = credentials;
+        this.metrics = new DatabaseMetrics(credentials.getSlowQueryThreshold());
 
         // Setup HikariCP configuration
         HikariConfig config = new HikariConfig();
@@ -46,30 +62,28 @@ public class ConnectionPool implements AutoCloseable {
         config.setMinimumIdle(credentials.getMinIdle());
         config.setIdleTimeout(credentials.getIdleTimeout());
         config.setConnectionTimeout(credentials.getConnectionTimeout());
-        config.setLeakDetectionThreshold(15000);
+        config.setLeakDetectionThreshold(credentials.getLeakDetectionThreshold());
         config.setPoolName(credentials.getPoolName());
 
         // SQLite specific configuration
+        Properties sqliteProperties = new Properties();
         if (credentials.getType() == DatabaseType.SQLITE) {
-            config.addDataSourceProperty("journal_mode", "WAL");
-            config.addDataSourceProperty("synchronous", "NORMAL");
-            config.addDataSourceProperty("foreign_keys", "ON");
+            sqliteProperties = createSQLiteProperties(credentials);
+            sqliteProperties.forEach((key, value) -> config.addDataSourceProperty((String) key, value));
         }
 
         // MySQL/MariaDB specific configuration
         if (credentials.getType() == DatabaseType.MYSQL || credentials.getType() == DatabaseType.MARIADB) {
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            config.addDataSourceProperty("useServerPrepStmts", "true");
-            config.addDataSourceProperty("useLocalSessionState", "true");
-            config.addDataSourceProperty("rewriteBatchedStatements", "true");
-            config.addDataSourceProperty("cacheResultSetMetadata", "true");
-            config.addDataSourceProperty("cacheServerConfiguration", "true");
-            config.addDataSourceProperty("elideSetAutoCommits", "true");
-            config.addDataSourceProperty("maintainTimeStats", "false");
+            applyMySQLProperties(config);
         }
 
+        // Statement cache, the MySQL driver already caches statements on its own
+        int statementCacheSize = credentials.getStatementCacheSize();
+        if (statementCacheSize < 0) {
+            statementCacheSize = credentials.getType() == DatabaseType.SQLITE ? DEFAULT_SQLITE_STATEMENT_CACHE_SIZE : 0;
+        }
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+
         try {
             this.dataSource = new HikariDataSource(config);
             LOGGER.info("Successfully initialized connection pool for " + credentials.getType() + " database.");
@@ -77,6 +91,68 @@ public class ConnectionPool implements AutoCloseable {
             LOGGER.log(Level.SEVERE, "Failed to initialize connection pool: " + e.getMessage(), e);
             throw new RuntimeException("Failed to initialize database connection pool", e);
         }
+
+        // SQLite single writer, the pool is then used for reads
+        if (credentials.getType() == DatabaseType.SQLITE && credentials.isSqliteSingleWriter()) {
+            try {
+                Connection writerConnection = DriverManager.getConnection(credentials.getJdbcUrl(), sqliteProperties);
+                this.sqliteWriter = new SQLiteWriteExecutor(credentials.getPoolName(), writerConnection,
+                        statementCache, metrics, credentials.getSqliteCheckpointInterval());
+            } catch (SQLException e) {
+                dataSource.close();
+                LOGGER.log(Level.SEVERE, "Failed to open SQLite writer connection: " + e.getMessage(), e);
+                throw new RuntimeException("Failed to initialize SQLite writer", e);
+            }
+        } else {
+            this.sqliteWriter = null;
+        }
+
+        // Read replicas
+        if (!credentials.getReplicas().isEmpty() && credentials.getType() != DatabaseType.SQLITE) {
+            this.replicas = new ReplicaSet(credentials, metrics);
+            LOGGER.info("Configured " + replicas.size() + " read replicas.");
+        } else {
+            if (!credentials.getReplicas().isEmpty()) {
+                LOGGER.warning("Read replicas are not supported for SQLite, ignoring them.");
+            }
+            this.replicas = null;
+        }
+    }
+
+    /**
+     * Applies the MySQL/MariaDB driver properties.
+     *
+     * @param config The pool configuration
+     */
+    static void applyMySQLProperties(HikariConfig config) {
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+    }
+
+    /**
+     * Creates the connection properties of SQLite, applied as pragmas when a connection opens.
+     *
+     * @param credentials The database credentials
+     * @return The connection properties
+     */
+    private static Properties createSQLiteProperties(DatabaseCredentials credentials) {
+        Properties properties = new Properties();
+        properties.setProperty("journal_mode", "WAL");
+        properties.setProperty("synchronous", "NORMAL");
+        properties.setProperty("foreign_keys", "ON");
+        properties.setProperty("temp_store", "MEMORY");
+        properties.setProperty("mmap_size", String.valueOf(credentials.getSqliteMmapSize()));
+        properties.setProperty("cache_size", String.valueOf(credentials.getSqliteCacheSize()));
+        properties.setProperty("busy_timeout", String.valueOf(credentials.getSqliteBusyTimeout()));
+        return properties;
     }
 
     /**
@@ -111,14 +187,45 @@ public class ConnectionPool implements AutoCloseable {
      * @throws SQLException If a connection cannot be obtained
      */
     public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
         try {
-            return dataSource.getConnection();
+            Connection connection = dataSource.getConnection();
+            metrics.recordAcquisition(System.nanoTime() - start);
+            return connection;
         } catch (SQLException e) {
+            metrics.recordAcquisitionFailure();
             LOGGER.log(Level.SEVERE, "Failed to get database connection: " + e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Gets a connection for read-only work, from a healthy read replica when there is one,
+     * or from the primary pool otherwise. Replicas may lag behind the primary, so only use
+     * it for reads that tolerate slightly stale data.
+     *
+     * @return A database connection
+     * @throws SQLException If a connection cannot be obtained
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicas != null) {
+            Connection connection = replicas.getConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return getConnection();
+    }
+
+    /**
+     * Gets the read replicas.
+     *
+     * @return The replica set, or null if no replicas are configured
+     */
+    public ReplicaSet getReplicaSet() {
+        return replicas;
+    }
+
     /**
      * Gets the database credentials.
      *
@@ -128,6 +235,71 @@ public class ConnectionPool implements AutoCloseable {
         return credentials;
     }
 
+    /**
+     * Gets the prepared statement cache shared by the connections of this pool.
+     *
+     * @return The statement cache, or null if disabled
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Gets the metrics of this pool and the statements run on its connections.
+     *
+     * @return The database metrics
+     */
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the current connection counts of the pool.
+     *
+     * @return The pool stats
+     */
+    public PoolStats getPoolStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, 0, dataSource.getMaximumPoolSize());
+        }
+        return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), pool.getTotalConnections(), dataSource.getMaximumPoolSize());
+    }
+
+    /**
+     * Builds a human-readable report of the pool and statement metrics.
+     *
+     * @param topQueries The number of statements to include, by total time spent
+     * @return The report lines
+     */
+    public List<String> getMetricsReport(int topQueries) {
+        List<String> lines = metrics.report(getPoolStats(), topQueries);
+        if (replicas != null) {
+            lines.add(1, replicas.describe());
+        }
+        if (sqliteWriter != null) {
+            lines.add(1, String.format("SQLite writer: queued=%d, writes=%d, failed=%d, transactions=%d, checkpoints=%d",
+                    sqliteWriter.getQueueDepth(), sqliteWriter.getWrites(), sqliteWriter.getFailedWrites(),
+                    sqliteWriter.getTransactions(), sqliteWriter.getCheckpoints()));
+        }
+        if (statementCache != null) {
+            lines.add(1, String.format("Statement cache: hits=%d, misses=%d, evictions=%d, hitRate=%.2f",
+                    statementCache.getHits(), statementCache.getMisses(), statementCache.getEvictions(),
+                    statementCache.getHitRate()));
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the dedicated SQLite writer.
+     *
+     * @return The SQLite writer, or null if writes use the pool
+     */
+    public SQLiteWriteExecutor getSQLiteWriter() {
+        return sqliteWriter;
+    }
+
     /**
      * Gets the database type.
      *
@@ -143,6 +315,15 @@ public class ConnectionPool implements AutoCloseable {
     @Override
     public void close() {
         if (dataSource != null && !dataSource.isClosed()) {
+            if (sqliteWriter != null) {
+                sqliteWriter.close();
+            }
+            if (replicas != null) {
+                replicas.close();
+            }
+            if (statementCache != null) {
+                statementCache.invalidateAll();
+            }
             dataSource.close();
             LOGGER.info("Connection pool closed.");
         }
@@ -1,6 +1,11 @@
 package net.exylia.commons.database.connection;
 
 import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.AsyncDatabaseExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Holds credentials and connection information for a database.
@@ -18,6 +23,18 @@ public class DatabaseCredentials {
     private final long idleTimeout;
     private final long connectionTimeout;
     private final String poolName;
+    private final int statementCacheSize;
+    private final long leakDetectionThreshold;
+    private final long slowQueryThreshold;
+    private final int asyncQueueSize;
+    private final boolean sqliteSingleWriter;
+    private final long sqliteMmapSize;
+    private final int sqliteCacheSize;
+    private final int sqliteBusyTimeout;
+    private final long sqliteCheckpointInterval;
+    private final List<String> replicas;
+    private final long replicaHealthCheckInterval;
+    private final long replicaConnectionTimeout;
 
     /**
      * Builder pattern implementation for DatabaseCredentials
@@ -38,6 +55,18 @@ public class DatabaseCredentials {
         private long idleTimeout = 60000;
         private long connectionTimeout = 30000;
         private String poolName = "ExyliaCommons-HikariPool";
+        private int statementCacheSize = -1;
+        private long leakDetectionThreshold = 15000;
+        private long slowQueryThreshold = 1000;
+        private int asyncQueueSize = AsyncDatabaseExecutor.DEFAULT_MAX_QUEUED;
+        private boolean sqliteSingleWriter = false;
+        private long sqliteMmapSize = 256L * 1024 * 1024;
+        private int sqliteCacheSize = -64000;
+        private int sqliteBusyTimeout = 5000;
+        private long sqliteCheckpointInterval = 60000;
+        private final List<String> replicas = new ArrayList<>();
+        private long replicaHealthCheckInterval = 5000;
+        private long replicaConnectionTimeout = 2000;
 
         /**
          * Constructor with the required parameter
@@ -169,6 +198,148 @@ public class DatabaseCredentials {
             return this;
         }
 
+        /**
+         * Sets the number of prepared statements cached per connection.
+         * 0 disables the cache, a negative value uses the default for the database type:
+         * enabled for SQLite, disabled for MySQL/MariaDB, whose driver already caches statements.
+         *
+         * @param statementCacheSize The cache size per connection
+         * @return The builder instance
+         */
+        public Builder statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a connection can be held before it is reported as a possible leak,
+         * with the stack trace of where it was obtained, in milliseconds. 0 disables it.
+         *
+         * @param leakDetectionThreshold The leak detection threshold
+         * @return The builder instance
+         */
+        public Builder leakDetectionThreshold(long leakDetectionThreshold) {
+            this.leakDetectionThreshold = leakDetectionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the execution time above which statements are logged as slow, in milliseconds. 0 disables it.
+         *
+         * @param slowQueryThreshold The slow query threshold
+         * @return The builder instance
+         */
+        public Builder slowQueryThreshold(long slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how many async operations may wait for a free connection.
+         * Operations submitted beyond that fail right away instead of piling up.
+         *
+         * @param asyncQueueSize The maximum number of waiting async operations
+         * @return The builder instance
+         */
+        public Builder asyncQueueSize(int asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets whether SQLite writes go through a single dedicated writer connection.
+         * Writes are queued and run one at a time, while reads use the pool. Transactions queued
+         * together are grouped into a single commit.
+         *
+         * @param sqliteSingleWriter true to enable the single writer
+         * @return The builder instance
+         */
+        public Builder sqliteSingleWriter(boolean sqliteSingleWriter) {
+            this.sqliteSingleWriter = sqliteSingleWriter;
+            return this;
+        }
+
+        /**
+         * Sets the bytes of the SQLite file mapped in memory, 0 to disable
+         *
+         * @param sqliteMmapSize The mmap size in bytes
+         * @return The builder instance
+         */
+        public Builder sqliteMmapSize(long sqliteMmapSize) {
+            this.sqliteMmapSize = sqliteMmapSize;
+            return this;
+        }
+
+        /**
+         * Sets the SQLite page cache size per connection.
+         * Positive values are pages, negative values are KiB.
+         *
+         * @param sqliteCacheSize The cache size
+         * @return The builder instance
+         */
+        public Builder sqliteCacheSize(int sqliteCacheSize) {
+            this.sqliteCacheSize = sqliteCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets how long SQLite waits for a lock before failing, in milliseconds
+         *
+         * @param sqliteBusyTimeout The busy timeout
+         * @return The builder instance
+         */
+        public Builder sqliteBusyTimeout(int sqliteBusyTimeout) {
+            this.sqliteBusyTimeout = sqliteBusyTimeout;
+            return this;
+        }
+
+        /**
+         * Sets how often the SQLite WAL file is checkpointed by the single writer, in milliseconds.
+         * 0 leaves checkpoints to SQLite.
+         *
+         * @param sqliteCheckpointInterval The checkpoint interval
+         * @return The builder instance
+         */
+        public Builder sqliteCheckpointInterval(long sqliteCheckpointInterval) {
+            this.sqliteCheckpointInterval = sqliteCheckpointInterval;
+            return this;
+        }
+
+        /**
+         * Adds a MySQL/MariaDB read replica, using the same database and authentication as the primary.
+         * Read-only operations are routed to the healthy replicas.
+         *
+         * @param host The replica hostname
+         * @param port The replica port
+         * @return The builder instance
+         */
+        public Builder replica(String host, int port) {
+            this.replicas.add(host + ":" + port);
+            return this;
+        }
+
+        /**
+         * Sets how often the read replicas are checked, in milliseconds
+         *
+         * @param replicaHealthCheckInterval The health check interval
+         * @return The builder instance
+         */
+        public Builder replicaHealthCheckInterval(long replicaHealthCheckInterval) {
+            this.replicaHealthCheckInterval = replicaHealthCheckInterval;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for a replica connection before falling back to the primary, in milliseconds
+         *
+         * @param replicaConnectionTimeout The replica connection timeout
+         * @return The builder instance
+         */
+        public Builder replicaConnectionTimeout(long replicaConnectionTimeout) {
+            this.replicaConnectionTimeout = replicaConnectionTimeout;
+            return this;
+        }
+
         /**
          * Builds the DatabaseCredentials object
          *
@@ -197,6 +368,18 @@ public class DatabaseCredentials {
         this.idleTimeout = builder.idleTimeout;
         this.connectionTimeout = builder.connectionTimeout;
         this.poolName = builder.poolName;
+        this.statementCacheSize = builder.statementCacheSize;
+        this.leakDetectionThreshold = builder.leakDetectionThreshold;
+        this.slowQueryThreshold = builder.slowQueryThreshold;
+        this.asyncQueueSize = builder.asyncQueueSize;
+        this.sqliteSingleWriter = builder.sqliteSingleWriter;
+        this.sqliteMmapSize = builder.sqliteMmapSize;
+        this.sqliteCacheSize = builder.sqliteCacheSize;
+        this.sqliteBusyTimeout = builder.sqliteBusyTimeout;
+        this.sqliteCheckpointInterval = builder.sqliteCheckpointInterval;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(builder.replicas));
+        this.replicaHealthCheckInterval = builder.replicaHealthCheckInterval;
+        this.replicaConnectionTimeout = builder.replicaConnectionTimeout;
     }
 
     /**
@@ -214,9 +397,21 @@ public class DatabaseCredentials {
      * @return The JDBC URL
      */
     public String getJdbcUrl() {
+        return getJdbcUrl(host, port);
+    }
+
+    /**
+     * Gets the JDBC URL for a connection to the given server, e.g. a read replica
+     *
+     * @param host The hostname
+     * @param port The port number
+     * @return The JDBC URL
+     */
+    public String getJdbcUrl(String host, int port) {
         return switch (type) {
             case MYSQL, MARIADB -> type.getJdbcPrefix() + host + ":" + port + "/" + database
-                    + "?useSSL=false&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8";
+                    + "?useSSL=false&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8"
+                    + "&useCursorFetch=true";
             case SQLITE -> type.getJdbcPrefix() + sqliteFile;
         };
     }
@@ -319,4 +514,112 @@ public class DatabaseCredentials {
     public String getPoolName() {
         return poolName;
     }
+
+    /**
+     * Gets the number of prepared statements cached per connection
+     *
+     * @return The statement cache size, or a negative value for the database default
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Gets how long a connection can be held before it is reported as a possible leak
+     *
+     * @return The leak detection threshold in milliseconds, or 0 if disabled
+     */
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * Gets the execution time above which statements are logged as slow
+     *
+     * @return The slow query threshold in milliseconds, or 0 if disabled
+     */
+    public long getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * Gets how many async operations may wait for a free connection
+     *
+     * @return The maximum number of waiting async operations
+     */
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    /**
+     * Checks if SQLite writes go through a single dedicated writer connection
+     *
+     * @return true if the single writer is enabled
+     */
+    public boolean isSqliteSingleWriter() {
+        return sqliteSingleWriter;
+    }
+
+    /**
+     * Gets the bytes of the SQLite file mapped in memory
+     *
+     * @return The mmap size in bytes
+     */
+    public long getSqliteMmapSize() {
+        return sqliteMmapSize;
+    }
+
+    /**
+     * Gets the SQLite page cache size per connection
+     *
+     * @return The cache size, in pages if positive or KiB if negative
+     */
+    public int getSqliteCacheSize() {
+        return sqliteCacheSize;
+    }
+
+    /**
+     * Gets how long SQLite waits for a lock before failing
+     *
+     * @return The busy timeout in milliseconds
+     */
+    public int getSqliteBusyTimeout() {
+        return sqliteBusyTimeout;
+    }
+
+    /**
+     * Gets how often the SQLite WAL file is checkpointed by the single writer
+     *
+     * @return The checkpoint interval in milliseconds
+     */
+    public long getSqliteCheckpointInterval() {
+        return sqliteCheckpointInterval;
+    }
+
+    /**
+     * Gets the read replica endpoints
+     *
+     * @return The replicas as {@code host:port}, empty if none
+     */
+    public List<String> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Gets how often the read replicas are checked
+     *
+     * @return The health check interval in milliseconds
+     */
+    public long getReplicaHealthCheckInterval() {
+        return replicaHealthCheckInterval;
+    }
+
+    /**
+     * Gets how long to wait for a replica connection before falling back to the primary
+     *
+     * @return The replica connection timeout in milliseconds
+     */
+    public long getReplicaConnectionTimeout() {
+        return replicaConnectionTimeout;
+    }
 }
@@ -0,0 +1,222 @@
+package net.exylia.commons.database.connection;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import net.exylia.commons.database.metrics.DatabaseMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection pools of the read replicas of a MySQL/MariaDB primary.
+ * Connections are handed out round-robin among the healthy replicas. A replica is marked down
+ * when a connection can't be obtained or fails its health check, and back up once a periodic
+ * health check succeeds. Replicas start down until their first health check passes.
+ */
+public class ReplicaSet implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaSet.class.getName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final DatabaseMetrics metrics;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final ThreadLocal<Replica> lastAcquired = new ThreadLocal<>();
+
+    /**
+     * Creates the pools of the replicas in the credentials and starts checking their health.
+     *
+     * @param credentials The database credentials
+     * @param metrics The metrics to record connection acquisitions in
+     */
+    public ReplicaSet(DatabaseCredentials credentials, DatabaseMetrics metrics) {
+        this.metrics = metrics;
+
+        List<Replica> created = new ArrayList<>();
+        for (String endpoint : credentials.getReplicas()) {
+            int separator = endpoint.lastIndexOf(':');
+            String host = endpoint.substring(0, separator);
+            int port = Integer.parseInt(endpoint.substring(separator + 1));
+            created.add(new Replica(endpoint, createDataSource(credentials, host, port, created.size())));
+        }
+        this.replicas = Collections.unmodifiableList(created);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, credentials.getPoolName() + "-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, credentials.getReplicaHealthCheckInterval());
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static HikariDataSource createDataSource(DatabaseCredentials credentials, String host, int port, int index) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(credentials.getJdbcUrl(host, port));
+        config.setDriverClassName(credentials.getType().getDriverClassName());
+        config.setUsername(credentials.getUsername());
+        config.setPassword(credentials.getPassword());
+        config.setMaximumPoolSize(credentials.getMaxPoolSize());
+        config.setMinimumIdle(credentials.getMinIdle());
+        config.setIdleTimeout(credentials.getIdleTimeout());
+        config.setConnectionTimeout(Math.max(250, credentials.getReplicaConnectionTimeout()));
+        config.setLeakDetectionThreshold(credentials.getLeakDetectionThreshold());
+        config.setPoolName(credentials.getPoolName() + "-replica-" + index);
+        config.setReadOnly(true);
+        // Don't fail startup when a replica is unreachable, it stays down until it answers
+        config.setInitializationFailTimeout(-1);
+        ConnectionPool.applyMySQLProperties(config);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Gets a connection from the next healthy replica.
+     * Replicas that fail to provide a connection are marked down and skipped.
+     *
+     * @return A read-only connection, or null if no replica is available
+     */
+    public Connection getConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) continue;
+
+            long acquireStart = System.nanoTime();
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                metrics.recordAcquisition(System.nanoTime() - acquireStart);
+                lastAcquired.set(replica);
+                return connection;
+            } catch (SQLException e) {
+                metrics.recordAcquisitionFailure();
+                markDown(replica, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reports that a connection obtained by the calling thread failed with a connection error.
+     * Its replica is marked down right away and every replica is checked again on the health
+     * check thread, so the caller doesn't wait for the checks.
+     *
+     * @param error The connection error
+     */
+    public void reportConnectionError(SQLException error) {
+        Replica replica = lastAcquired.get();
+        lastAcquired.remove();
+        if (replica != null) {
+            markDown(replica, error);
+        }
+
+        try {
+            healthChecker.execute(this::checkHealth);
+        } catch (RejectedExecutionException e) {
+            // Closed, there is nothing left to check
+        }
+    }
+
+    /**
+     * Checks every replica on the calling thread, blocking until every replica answers or times out.
+     */
+    public synchronized void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            } catch (RuntimeException e) {
+                // Keep the scheduled check running, a pool closed during shutdown ends up here
+                markDown(replica, null);
+            }
+        }
+    }
+
+    private void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            LOGGER.info("Read replica " + replica.endpoint + " is available.");
+        }
+    }
+
+    private void markDown(Replica replica, SQLException error) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.log(Level.WARNING, "Read replica " + replica.endpoint + " is unavailable, reads fall back to "
+                    + "other replicas or the primary" + (error != null ? ": " + error.getMessage() : "."));
+        }
+    }
+
+    /**
+     * Gets the number of replicas currently available.
+     *
+     * @return The healthy replica count
+     */
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) healthy++;
+        }
+        return healthy;
+    }
+
+    /**
+     * Gets the number of configured replicas.
+     *
+     * @return The replica count
+     */
+    public int size() {
+        return replicas.size();
+    }
+
+    /**
+     * Builds a one-line summary of the replica states.
+     *
+     * @return The replica summary
+     */
+    public String describe() {
+        StringBuilder builder = new StringBuilder("Replicas: available=")
+                .append(getHealthyCount()).append('/').append(replicas.size());
+        for (Replica replica : replicas) {
+            builder.append(", ").append(replica.endpoint).append(replica.healthy ? " up" : " down");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools.
+     */
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    private static class Replica {
+        private final String endpoint;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = false;
+
+        private Replica(String endpoint, HikariDataSource dataSource) {
+            this.endpoint = endpoint;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -2,21 +2,44 @@ package net.exylia.commons.database.core;
 
 import net.exylia.commons.database.connection.ConnectionPool;
 import net.exylia.commons.database.connection.DatabaseCredentials;
+import net.exylia.commons.database.connection.ReplicaSet;
+import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.AsyncDatabaseExecutor;
 import net.exylia.commons.database.executor.SQLExecutor;
+import net.exylia.commons.database.executor.SQLiteWriteExecutor;
+import net.exylia.commons.database.metrics.DatabaseMetrics;
 import net.exylia.commons.database.util.DatabaseErrors;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Abstract database manager that handles connections and transactions.
  * This class provides a foundation for database operations with built-in error handling.
+ * <p>
+ * When the pool has a dedicated SQLite writer, operations and transactions run on it,
+ * while {@link #executeRead} uses the pool connections.
+ * <p>
+ * Operations marked with {@link DatabaseOperation#readOnly} run on a read replica when
+ * the pool has healthy replicas, and fall back to the primary otherwise. Transactions
+ * always run on the primary.
  */
 public abstract class AbstractDatabaseManager implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(AbstractDatabaseManager.class.getName());
 
     private final ConnectionPool connectionPool;
+    private final AsyncDatabaseExecutor asyncExecutor;
+    private volatile long defaultTimeoutMillis = 0;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.builder().build();
 
     /**
      * Creates a new database manager with the given credentials.
@@ -24,7 +47,7 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
      * @param credentials The database credentials
      */
     public AbstractDatabaseManager(DatabaseCredentials credentials) {
-        this.connectionPool = new ConnectionPool(credentials);
+        this(new ConnectionPool(credentials));
     }
 
     /**
@@ -34,6 +57,11 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
      */
     public AbstractDatabaseManager(ConnectionPool connectionPool) {
         this.connectionPool = connectionPool;
+
+        // Async work is bounded by the pool size, more would only wait for connections
+        DatabaseCredentials credentials = connectionPool.getCredentials();
+        this.asyncExecutor = new AsyncDatabaseExecutor(credentials.getPoolName(), credentials.getMaxPoolSize(),
+                credentials.getAsyncQueueSize(), true);
     }
 
     /**
@@ -59,11 +87,14 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
      * @throws SQLException If a connection cannot be obtained
      */
     public SQLExecutor createExecutor() throws SQLException {
-        return new SQLExecutor(getConnection(), true);
+        return new SQLExecutor(getConnection(), true, connectionPool.getStatementCache(), connectionPool.getMetrics());
     }
 
     /**
      * Executes a database operation with automatic resource management.
+     * With the SQLite single writer the operation runs alone on the writer, in auto-commit mode,
+     * so it may manage its own transaction or use a
+     * {@link net.exylia.commons.database.executor.SQLBatchExecutor}.
      *
      * @param operation The operation to execute
      * @param <T> The return type of the operation
@@ -71,8 +102,37 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public <T> T executeOperation(DatabaseOperation<T> operation) throws SQLException {
+        if (operation.isReadOnly()) {
+            return executeOnReplica(operation);
+        }
+
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            return executeWrite(writer, operation);
+        }
+        return executeOnPrimary(operation);
+    }
+
+    /**
+     * Executes a read-only database operation on a pool connection.
+     * Unlike {@link #executeOperation}, it never waits behind the SQLite writer.
+     * Operations marked with {@link DatabaseOperation#readOnly} run on a read replica if available.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return The result of the operation
+     * @throws SQLException If an error occurs
+     */
+    public <T> T executeRead(DatabaseOperation<T> operation) throws SQLException {
+        if (operation.isReadOnly()) {
+            return executeOnReplica(operation);
+        }
+        return executeOnPrimary(operation);
+    }
+
+    private <T> T executeOnPrimary(DatabaseOperation<T> operation) throws SQLException {
         try (Connection conn = getConnection();
-             SQLExecutor executor = new SQLExecutor(conn)) {
+             SQLExecutor executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics())) {
             return operation.execute(executor);
         } catch (SQLException e) {
             DatabaseErrors.logDatabaseError("executeOperation", e);
@@ -80,8 +140,33 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
         }
     }
 
+    private <T> T executeOnReplica(DatabaseOperation<T> operation) throws SQLException {
+        ReplicaSet replicas = connectionPool.getReplicaSet();
+        Connection conn = replicas != null ? replicas.getConnection() : null;
+        if (conn == null) {
+            return executeOnPrimary(operation);
+        }
+
+        try (conn; SQLExecutor executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics())) {
+            return operation.execute(executor);
+        } catch (SQLException e) {
+            if (!DatabaseErrors.isConnectionError(e)) {
+                DatabaseErrors.logDatabaseError("executeOperation", e);
+                throw e;
+            }
+
+            // The replica went away mid-read, reads are safe to run again on the primary
+            replicas.reportConnectionError(e);
+            return executeOnPrimary(operation);
+        }
+    }
+
     /**
      * Executes a database operation within a transaction with automatic resource management.
+     * Operations marked with {@link DatabaseOperation#idempotent} are run again after transient
+     * errors, as allowed by the {@link #setRetryPolicy retry policy}.
+     * The operation must not commit or roll back on its own: with the SQLite single writer it
+     * shares a commit with other queued transactions, each in its own savepoint.
      *
      * @param operation The operation to execute
      * @param <T> The return type of the operation
@@ -89,12 +174,52 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public <T> T executeTransaction(DatabaseOperation<T> operation) throws SQLException {
+        RetryPolicy policy = retryPolicy;
+        DatabaseMetrics metrics = connectionPool.getMetrics();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = executeTransactionOnce(operation);
+                if (attempt > 1) {
+                    metrics.recordRetryOutcome(true);
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!policy.shouldRetry(e, attempt, operation.isIdempotent())) {
+                    if (attempt > 1) {
+                        metrics.recordRetryOutcome(false);
+                    }
+                    DatabaseErrors.logTransactionError("execute", e);
+                    throw e;
+                }
+
+                metrics.recordRetry();
+                long delay = policy.getDelayMillis(attempt);
+                LOGGER.log(Level.FINE, "Retrying transaction in " + delay + "ms after attempt " + attempt
+                        + " failed: " + e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> T executeTransactionOnce(DatabaseOperation<T> operation) throws SQLException {
+        // Writer operations already run atomically, each in its own savepoint
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            return writer.execute(operation);
+        }
+
         Connection conn = null;
         SQLExecutor executor = null;
 
         try {
             conn = getConnection();
-            executor = new SQLExecutor(conn);
+            executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics());
 
             // Begin transaction
             conn.setAutoCommit(false);
@@ -106,8 +231,8 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
             conn.commit();
 
             return result;
-        } catch (SQLException e) {
-            // Rollback transaction on error
+        } catch (SQLException | RuntimeException e) {
+            // Rollback transaction on error, restoring auto-commit would commit it otherwise
             if (conn != null) {
                 try {
                     conn.rollback();
@@ -116,7 +241,6 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
                 }
             }
 
-            DatabaseErrors.logTransactionError("execute", e);
             throw e;
         } finally {
             // Restore auto-commit
@@ -147,6 +271,254 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
         }
     }
 
+    private <T> T executeWrite(SQLiteWriteExecutor writer, DatabaseOperation<T> operation) throws SQLException {
+        try {
+            // Not grouped: the operation may commit, roll back or change auto-commit on its own
+            return writer.executeStandalone(operation);
+        } catch (SQLException e) {
+            DatabaseErrors.logDatabaseError("write", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts rows, updating the non-key columns of rows whose key already exists.
+     * See {@link #upsertAll(String, String[], String[], Iterable, int)}.
+     *
+     * @param table The table name
+     * @param columns The columns of each row
+     * @param keyColumns The columns of the primary key or unique index that identifies a row
+     * @param rows The rows, with one value per column
+     * @return The number of rows written
+     * @throws SQLException If an error occurs
+     */
+    public int upsertAll(String table, String[] columns, String[] keyColumns, Iterable<Object[]> rows) throws SQLException {
+        return upsertAll(table, columns, keyColumns, rows, 1);
+    }
+
+    /**
+     * Inserts rows, updating the non-key columns of rows whose key already exists.
+     * Rows are sent in chunks of multi-row upserts, each chunk committed in its own transaction,
+     * so a failure leaves the chunks written before it in place.
+     * <p>
+     * On MySQL/MariaDB the chunks can be spread over several pool connections. Rows of different
+     * chunks should not share keys, or the connections may deadlock on each other. Parallel
+     * upserts run on the async executor, so don't call this from one of its tasks.
+     * SQLite always writes from a single connection.
+     *
+     * @param table The table name
+     * @param columns The columns of each row
+     * @param keyColumns The columns of the primary key or unique index that identifies a row
+     * @param rows The rows, with one value per column
+     * @param parallelism The maximum number of connections to use
+     * @return The number of rows written
+     * @throws SQLException If an error occurs
+     */
+    public int upsertAll(String table, String[] columns, String[] keyColumns, Iterable<Object[]> rows,
+                         int parallelism) throws SQLException {
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            // The batch commits on its own, so it can't join a grouped write
+            return writer.executeStandalone(executor -> executor.upsertAll(table, columns, keyColumns, rows));
+        }
+
+        int workers = connectionPool.getDatabaseType() == DatabaseType.SQLITE ? 1
+                : Math.min(parallelism, asyncExecutor.getMaxConcurrency());
+        if (workers <= 1) {
+            return executeOnPrimary(executor -> executor.upsertAll(table, columns, keyColumns, rows));
+        }
+
+        // Every worker takes the next chunk from the shared iterator until it runs out
+        Iterator<Object[]> iterator = rows.iterator();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Integer>> workerFutures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            workerFutures.add(asyncExecutor.submit(() -> {
+                try {
+                    return upsertChunks(table, columns, keyColumns, iterator, failed);
+                } catch (SQLException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }));
+        }
+
+        int written = 0;
+        SQLException error = null;
+        for (CompletableFuture<Integer> future : workerFutures) {
+            try {
+                written += future.join();
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof SQLException sqlException
+                            ? sqlException : new SQLException("Upsert into " + table + " failed", e.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            DatabaseErrors.logInsertError(table, error);
+            throw error;
+        }
+        return written;
+    }
+
+    private int upsertChunks(String table, String[] columns, String[] keyColumns, Iterator<Object[]> iterator,
+                             AtomicBoolean failed) throws SQLException {
+        int written = 0;
+        try (Connection conn = getConnection();
+             SQLExecutor executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics())) {
+            List<Object[]> chunk;
+            while (!failed.get() && !(chunk = nextChunk(iterator)).isEmpty()) {
+                written += executor.upsertAll(table, columns, keyColumns, chunk);
+            }
+        }
+        return written;
+    }
+
+    private static List<Object[]> nextChunk(Iterator<Object[]> iterator) {
+        List<Object[]> chunk = new ArrayList<>(SQLExecutor.DEFAULT_UPSERT_CHUNK_ROWS);
+        synchronized (iterator) {
+            while (chunk.size() < SQLExecutor.DEFAULT_UPSERT_CHUNK_ROWS && iterator.hasNext()) {
+                chunk.add(iterator.next());
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Executes a database operation asynchronously using the default timeout.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeAsync(DatabaseOperation<T> operation) {
+        return executeAsync(operation, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes a database operation asynchronously.
+     * If the timeout expires, the future completes with a {@link java.util.concurrent.TimeoutException}.
+     * An operation that already started is not stopped, so its writes may still be applied.
+     *
+     * @param operation The operation to execute
+     * @param timeout The timeout, or 0 for none
+     * @param unit The timeout unit
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeAsync(DatabaseOperation<T> operation, long timeout, TimeUnit unit) {
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null && !operation.isReadOnly()) {
+            return submitWrite(writer, operation, false, timeout, unit);
+        }
+        return asyncExecutor.submit(() -> executeOperation(operation), timeout, unit);
+    }
+
+    /**
+     * Executes a read-only database operation asynchronously on a pool connection using the default timeout.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeReadAsync(DatabaseOperation<T> operation) {
+        return executeReadAsync(operation, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes a read-only database operation asynchronously on a pool connection.
+     *
+     * @param operation The operation to execute
+     * @param timeout The timeout, or 0 for none
+     * @param unit The timeout unit
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeReadAsync(DatabaseOperation<T> operation, long timeout, TimeUnit unit) {
+        return asyncExecutor.submit(() -> executeRead(operation), timeout, unit);
+    }
+
+    /**
+     * Executes a database operation within a transaction asynchronously using the default timeout.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeTransactionAsync(DatabaseOperation<T> operation) {
+        return executeTransactionAsync(operation, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes a database operation within a transaction asynchronously.
+     * If the timeout expires, the future completes with a {@link java.util.concurrent.TimeoutException}
+     * and the outcome of the transaction is unknown: a transaction that already started is only
+     * interrupted, which JDBC drivers don't reliably honor, and a transaction queued on the SQLite
+     * writer still runs. It may still commit after the timeout, so don't assume it was rolled back.
+     *
+     * @param operation The operation to execute
+     * @param timeout The timeout, or 0 for none
+     * @param unit The timeout unit
+     * @param <T> The return type of the operation
+     * @return A future completed with the result of the operation
+     */
+    public <T> CompletableFuture<T> executeTransactionAsync(DatabaseOperation<T> operation, long timeout, TimeUnit unit) {
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            return submitWrite(writer, operation, true, timeout, unit);
+        }
+        return asyncExecutor.submit(() -> executeTransaction(operation), timeout, unit);
+    }
+
+    /**
+     * Queues an operation on the SQLite writer. Its thread runs the operation, so no
+     * async executor thread waits for it. On timeout the future fails, but a write already
+     * queued still runs. Only transactions are grouped, other operations run on their own.
+     */
+    private <T> CompletableFuture<T> submitWrite(SQLiteWriteExecutor writer, DatabaseOperation<T> operation,
+                                                 boolean transaction, long timeout, TimeUnit unit) {
+        CompletableFuture<T> future = transaction ? writer.submit(operation) : writer.submitStandalone(operation);
+        return timeout > 0 ? future.orTimeout(timeout, unit) : future;
+    }
+
+    /**
+     * Sets the timeout applied to async operations that don't specify one.
+     *
+     * @param timeout The timeout, or 0 for none
+     * @param unit The timeout unit
+     */
+    public void setDefaultTimeout(long timeout, TimeUnit unit) {
+        this.defaultTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * Sets the policy used to retry idempotent transactions after transient errors.
+     *
+     * @param retryPolicy The retry policy, {@link RetryPolicy#none()} to disable retries
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Gets the policy used to retry idempotent transactions after transient errors.
+     *
+     * @return The retry policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Gets the executor running async operations.
+     *
+     * @return The async executor
+     */
+    public AsyncDatabaseExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
     /**
      * Gets the connection pool.
      *
@@ -158,9 +530,12 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
 
     /**
      * Closes the database manager and its resources.
+     * Pending async operations are given a chance to finish first.
      */
     @Override
     public void close() {
+        asyncExecutor.close();
+
         if (connectionPool != null) {
             connectionPool.close();
         }
@@ -181,5 +556,81 @@ public abstract class AbstractDatabaseManager implements AutoCloseable {
          * @throws SQLException If an error occurs
          */
         T execute(SQLExecutor executor) throws SQLException;
+
+        /**
+         * Checks if the operation only reads, so it can run on a read replica.
+         *
+         * @return true if the operation is read-only
+         */
+        default boolean isReadOnly() {
+            return false;
+        }
+
+        /**
+         * Marks an operation as read-only, so it runs on a read replica when one is available.
+         * Replicas may lag behind the primary, so don't use it for reads that must see the
+         * latest writes, such as loading player data that is written back later.
+         *
+         * @param operation The operation
+         * @param <T> The return type of the operation
+         * @return The read-only operation
+         */
+        static <T> DatabaseOperation<T> readOnly(DatabaseOperation<T> operation) {
+            return new DatabaseOperation<>() {
+                @Override
+                public T execute(SQLExecutor executor) throws SQLException {
+                    return operation.execute(executor);
+                }
+
+                @Override
+                public boolean isReadOnly() {
+                    return true;
+                }
+
+                @Override
+                public boolean isIdempotent() {
+                    return operation.isIdempotent();
+                }
+            };
+        }
+
+        /**
+         * Checks if the operation is safe to run more than once, so a transaction that failed
+         * with a transient error can be retried. The operation must not have effects outside the
+         * transaction that can't be repeated, and running it again after a commit whose outcome
+         * is unknown must leave the same result.
+         *
+         * @return true if the operation is idempotent
+         */
+        default boolean isIdempotent() {
+            return false;
+        }
+
+        /**
+         * Marks an operation as idempotent, so {@link AbstractDatabaseManager#executeTransaction} retries it after
+         * transient errors such as deadlocks, lock wait timeouts or {@code SQLITE_BUSY}.
+         *
+         * @param operation The operation
+         * @param <T> The return type of the operation
+         * @return The idempotent operation
+         */
+        static <T> DatabaseOperation<T> idempotent(DatabaseOperation<T> operation) {
+            return new DatabaseOperation<>() {
+                @Override
+                public T execute(SQLExecutor executor) throws SQLException {
+                    return operation.execute(executor);
+                }
+
+                @Override
+                public boolean isReadOnly() {
+                    return operation.isReadOnly();
+                }
+
+                @Override
+                public boolean isIdempotent() {
+                    return true;
+                }
+            };
+        }
     }
 }
@@ -3,11 +3,23 @@ package net.exylia.commons.database.core;
 import net.exylia.commons.database.connection.ConnectionPool;
 import net.exylia.commons.database.connection.DatabaseCredentials;
 import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.WriteBehindQueue;
+import net.exylia.commons.database.migration.Migration;
+import net.exylia.commons.database.migration.MigrationRunner;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +33,10 @@ public abstract class DatabaseLoader implements AutoCloseable {
     private ConnectionPool connectionPool;
     private final List<DatabaseTable> tables = new ArrayList<>();
     private final Map<Class<? extends DatabaseTable>, DatabaseTable> tableMap = new HashMap<>();
+    private final List<WriteBehindQueue> writeBehindQueues = new CopyOnWriteArrayList<>();
+    private MigrationRunner migrationRunner;
+    private boolean migrationDryRun = false;
+    private boolean parallelTableCreation = false;
 
     /**
      * Loads the database with the given credentials.
@@ -31,6 +47,8 @@ public abstract class DatabaseLoader implements AutoCloseable {
         try {
             // Initialize the connection pool
             this.connectionPool = new ConnectionPool(credentials);
+            this.migrationRunner = new MigrationRunner(connectionPool);
+            this.migrationRunner.setDryRun(migrationDryRun);
 
             // Register and create tables
             registerTables();
@@ -63,19 +81,154 @@ public abstract class DatabaseLoader implements AutoCloseable {
     }
 
     /**
-     * Creates all registered tables.
+     * Creates all registered tables, applying their migrations when they define any.
+     * Tables are created after their dependencies, otherwise in registration order.
+     * When parallel table creation is enabled on MySQL and MariaDB, tables that don't
+     * depend on each other are created in parallel. SQLite only allows one writer, so
+     * its tables are always created one by one.
      */
     private void createTables() {
-        for (DatabaseTable table : tables) {
-            try {
+        List<List<DatabaseTable>> levels = resolveCreationOrder();
+        int maxLevelSize = levels.stream().mapToInt(List::size).max().orElse(0);
+
+        ExecutorService executor = null;
+        if (parallelTableCreation && getDatabaseType() != DatabaseType.SQLITE && maxLevelSize > 1) {
+            int threads = Math.min(maxLevelSize, connectionPool.getCredentials().getMaxPoolSize());
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "ExyliaDatabase-Schema-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        try {
+            for (List<DatabaseTable> level : levels) {
+                if (executor == null || level.size() == 1) {
+                    level.forEach(this::createTable);
+                    continue;
+                }
+
+                List<Future<?>> futures = new ArrayList<>();
+                for (DatabaseTable table : level) {
+                    futures.add(executor.submit(() -> createTable(table)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (ExecutionException e) {
+                        LOGGER.log(Level.SEVERE, "Failed to create table: " + e.getCause().getMessage(), e.getCause());
+                    }
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Creates a table, through its migrations if it defines any.
+     *
+     * @param table The table to create
+     */
+    private void createTable(DatabaseTable table) {
+        try {
+            List<Migration> migrations = table.getMigrations();
+            if (migrations.isEmpty()) {
                 table.createTable();
                 LOGGER.info("Created table: " + table.getTableName());
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Failed to create table " + table.getTableName() + ": " + e.getMessage(), e);
+                return;
+            }
+
+            List<Migration> applied = migrationRunner.migrate(table.getTableName(), migrations);
+            if (!applied.isEmpty() && !migrationRunner.isDryRun()) {
+                LOGGER.info("Migrated table " + table.getTableName() + " to version " + applied.get(applied.size() - 1).getVersion());
             }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to create table " + table.getTableName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Groups the tables in levels, where every table only depends on tables of previous levels.
+     * Tables in a dependency cycle are put in a last level and created in registration order.
+     *
+     * @return The tables grouped by creation level
+     */
+    private List<List<DatabaseTable>> resolveCreationOrder() {
+        List<List<DatabaseTable>> levels = new ArrayList<>();
+        List<DatabaseTable> remaining = new ArrayList<>(tables);
+        Set<Class<? extends DatabaseTable>> created = new HashSet<>();
+
+        while (!remaining.isEmpty()) {
+            List<DatabaseTable> level = new ArrayList<>();
+            for (DatabaseTable table : remaining) {
+                boolean ready = true;
+                for (Class<? extends DatabaseTable> dependency : table.getDependencies()) {
+                    // Dependencies that aren't registered here are assumed to exist
+                    if (tableMap.containsKey(dependency) && !created.contains(dependency)) {
+                        ready = false;
+                        break;
+                    }
+                }
+                if (ready) {
+                    level.add(table);
+                }
+            }
+
+            if (level.isEmpty()) {
+                LOGGER.warning("Circular table dependencies detected, creating remaining tables in registration order.");
+                remaining.forEach(table -> levels.add(List.of(table)));
+                break;
+            }
+
+            remaining.removeAll(level);
+            level.forEach(table -> created.add(table.getClass()));
+            levels.add(level);
+        }
+
+        return levels;
+    }
+
+    /**
+     * Sets whether pending migrations are only logged instead of applied.
+     * Must be called before {@link #load(DatabaseCredentials)}.
+     *
+     * @param dryRun true to enable dry-run mode
+     */
+    public void setMigrationDryRun(boolean dryRun) {
+        this.migrationDryRun = dryRun;
+        if (migrationRunner != null) {
+            migrationRunner.setDryRun(dryRun);
         }
     }
 
+    /**
+     * Sets whether independent tables are created in parallel on MySQL and MariaDB.
+     * Only enable it when every table declares the tables it references through
+     * {@link DatabaseTable#getDependencies()}, since registration order no longer
+     * orders tables of the same level. Must be called before {@link #load(DatabaseCredentials)}.
+     *
+     * @param parallel true to create independent tables in parallel
+     */
+    public void setParallelTableCreation(boolean parallel) {
+        this.parallelTableCreation = parallel;
+    }
+
+    /**
+     * Gets the runner applying table migrations.
+     *
+     * @return The migration runner, or null if the database is not loaded
+     */
+    public MigrationRunner getMigrationRunner() {
+        return migrationRunner;
+    }
+
     /**
      * Gets a registered table by its class.
      *
@@ -88,6 +241,42 @@ public abstract class DatabaseLoader implements AutoCloseable {
         return (T) tableMap.get(tableClass);
     }
 
+    /**
+     * Creates a write-behind queue using the default flush settings.
+     * The queue is flushed and closed when this loader is closed.
+     *
+     * @return The write-behind queue
+     */
+    public WriteBehindQueue createWriteBehindQueue() {
+        return trackQueue(new WriteBehindQueue(requireConnectionPool()));
+    }
+
+    /**
+     * Creates a write-behind queue.
+     * The queue is flushed and closed when this loader is closed.
+     *
+     * @param flushInterval The maximum time a write stays queued
+     * @param unit The flush interval unit
+     * @param flushRows The number of pending rows that triggers a flush
+     * @param maxBacklog The maximum number of pending rows before writers are held back
+     * @return The write-behind queue
+     */
+    public WriteBehindQueue createWriteBehindQueue(long flushInterval, TimeUnit unit, int flushRows, int maxBacklog) {
+        return trackQueue(new WriteBehindQueue(requireConnectionPool(), flushInterval, unit, flushRows, maxBacklog));
+    }
+
+    private WriteBehindQueue trackQueue(WriteBehindQueue queue) {
+        writeBehindQueues.add(queue);
+        return queue;
+    }
+
+    private ConnectionPool requireConnectionPool() {
+        if (connectionPool == null) {
+            throw new IllegalStateException("Database is not loaded");
+        }
+        return connectionPool;
+    }
+
     /**
      * Gets the connection pool.
      *
@@ -117,9 +306,19 @@ public abstract class DatabaseLoader implements AutoCloseable {
 
     /**
      * Closes the database loader and its resources.
+     * Write-behind queues are flushed before the connection pool is closed.
      */
     @Override
     public void close() {
+        for (WriteBehindQueue queue : writeBehindQueues) {
+            try {
+                queue.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Failed to flush write-behind queue: " + e.getMessage(), e);
+            }
+        }
+        writeBehindQueues.clear();
+
         if (connectionPool != null) {
             connectionPool.close();
             LOGGER.info("Database connection closed.");
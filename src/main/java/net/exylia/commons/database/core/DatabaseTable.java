@@ -1,5 +1,10 @@
 package net.exylia.commons.database.core;
 
+import net.exylia.commons.database.migration.Migration;
+
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Interface for database tables, providing the contract for any table
  * that needs to be created and managed in the database.
@@ -9,6 +14,7 @@ public interface DatabaseTable {
     /**
      * Creates the table in the database if it doesn't exist.
      * This method should handle the SQL statement to create the table structure.
+     * It is not called for tables that define migrations.
      */
     void createTable();
 
@@ -18,4 +24,26 @@ public interface DatabaseTable {
      * @return The table name as a string
      */
     String getTableName();
+
+    /**
+     * Returns the versioned migrations that create and evolve the table.
+     * When not empty, they are applied instead of {@link #createTable()}.
+     *
+     * @return The table migrations
+     */
+    default List<Migration> getMigrations() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the tables that must be created before this one, such as tables
+     * referenced by foreign keys. Tables without dependencies between them are
+     * created in parallel when {@link DatabaseLoader#setParallelTableCreation(boolean)}
+     * is enabled.
+     *
+     * @return The table dependencies
+     */
+    default List<Class<? extends DatabaseTable>> getDependencies() {
+        return Collections.emptyList();
+    }
 }
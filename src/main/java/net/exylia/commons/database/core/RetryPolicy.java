@@ -0,0 +1,173 @@
+package net.exylia.commons.database.core;
+
+import net.exylia.commons.database.util.DatabaseErrors;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a failed transaction is run again and how long to wait before it.
+ * Only operations marked with {@link AbstractDatabaseManager.DatabaseOperation#idempotent} are
+ * retried, after transient errors (see {@link DatabaseErrors#isTransient}) and, since the
+ * outcome of a commit may be unknown, after connection errors.
+ * <p>
+ * Delays grow exponentially from the initial delay up to the maximum, and each delay is
+ * randomized between half and all of its value, so transactions that deadlocked on each
+ * other don't retry in lockstep.
+ */
+public class RetryPolicy {
+    private static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final boolean retryConnectionErrors;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelayMs = builder.initialDelayMs;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.multiplier = builder.multiplier;
+        this.retryConnectionErrors = builder.retryConnectionErrors;
+    }
+
+    /**
+     * Creates a new retry policy builder.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets a policy that never retries.
+     *
+     * @return The policy without retries
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Checks if a failed attempt should be run again.
+     *
+     * @param error The error of the failed attempt
+     * @param attempt The number of the failed attempt, starting at 1
+     * @param idempotent Whether the operation is safe to run more than once
+     * @return true if the operation should be retried
+     */
+    public boolean shouldRetry(SQLException error, int attempt, boolean idempotent) {
+        if (!idempotent || attempt >= maxAttempts) {
+            return false;
+        }
+        return DatabaseErrors.isTransient(error) || (retryConnectionErrors && DatabaseErrors.isConnectionError(error));
+    }
+
+    /**
+     * Gets the randomized delay before the next attempt.
+     *
+     * @param attempt The number of the failed attempt, starting at 1
+     * @return The delay in milliseconds
+     */
+    public long getDelayMillis(int attempt) {
+        double delay = initialDelayMs * Math.pow(multiplier, attempt - 1);
+        long capped = (long) Math.min(delay, maxDelayMs);
+        if (capped <= 1) {
+            return capped;
+        }
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+    }
+
+    /**
+     * Gets the maximum number of attempts, including the first one.
+     *
+     * @return The maximum attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Builder for retry policies.
+     */
+    public static class Builder {
+        private int maxAttempts = 3;
+        private long initialDelayMs = 50;
+        private long maxDelayMs = 1000;
+        private double multiplier = 2.0;
+        private boolean retryConnectionErrors = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of attempts, including the first one.
+         *
+         * @param maxAttempts The maximum attempts, 1 disables retries
+         * @return The builder instance
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry.
+         *
+         * @param delay The delay
+         * @param unit The delay unit
+         * @return The builder instance
+         */
+        public Builder initialDelay(long delay, TimeUnit unit) {
+            this.initialDelayMs = Math.max(0, unit.toMillis(delay));
+            return this;
+        }
+
+        /**
+         * Sets the maximum delay between attempts.
+         *
+         * @param delay The delay
+         * @param unit The delay unit
+         * @return The builder instance
+         */
+        public Builder maxDelay(long delay, TimeUnit unit) {
+            this.maxDelayMs = Math.max(0, unit.toMillis(delay));
+            return this;
+        }
+
+        /**
+         * Sets the factor the delay grows by after each attempt.
+         *
+         * @param multiplier The delay multiplier, at least 1
+         * @return The builder instance
+         */
+        public Builder multiplier(double multiplier) {
+            this.multiplier = Math.max(1.0, multiplier);
+            return this;
+        }
+
+        /**
+         * Sets whether connection errors are retried too.
+         *
+         * @param retryConnectionErrors true to retry connection errors
+         * @return The builder instance
+         */
+        public Builder retryConnectionErrors(boolean retryConnectionErrors) {
+            this.retryConnectionErrors = retryConnectionErrors;
+            return this;
+        }
+
+        /**
+         * Builds the retry policy.
+         *
+         * @return A new RetryPolicy instance
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
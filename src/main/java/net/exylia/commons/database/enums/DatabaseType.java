@@ -1,5 +1,13 @@
 package net.exylia.commons.database.enums;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
 /**
  * Enumeration of supported database types.
  */
@@ -33,4 +41,54 @@ public enum DatabaseType {
             case MARIADB -> "jdbc:mariadb://";
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a single-row insert that updates the non-key columns when a row with the same key exists.
+     * MySQL and MariaDB use {@code ON DUPLICATE KEY UPDATE}, SQLite uses {@code ON CONFLICT DO UPDATE}.
+     *
+     * @param table The table name
+     * @param columns The columns to insert
+     * @param keyColumns The columns of the primary key or unique index that identifies a row
+     * @return The upsert statement, with one parameter per column
+     */
+    public String buildUpsert(String table, String[] columns, String[] keyColumns) {
+        if (columns.length == 0 || keyColumns.length == 0) {
+            throw new IllegalArgumentException("Upserts need at least one column and one key column");
+        }
+
+        List<String> keys = Arrays.asList(keyColumns);
+        if (!Arrays.asList(columns).containsAll(keys)) {
+            throw new IllegalArgumentException("Key columns " + keys + " must be part of the inserted columns");
+        }
+
+        StringJoiner updates = new StringJoiner(", ");
+        for (String column : columns) {
+            if (keys.contains(column)) continue;
+            updates.add(this == SQLITE ? column + " = excluded." + column : column + " = VALUES(" + column + ")");
+        }
+
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        return switch (this) {
+            case SQLITE -> insert + " ON CONFLICT (" + String.join(", ", keyColumns) + ") "
+                    + (updates.length() == 0 ? "DO NOTHING" : "DO UPDATE SET " + updates);
+            // VALUES() instead of row aliases, which MariaDB doesn't support
+            case MYSQL, MARIADB -> insert + " ON DUPLICATE KEY UPDATE "
+                    + (updates.length() == 0 ? keyColumns[0] + " = " + keyColumns[0] : updates.toString());
+        };
+    }
+
+    /**
+     * Detects the database type of a connection.
+     *
+     * @param connection The connection
+     * @return The database type
+     * @throws SQLException If the connection metadata can't be read
+     */
+    public static DatabaseType of(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("sqlite")) return SQLITE;
+        if (product.contains("mariadb")) return MARIADB;
+        return MYSQL;
+    }
+}
@@ -0,0 +1,352 @@
+package net.exylia.commons.database.executor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded executor for running database work off the main thread.
+ * At most {@code maxConcurrency} tasks run at the same time, which should match the
+ * size of the connection pool so tasks don't pile up waiting for connections.
+ * On Java 21+ tasks run on virtual threads, otherwise on a fixed pool of daemon threads.
+ * At most {@code maxQueued} more tasks wait for their turn; tasks submitted beyond that are
+ * rejected, completing their future with a {@link RejectedExecutionException}.
+ */
+public class AsyncDatabaseExecutor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncDatabaseExecutor.class.getName());
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Default number of tasks that may wait for their turn.
+     */
+    public static final int DEFAULT_MAX_QUEUED = 10000;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final boolean virtualThreads;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /**
+     * Creates a new executor, using virtual threads when available.
+     *
+     * @param name The name used for the executor threads
+     * @param maxConcurrency The maximum number of tasks running at the same time
+     */
+    public AsyncDatabaseExecutor(String name, int maxConcurrency) {
+        this(name, maxConcurrency, true);
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param name The name used for the executor threads
+     * @param maxConcurrency The maximum number of tasks running at the same time
+     * @param preferVirtualThreads Whether to use virtual threads when available
+     */
+    public AsyncDatabaseExecutor(String name, int maxConcurrency, boolean preferVirtualThreads) {
+        this(name, maxConcurrency, DEFAULT_MAX_QUEUED, preferVirtualThreads);
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param name The name used for the executor threads
+     * @param maxConcurrency The maximum number of tasks running at the same time
+     * @param maxQueued The maximum number of tasks waiting for their turn
+     * @param preferVirtualThreads Whether to use virtual threads when available
+     */
+    public AsyncDatabaseExecutor(String name, int maxConcurrency, int maxQueued, boolean preferVirtualThreads) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Max queued tasks can't be negative");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxPending = maxConcurrency + maxQueued;
+
+        ExecutorService virtualExecutor = preferVirtualThreads ? createVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            // Virtual threads are cheap, the semaphore bounds the concurrency and the
+            // pending count bounds the threads parked on it
+            this.executor = virtualExecutor;
+            this.permits = new Semaphore(maxConcurrency, true);
+            this.virtualThreads = true;
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, maxQueued)), createThreadFactory(name));
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.permits = null;
+            this.virtualThreads = false;
+        }
+    }
+
+    /**
+     * Runs a task asynchronously.
+     *
+     * @param task The task to run
+     * @param <T> The return type of the task
+     * @return A future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task asynchronously with a timeout.
+     * When the timeout expires the future completes with a {@link TimeoutException}
+     * and the task is interrupted, or skipped if it hasn't started yet. JDBC drivers don't reliably
+     * stop on interrupts, so a task that already started may still complete its work.
+     *
+     * @param task The task to run
+     * @param timeout The timeout, or 0 for none
+     * @param unit The timeout unit
+     * @param <T> The return type of the task
+     * @return A future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, long timeout, TimeUnit unit) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        submitted.incrementAndGet();
+
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            failed.incrementAndGet();
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                    "Too many pending database tasks (" + maxPending + ")"));
+            return future;
+        }
+
+        // Leaves the pending count when the task ends, or when it is cancelled before it starts
+        AtomicBoolean started = new AtomicBoolean();
+
+        Future<?> handle;
+        try {
+            handle = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) return;
+                try {
+                    run(task, future);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            failed.incrementAndGet();
+            rejected.incrementAndGet();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        if (timeout > 0) {
+            future.orTimeout(timeout, unit).whenComplete((result, error) -> {
+                if (error instanceof TimeoutException) {
+                    timedOut.incrementAndGet();
+                    handle.cancel(true);
+                    if (started.compareAndSet(false, true)) {
+                        pending.decrementAndGet();
+                    }
+                }
+            });
+        }
+
+        return future;
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> future) {
+        // Skip tasks that timed out while queued
+        if (future.isDone()) return;
+
+        boolean acquired = false;
+        try {
+            if (permits != null) {
+                permits.acquire();
+                acquired = true;
+                if (future.isDone()) return;
+            }
+
+            running.incrementAndGet();
+            try {
+                future.complete(task.call());
+            } finally {
+                running.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        } catch (Throwable t) {
+            failed.incrementAndGet();
+            future.completeExceptionally(t);
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Gets an executor that runs tasks on the server main thread.
+     * Tasks submitted from the main thread run immediately.
+     *
+     * @param plugin The plugin scheduling the tasks
+     * @return The main thread executor
+     */
+    public static Executor mainThread(Plugin plugin) {
+        return command -> {
+            if (Bukkit.isPrimaryThread()) {
+                command.run();
+            } else {
+                Bukkit.getScheduler().runTask(plugin, command);
+            }
+        };
+    }
+
+    /**
+     * Gets a future that completes on the server main thread with the same result as another.
+     * Callbacks attached to the returned future can safely use the Bukkit API.
+     *
+     * @param future The future to wait for
+     * @param plugin The plugin scheduling the completion
+     * @param <T> The result type
+     * @return A future completed on the main thread
+     */
+    public static <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future, Plugin plugin) {
+        return future.whenCompleteAsync((result, error) -> {}, mainThread(plugin));
+    }
+
+    /**
+     * Gets the maximum number of tasks running at the same time.
+     *
+     * @return The maximum concurrency
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Checks if the executor runs tasks on virtual threads.
+     *
+     * @return true if virtual threads are used
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Gets the number of tasks currently running.
+     *
+     * @return The running task count
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * Gets the number of tasks submitted since creation.
+     *
+     * @return The submitted task count
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Gets the number of tasks that failed or were rejected.
+     *
+     * @return The failed task count
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Gets the number of tasks rejected because too many were pending or the executor was closed.
+     *
+     * @return The rejected task count
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of tasks waiting or running.
+     *
+     * @return The pending task count
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of tasks that timed out.
+     *
+     * @return The timed out task count
+     */
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warning("Database tasks did not finish in time, interrupting them.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory createThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-Async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to create virtual thread executor, using platform threads: " + e.getMessage());
+            return null;
+        }
+    }
+}
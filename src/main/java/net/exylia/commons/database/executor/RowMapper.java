@@ -0,0 +1,21 @@
+package net.exylia.commons.database.executor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object.
+ *
+ * @param <T> The mapped type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Maps the current row. Implementations must not move the cursor.
+     *
+     * @param rs The result set positioned at the row to map
+     * @return The mapped object
+     * @throws SQLException If an error occurs
+     */
+    T map(ResultSet rs) throws SQLException;
+}
@@ -3,23 +3,45 @@ package net.exylia.commons.database.executor;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Executes batch SQL statements for improved performance when doing many operations.
+ * Parameters are bound straight into the statement batch as rows are added.
+ * On SQLite, which has no driver-side batch rewriting, simple {@code INSERT ... VALUES (...)}
+ * statements are rewritten into multi-row inserts instead.
  */
 public class SQLBatchExecutor implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(SQLBatchExecutor.class.getName());
 
+    // SQLite's default variable limit before 3.32 and after it
+    private static final int SQLITE_LEGACY_MAX_PARAMS = 999;
+    private static final int SQLITE_MAX_PARAMS = 32766;
+    // Placeholders allowed in a MySQL/MariaDB prepared statement
+    private static final int MYSQL_MAX_PARAMS = 65535;
+
     private final Connection connection;
     private final boolean manageConnection;
     private final String sql;
-    private final PreparedStatement statement;
-    private final List<Object[]> parameterBatch;
     private final int batchSize;
+    private final StatementCache statementCache;
+    private int pendingRows = 0;
+    private int committedRows = 0;
+
+    // Direct mode: rows are bound into the statement batch
+    private final StatementCache.Lease statementLease;
+    private final PreparedStatement statement;
+    private final Row directRow;
+
+    // Rewrite mode: rows are buffered in a flat array and sent as multi-row inserts
+    private final MultiRowInsert multiRowInsert;
+    private final int rowsPerStatement;
+    private final Object[] rowBuffer;
+    private final BufferedRow bufferedRow;
+    private StatementCache.Lease multiRowLease;
 
     /**
      * Creates a new batch executor with the given connection and SQL statement.
@@ -43,12 +65,81 @@ public class SQLBatchExecutor implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public SQLBatchExecutor(Connection connection, String sql, int batchSize, boolean manageConnection) throws SQLException {
+        this(connection, sql, batchSize, manageConnection, isSQLite(connection));
+    }
+
+    /**
+     * Creates a new batch executor with the given connection and SQL statement.
+     *
+     * @param connection The database connection
+     * @param sql The SQL statement to execute in batch
+     * @param batchSize The number of statements to batch before executing
+     * @param manageConnection Whether the executor should close the connection when it is closed
+     * @param rewriteInserts Whether to rewrite single-row inserts into multi-row inserts when possible
+     * @throws SQLException If an error occurs
+     */
+    public SQLBatchExecutor(Connection connection, String sql, int batchSize, boolean manageConnection,
+                            boolean rewriteInserts) throws SQLException {
+        this(connection, sql, batchSize, manageConnection, rewriteInserts, null);
+    }
+
+    /**
+     * Creates a new batch executor with the given connection and SQL statement,
+     * reusing prepared statements from a cache.
+     *
+     * @param connection The database connection
+     * @param sql The SQL statement to execute in batch
+     * @param batchSize The number of statements to batch before executing
+     * @param manageConnection Whether the executor should close the connection when it is closed
+     * @param statementCache The statement cache, or null to prepare statements every time
+     * @throws SQLException If an error occurs
+     */
+    public SQLBatchExecutor(Connection connection, String sql, int batchSize, boolean manageConnection,
+                            StatementCache statementCache) throws SQLException {
+        this(connection, sql, batchSize, manageConnection, isSQLite(connection), statementCache);
+    }
+
+    /**
+     * Creates a new batch executor with the given connection and SQL statement.
+     *
+     * @param connection The database connection
+     * @param sql The SQL statement to execute in batch
+     * @param batchSize The number of statements to batch before executing
+     * @param manageConnection Whether the executor should close the connection when it is closed
+     * @param rewriteInserts Whether to rewrite single-row inserts into multi-row inserts when possible
+     * @param statementCache The statement cache, or null to prepare statements every time
+     * @throws SQLException If an error occurs
+     */
+    public SQLBatchExecutor(Connection connection, String sql, int batchSize, boolean manageConnection,
+                            boolean rewriteInserts, StatementCache statementCache) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
         this.connection = connection;
         this.manageConnection = manageConnection;
         this.sql = sql;
-        this.statement = connection.prepareStatement(sql);
-        this.parameterBatch = new ArrayList<>();
         this.batchSize = batchSize;
+        this.statementCache = statementCache;
+
+        MultiRowInsert insert = rewriteInserts ? MultiRowInsert.parse(sql) : null;
+        if (insert != null) {
+            this.multiRowInsert = insert;
+            this.rowsPerStatement = Math.max(1, Math.min(batchSize, maxParameters(connection) / insert.paramsPerRow));
+            this.rowBuffer = new Object[rowsPerStatement * insert.paramsPerRow];
+            this.bufferedRow = new BufferedRow();
+            this.statementLease = null;
+            this.statement = null;
+            this.directRow = null;
+        } else {
+            this.multiRowInsert = null;
+            this.rowsPerStatement = batchSize;
+            this.rowBuffer = null;
+            this.bufferedRow = null;
+            this.statementLease = StatementCache.prepare(statementCache, connection, sql);
+            this.statement = statementLease.statement();
+            this.directRow = new DirectRow(statement);
+        }
 
         // Disable auto-commit for better performance
         boolean originalAutoCommit = connection.getAutoCommit();
@@ -64,10 +155,40 @@ public class SQLBatchExecutor implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public void addBatch(Object... params) throws SQLException {
-        parameterBatch.add(params);
+        Row row = beginRow();
+        for (int i = 0; i < params.length; i++) {
+            row.setObject(i + 1, params[i]);
+        }
+        endRow();
+    }
+
+    /**
+     * Adds a statement to the batch, binding its parameters with typed setters.
+     *
+     * @param binder The binder setting the parameters of the row
+     * @throws SQLException If an error occurs
+     */
+    public void addBatch(RowBinder binder) throws SQLException {
+        binder.bind(beginRow());
+        endRow();
+    }
+
+    private Row beginRow() {
+        if (multiRowInsert != null) {
+            bufferedRow.offset = pendingRows * multiRowInsert.paramsPerRow;
+            return bufferedRow;
+        }
+        return directRow;
+    }
+
+    private void endRow() throws SQLException {
+        if (statement != null) {
+            statement.addBatch();
+        }
+        pendingRows++;
 
         // Process the batch if it's full
-        if (parameterBatch.size() >= batchSize) {
+        if (pendingRows >= rowsPerStatement) {
             executeBatch();
         }
     }
@@ -79,26 +200,25 @@ public class SQLBatchExecutor implements AutoCloseable {
      */
     public void executeBatch() throws SQLException {
         try {
-            if (parameterBatch.isEmpty()) {
+            if (pendingRows == 0) {
                 return;
             }
 
-            for (Object[] params : parameterBatch) {
-                // Set parameters for this statement
-                for (int i = 0; i < params.length; i++) {
-                    statement.setObject(i + 1, params[i]);
-                }
-                statement.addBatch();
+            if (multiRowInsert != null) {
+                executeMultiRow();
+            } else {
+                statement.executeBatch();
             }
-
-            // Execute the batch
-            statement.executeBatch();
             connection.commit();
+            committedRows += pendingRows;
 
             // Clear the batch for reuse
-            parameterBatch.clear();
+            pendingRows = 0;
 
         } catch (SQLException e) {
+            // Discard the failed rows so they aren't sent again
+            discardPending();
+
             // Try to roll back on error
             try {
                 connection.rollback();
@@ -111,13 +231,66 @@ public class SQLBatchExecutor implements AutoCloseable {
         }
     }
 
+    /**
+     * Sends the buffered rows as a single multi-row insert.
+     * Full chunks reuse the same statement, a trailing partial chunk gets its own.
+     */
+    private void executeMultiRow() throws SQLException {
+        int params = pendingRows * multiRowInsert.paramsPerRow;
+
+        if (pendingRows == rowsPerStatement) {
+            if (multiRowLease == null) {
+                multiRowLease = StatementCache.prepare(statementCache, connection, multiRowInsert.build(rowsPerStatement));
+            }
+            PreparedStatement full = multiRowLease.statement();
+            bindBuffer(full, params);
+            full.executeUpdate();
+        } else {
+            try (PreparedStatement partial = connection.prepareStatement(multiRowInsert.build(pendingRows))) {
+                bindBuffer(partial, params);
+                partial.executeUpdate();
+            }
+        }
+
+        Arrays.fill(rowBuffer, 0, params, null);
+    }
+
+    private void bindBuffer(PreparedStatement stmt, int params) throws SQLException {
+        for (int i = 0; i < params; i++) {
+            stmt.setObject(i + 1, rowBuffer[i]);
+        }
+    }
+
+    private void discardPending() {
+        if (multiRowInsert != null) {
+            Arrays.fill(rowBuffer, 0, pendingRows * multiRowInsert.paramsPerRow, null);
+        } else {
+            try {
+                statement.clearBatch();
+            } catch (SQLException ignored) {
+                // The statement is unusable anyway
+            }
+        }
+        pendingRows = 0;
+    }
+
     /**
      * Gets the number of statements in the current batch.
      *
      * @return The batch size
      */
     public int getCurrentBatchSize() {
-        return parameterBatch.size();
+        return pendingRows;
+    }
+
+    /**
+     * Gets the number of rows committed so far. Rows are committed in the order they were added,
+     * so after a failure the first rows up to this count are already in the database.
+     *
+     * @return The committed row count
+     */
+    public int getCommittedRows() {
+        return committedRows;
     }
 
     /**
@@ -129,35 +302,365 @@ public class SQLBatchExecutor implements AutoCloseable {
         return batchSize;
     }
 
+    /**
+     * Checks if rows are sent as multi-row inserts.
+     *
+     * @return true if inserts are rewritten
+     */
+    public boolean isRewritingInserts() {
+        return multiRowInsert != null;
+    }
+
+    /**
+     * Gets the SQL statement executed in batch.
+     *
+     * @return The SQL statement
+     */
+    public String getSql() {
+        return sql;
+    }
+
     /**
      * Closes the executor, executing any remaining statements and restoring the connection state.
+     * The statements and the connection are released even if the remaining statements fail.
      *
      * @throws SQLException If an error occurs
      */
     @Override
     public void close() throws SQLException {
+        SQLException error = null;
         try {
             // Execute any remaining statements
-            if (!parameterBatch.isEmpty()) {
+            if (pendingRows > 0) {
                 executeBatch();
             }
+        } catch (SQLException e) {
+            error = e;
+        }
 
-            // Close the statement
-            if (statement != null && !statement.isClosed()) {
-                statement.close();
-            }
+        // Close the statements, or return them to the cache
+        error = release(statementLease, error);
+        error = release(multiRowLease, error);
 
-            // Restore auto-commit
+        // Restore auto-commit
+        try {
             connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            error = chain(error, e);
+        }
 
-            // Close the connection if we're managing it
-            if (manageConnection && connection != null && !connection.isClosed()) {
-                connection.close();
+        // Close the connection if we're managing it
+        if (manageConnection) {
+            try {
+                if (!connection.isClosed()) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                error = chain(error, e);
             }
+        }
+
+        if (error != null) {
+            LOGGER.log(Level.SEVERE, "Error closing batch executor: " + error.getMessage(), error);
+            throw error;
+        }
+    }
 
+    private static SQLException release(StatementCache.Lease lease, SQLException error) {
+        if (lease == null) {
+            return error;
+        }
+        try {
+            lease.close();
+            return error;
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error closing batch executor: " + e.getMessage(), e);
-            throw e;
+            return chain(error, e);
+        }
+    }
+
+    private static SQLException chain(SQLException error, SQLException next) {
+        if (error == null) {
+            return next;
+        }
+        error.addSuppressed(next);
+        return error;
+    }
+
+    private static boolean isSQLite(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("sqlite");
+    }
+
+    private static int maxParameters(Connection connection) throws SQLException {
+        if (!isSQLite(connection)) {
+            return MYSQL_MAX_PARAMS;
+        }
+
+        String[] version = connection.getMetaData().getDatabaseProductVersion().split("\\.");
+        try {
+            int major = Integer.parseInt(version[0]);
+            int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+            return major > 3 || (major == 3 && minor >= 32) ? SQLITE_MAX_PARAMS : SQLITE_LEGACY_MAX_PARAMS;
+        } catch (NumberFormatException e) {
+            return SQLITE_LEGACY_MAX_PARAMS;
+        }
+    }
+
+    /**
+     * Binds the parameters of one batch row.
+     */
+    @FunctionalInterface
+    public interface RowBinder {
+        /**
+         * Binds the parameters of the row.
+         *
+         * @param row The row to bind, with 1-based parameter indexes
+         * @throws SQLException If an error occurs
+         */
+        void bind(Row row) throws SQLException;
+    }
+
+    /**
+     * Typed parameter setters for one batch row.
+     */
+    public interface Row {
+        /**
+         * Sets a string parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setString(int index, String value) throws SQLException;
+
+        /**
+         * Sets a long parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setLong(int index, long value) throws SQLException;
+
+        /**
+         * Sets an int parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setInt(int index, int value) throws SQLException;
+
+        /**
+         * Sets a double parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setDouble(int index, double value) throws SQLException;
+
+        /**
+         * Sets a boolean parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setBoolean(int index, boolean value) throws SQLException;
+
+        /**
+         * Sets a byte array parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setBytes(int index, byte[] value) throws SQLException;
+
+        /**
+         * Sets an object parameter.
+         *
+         * @param index The 1-based parameter index
+         * @param value The value
+         * @throws SQLException If an error occurs
+         */
+        void setObject(int index, Object value) throws SQLException;
+    }
+
+    /**
+     * Row bound straight into the prepared statement.
+     */
+    private static final class DirectRow implements Row {
+        private final PreparedStatement statement;
+
+        DirectRow(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void setString(int index, String value) throws SQLException {
+            statement.setString(index, value);
+        }
+
+        @Override
+        public void setLong(int index, long value) throws SQLException {
+            statement.setLong(index, value);
+        }
+
+        @Override
+        public void setInt(int index, int value) throws SQLException {
+            statement.setInt(index, value);
+        }
+
+        @Override
+        public void setDouble(int index, double value) throws SQLException {
+            statement.setDouble(index, value);
+        }
+
+        @Override
+        public void setBoolean(int index, boolean value) throws SQLException {
+            statement.setBoolean(index, value);
+        }
+
+        @Override
+        public void setBytes(int index, byte[] value) throws SQLException {
+            statement.setBytes(index, value);
+        }
+
+        @Override
+        public void setObject(int index, Object value) throws SQLException {
+            statement.setObject(index, value);
+        }
+    }
+
+    /**
+     * Row written into the multi-row insert buffer at the current row offset.
+     */
+    private final class BufferedRow implements Row {
+        private int offset;
+
+        private void set(int index, Object value) {
+            if (index < 1 || index > multiRowInsert.paramsPerRow) {
+                throw new IndexOutOfBoundsException("Parameter index out of range: " + index);
+            }
+            rowBuffer[offset + index - 1] = value;
+        }
+
+        @Override
+        public void setString(int index, String value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setLong(int index, long value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setInt(int index, int value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setDouble(int index, double value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setBoolean(int index, boolean value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setBytes(int index, byte[] value) {
+            set(index, value);
+        }
+
+        @Override
+        public void setObject(int index, Object value) {
+            set(index, value);
+        }
+    }
+
+    /**
+     * A single-row {@code INSERT ... VALUES (...)} split around its values group,
+     * so it can be rebuilt with any number of rows.
+     */
+    private static final class MultiRowInsert {
+        private final String head;
+        private final String values;
+        private final String tail;
+        private final int paramsPerRow;
+
+        private MultiRowInsert(String head, String values, String tail, int paramsPerRow) {
+            this.head = head;
+            this.values = values;
+            this.tail = tail;
+            this.paramsPerRow = paramsPerRow;
+        }
+
+        /**
+         * Parses an insert statement.
+         *
+         * @param sql The SQL statement
+         * @return The parsed insert, or null if the statement can't be rewritten
+         */
+        static MultiRowInsert parse(String sql) {
+            String trimmed = sql.trim();
+            String upper = trimmed.toUpperCase(Locale.ROOT);
+            if (!upper.startsWith("INSERT") && !upper.startsWith("REPLACE")) return null;
+
+            int valuesKeyword = upper.indexOf("VALUES");
+            if (valuesKeyword < 0) return null;
+
+            int open = trimmed.indexOf('(', valuesKeyword);
+            if (open < 0 || !trimmed.substring(valuesKeyword + 6, open).isBlank()) return null;
+
+            // Find the end of the values group, counting parameters outside string literals
+            int depth = 0;
+            int params = 0;
+            int close = -1;
+            boolean inString = false;
+            for (int i = open; i < trimmed.length() && close < 0; i++) {
+                char c = trimmed.charAt(i);
+                if (c == '\'') {
+                    inString = !inString;
+                } else if (!inString) {
+                    if (c == '(') {
+                        depth++;
+                    } else if (c == ')' && --depth == 0) {
+                        close = i;
+                    } else if (c == '?') {
+                        params++;
+                    }
+                }
+            }
+            if (close < 0 || params == 0) return null;
+
+            // Statements with more rows or parameters after the values group are left alone
+            String tail = trimmed.substring(close + 1);
+            if (tail.indexOf('?') >= 0 || tail.trim().startsWith(",")) return null;
+            if (tail.trim().endsWith(";")) {
+                tail = tail.substring(0, tail.lastIndexOf(';'));
+            }
+
+            return new MultiRowInsert(trimmed.substring(0, open), trimmed.substring(open, close + 1), tail, params);
+        }
+
+        /**
+         * Builds the insert for a number of rows.
+         *
+         * @param rows The number of rows
+         * @return The SQL statement
+         */
+        String build(int rows) {
+            StringBuilder builder = new StringBuilder(head.length() + tail.length() + rows * (values.length() + 1));
+            builder.append(head);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) builder.append(',');
+                builder.append(values);
+            }
+            return builder.append(tail).toString();
         }
     }
 }
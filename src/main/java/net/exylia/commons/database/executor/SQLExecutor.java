@@ -1,20 +1,34 @@
 package net.exylia.commons.database.executor;
 
+import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.metrics.DatabaseMetrics;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Executes SQL statements with parameter binding.
  */
 public class SQLExecutor implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(SQLExecutor.class.getName());
+    public static final int DEFAULT_UPSERT_CHUNK_ROWS = 1000;
 
     private final Connection connection;
     private final boolean manageConnection;
+    private final StatementCache statementCache;
+    private final DatabaseMetrics metrics;
+    private boolean transactionOpen = false;
 
     /**
      * Creates a new SQL executor with the given connection.
@@ -33,8 +47,34 @@ public class SQLExecutor implements AutoCloseable {
      * @param manageConnection Whether the executor should close the connection when it is closed
      */
     public SQLExecutor(Connection connection, boolean manageConnection) {
+        this(connection, manageConnection, null);
+    }
+
+    /**
+     * Creates a new SQL executor with the given connection, reusing prepared statements from a cache.
+     *
+     * @param connection The database connection
+     * @param manageConnection Whether the executor should close the connection when it is closed
+     * @param statementCache The statement cache, or null to prepare statements every time
+     */
+    public SQLExecutor(Connection connection, boolean manageConnection, StatementCache statementCache) {
+        this(connection, manageConnection, statementCache, null);
+    }
+
+    /**
+     * Creates a new SQL executor with the given connection, reusing prepared statements from a cache
+     * and recording the execution time of every statement.
+     *
+     * @param connection The database connection
+     * @param manageConnection Whether the executor should close the connection when it is closed
+     * @param statementCache The statement cache, or null to prepare statements every time
+     * @param metrics The metrics to record execution times to, or null to not record them
+     */
+    public SQLExecutor(Connection connection, boolean manageConnection, StatementCache statementCache, DatabaseMetrics metrics) {
         this.connection = connection;
         this.manageConnection = manageConnection;
+        this.statementCache = statementCache;
+        this.metrics = metrics;
     }
 
     /**
@@ -46,17 +86,23 @@ public class SQLExecutor implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public int update(String sql, Object... params) throws SQLException {
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql)) {
+            PreparedStatement stmt = lease.statement();
             setParams(stmt, params);
             return stmt.executeUpdate();
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Error executing update: " + e.getMessage(), e);
             throw e;
+        } finally {
+            record(sql, start);
         }
     }
 
     /**
      * Executes a query statement.
+     * Closing the returned result set also closes its statement. Prefer {@link #queryList},
+     * {@link #queryOne} or {@link #queryStream}, which close everything themselves.
      *
      * @param sql The SQL statement
      * @param params The parameters to bind
@@ -64,16 +110,104 @@ public class SQLExecutor implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public ResultSet query(String sql, Object... params) throws SQLException {
+        long start = System.nanoTime();
         try {
             PreparedStatement stmt = connection.prepareStatement(sql);
+            stmt.closeOnCompletion();
             setParams(stmt, params);
             return stmt.executeQuery();
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Error executing query: " + e.getMessage(), e);
             throw e;
+        } finally {
+            record(sql, start);
         }
     }
 
+    /**
+     * Executes a query statement and maps every row.
+     *
+     * @param sql The SQL statement
+     * @param mapper The row mapper
+     * @param params The parameters to bind
+     * @param <T> The mapped type
+     * @return The mapped rows
+     * @throws SQLException If an error occurs
+     */
+    public <T> List<T> queryList(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql);
+             ResultSet rs = executeQuery(lease.statement(), params)) {
+            List<T> results = new ArrayList<>();
+            while (rs.next()) {
+                results.add(mapper.map(rs));
+            }
+            return results;
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    /**
+     * Executes a query statement and maps the first row.
+     *
+     * @param sql The SQL statement
+     * @param mapper The row mapper
+     * @param params The parameters to bind
+     * @param <T> The mapped type
+     * @return The mapped row or null if no rows found
+     * @throws SQLException If an error occurs
+     */
+    public <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql);
+             ResultSet rs = executeQuery(lease.statement(), params)) {
+            if (rs.next()) {
+                return mapper.map(rs);
+            }
+            return null;
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    /**
+     * Executes a query statement and maps its rows lazily as the stream is consumed.
+     * Rows are fetched from the database in chunks of {@code fetchSize}, using a server-side
+     * cursor on MySQL/MariaDB, so large scans never hold the whole result in memory.
+     * <p>
+     * The statement and result set are closed once the last row is read or the stream is closed,
+     * so the stream should be used in a try-with-resources block and consumed before the
+     * connection is returned. SQL errors while iterating are thrown as {@link UncheckedSQLException}.
+     *
+     * @param sql The SQL statement
+     * @param mapper The row mapper
+     * @param fetchSize The number of rows fetched per round trip
+     * @param params The parameters to bind
+     * @param <T> The mapped type
+     * @return A stream of mapped rows
+     * @throws SQLException If the query can't be executed
+     */
+    public <T> Stream<T> queryStream(String sql, RowMapper<T> mapper, int fetchSize, Object... params) throws SQLException {
+        // Streams keep their statement open while consumed, so they don't use the cache
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ResultSet rs;
+        long start = System.nanoTime();
+        try {
+            stmt.setFetchSize(fetchSize);
+            rs = executeQuery(stmt, params);
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        } finally {
+            // Only the query itself, consuming the rows is up to the caller
+            record(sql, start);
+        }
+
+        RowSpliterator<T> spliterator = new RowSpliterator<>(stmt, rs, mapper);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
     /**
      * Executes a query statement and returns a single value from the first row.
      *
@@ -86,11 +220,15 @@ public class SQLExecutor implements AutoCloseable {
      */
     @SuppressWarnings("unchecked")
     public <T> T queryScalar(String sql, int columnIndex, Object... params) throws SQLException {
-        try (ResultSet rs = query(sql, params)) {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql);
+             ResultSet rs = executeQuery(lease.statement(), params)) {
             if (rs.next()) {
                 return (T) rs.getObject(columnIndex);
             }
             return null;
+        } finally {
+            record(sql, start);
         }
     }
 
@@ -106,11 +244,15 @@ public class SQLExecutor implements AutoCloseable {
      */
     @SuppressWarnings("unchecked")
     public <T> T queryScalar(String sql, String columnName, Object... params) throws SQLException {
-        try (ResultSet rs = query(sql, params)) {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql);
+             ResultSet rs = executeQuery(lease.statement(), params)) {
             if (rs.next()) {
                 return (T) rs.getObject(columnName);
             }
             return null;
+        } finally {
+            record(sql, start);
         }
     }
 
@@ -123,11 +265,67 @@ public class SQLExecutor implements AutoCloseable {
      * @throws SQLException If an error occurs
      */
     public boolean exists(String sql, Object... params) throws SQLException {
-        try (ResultSet rs = query(sql, params)) {
+        long start = System.nanoTime();
+        try (StatementCache.Lease lease = prepare(sql);
+             ResultSet rs = executeQuery(lease.statement(), params)) {
             return rs.next();
+        } finally {
+            record(sql, start);
         }
     }
 
+    /**
+     * Inserts rows, updating the non-key columns of rows whose key already exists.
+     * See {@link #upsertAll(String, String[], String[], Iterable, int)}.
+     *
+     * @param table The table name
+     * @param columns The columns of each row
+     * @param keyColumns The columns of the primary key or unique index that identifies a row
+     * @param rows The rows, with one value per column
+     * @return The number of rows written
+     * @throws SQLException If an error occurs
+     */
+    public int upsertAll(String table, String[] columns, String[] keyColumns, Iterable<Object[]> rows) throws SQLException {
+        return upsertAll(table, columns, keyColumns, rows, DEFAULT_UPSERT_CHUNK_ROWS);
+    }
+
+    /**
+     * Inserts rows, updating the non-key columns of rows whose key already exists.
+     * Rows are sent as multi-row upserts of up to {@code chunkRows} rows, fewer if the driver's
+     * parameter limit is reached first, and each chunk is committed in its own transaction,
+     * so don't call this inside a transaction.
+     *
+     * @param table The table name
+     * @param columns The columns of each row
+     * @param keyColumns The columns of the primary key or unique index that identifies a row
+     * @param rows The rows, with one value per column
+     * @param chunkRows The maximum number of rows per statement and transaction
+     * @return The number of rows written
+     * @throws SQLException If an error occurs
+     */
+    public int upsertAll(String table, String[] columns, String[] keyColumns, Iterable<Object[]> rows,
+                         int chunkRows) throws SQLException {
+        String sql = DatabaseType.of(connection).buildUpsert(table, columns, keyColumns);
+        long start = System.nanoTime();
+        int written = 0;
+
+        try (SQLBatchExecutor batch = new SQLBatchExecutor(connection, sql, chunkRows, false, true, statementCache)) {
+            for (Object[] row : rows) {
+                if (row.length != columns.length) {
+                    throw new IllegalArgumentException("Row has " + row.length + " values, expected " + columns.length);
+                }
+                batch.addBatch(row);
+                written++;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error executing upsert into " + table + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            record(sql, start);
+        }
+        return written;
+    }
+
     /**
      * Begins a transaction.
      *
@@ -135,6 +333,7 @@ public class SQLExecutor implements AutoCloseable {
      */
     public void beginTransaction() throws SQLException {
         connection.setAutoCommit(false);
+        transactionOpen = true;
     }
 
     /**
@@ -145,6 +344,7 @@ public class SQLExecutor implements AutoCloseable {
     public void commit() throws SQLException {
         connection.commit();
         connection.setAutoCommit(true);
+        transactionOpen = false;
     }
 
     /**
@@ -155,6 +355,7 @@ public class SQLExecutor implements AutoCloseable {
     public void rollback() throws SQLException {
         connection.rollback();
         connection.setAutoCommit(true);
+        transactionOpen = false;
     }
 
     /**
@@ -166,6 +367,56 @@ public class SQLExecutor implements AutoCloseable {
         return connection;
     }
 
+    /**
+     * Gets the statement cache used by this executor.
+     *
+     * @return The statement cache, or null if statements aren't cached
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Records the execution time of a statement, if metrics are enabled.
+     *
+     * @param sql The SQL statement
+     * @param start The {@link System#nanoTime()} when the statement started
+     */
+    private void record(String sql, long start) {
+        if (metrics != null) {
+            metrics.recordQuery(sql, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Prepares a statement, through the statement cache if there is one.
+     *
+     * @param sql The SQL statement
+     * @return The statement lease
+     * @throws SQLException If an error occurs
+     */
+    private StatementCache.Lease prepare(String sql) throws SQLException {
+        return StatementCache.prepare(statementCache, connection, sql);
+    }
+
+    /**
+     * Binds the parameters and executes a query on a leased statement.
+     *
+     * @param stmt The prepared statement
+     * @param params The parameters to bind
+     * @return The result set
+     * @throws SQLException If an error occurs
+     */
+    private ResultSet executeQuery(PreparedStatement stmt, Object... params) throws SQLException {
+        try {
+            setParams(stmt, params);
+            return stmt.executeQuery();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error executing query: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
     /**
      * Sets the parameters for a prepared statement.
      *
@@ -179,15 +430,81 @@ public class SQLExecutor implements AutoCloseable {
         }
     }
 
+    /**
+     * Lazily maps the rows of a result set, closing it after the last row.
+     *
+     * @param <T> The mapped type
+     */
+    private static final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> mapper;
+        private boolean closed = false;
+
+        RowSpliterator(PreparedStatement statement, ResultSet resultSet, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) return false;
+
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new UncheckedSQLException(e);
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error closing result set: " + e.getMessage(), e);
+            }
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error closing statement: " + e.getMessage(), e);
+            }
+        }
+    }
+
     /**
      * Closes the executor and optionally the connection.
+     * A transaction begun with {@link #beginTransaction} and not finished, or any open transaction
+     * on a managed connection, is rolled back. Cached statements run on the driver connection, so
+     * the pool can't tell the transaction has uncommitted work and could commit it when it
+     * restores auto-commit.
      *
      * @throws SQLException If an error occurs
      */
     @Override
     public void close() throws SQLException {
-        if (manageConnection && connection != null && !connection.isClosed()) {
-            connection.close();
+        if (connection == null || connection.isClosed()) return;
+
+        try {
+            if ((transactionOpen || manageConnection) && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            transactionOpen = false;
+        } finally {
+            if (manageConnection) {
+                connection.close();
+            }
         }
     }
 }
@@ -0,0 +1,401 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.core.AbstractDatabaseManager.DatabaseOperation;
+import net.exylia.commons.database.metrics.DatabaseMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs every SQLite write on a single dedicated connection and thread.
+ * SQLite only allows one writer at a time, so concurrent writers on a pool fight for
+ * the lock and fail with SQLITE_BUSY. Here writes are queued instead, and the writes
+ * queued while a transaction runs are grouped into the next one, so each group pays
+ * for a single commit. Each write runs in its own savepoint, so a failing write is
+ * rolled back without affecting the rest of its group.
+ * <p>
+ * The WAL file is checkpointed periodically from the writer thread.
+ */
+public class SQLiteWriteExecutor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(SQLiteWriteExecutor.class.getName());
+    private static final int MAX_GROUP_SIZE = 256;
+    private static final long MAX_WAIT_SECONDS = 60;
+
+    private final Connection connection;
+    private final SQLExecutor executor;
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private final long checkpointIntervalMillis;
+    private final Object closeLock = new Object();
+    private volatile boolean closed = false;
+    private long lastCheckpoint = System.currentTimeMillis();
+
+    // Metrics
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+
+    /**
+     * Creates a new write executor and starts its thread.
+     *
+     * @param name The name used for the writer thread
+     * @param connection The dedicated writer connection, closed with this executor
+     * @param statementCache The prepared statement cache, or null to disable caching
+     * @param metrics The metrics recording statement execution times, or null to disable them
+     * @param checkpointIntervalMillis How often the WAL file is checkpointed, or 0 to leave it to SQLite
+     */
+    public SQLiteWriteExecutor(String name, Connection connection, StatementCache statementCache,
+                               DatabaseMetrics metrics, long checkpointIntervalMillis) {
+        this.connection = connection;
+        this.executor = new SQLExecutor(connection, false, statementCache, metrics);
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.thread = new Thread(this::run, name + "-Writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a write. The operation runs inside a transaction shared with other queued writes,
+     * so it must not commit or roll back on its own.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return A future completed with the result once the write is committed
+     */
+    public <T> CompletableFuture<T> submit(DatabaseOperation<T> operation) {
+        return enqueue(operation, true);
+    }
+
+    /**
+     * Queues a write that runs on its own, in auto-commit mode, for operations that manage
+     * their own transaction such as a {@link SQLBatchExecutor}.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return A future completed with the result once the operation finishes
+     */
+    public <T> CompletableFuture<T> submitStandalone(DatabaseOperation<T> operation) {
+        return enqueue(operation, false);
+    }
+
+    /**
+     * Executes a write and waits for it to be committed.
+     * When called from the writer thread, for example from another write, it runs right away
+     * in the current transaction. Waits for at most {@value #MAX_WAIT_SECONDS} seconds, after which
+     * the write may still run and commit.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return The result of the operation
+     * @throws SQLException If an error occurs
+     */
+    public <T> T execute(DatabaseOperation<T> operation) throws SQLException {
+        if (isWriterThread()) {
+            return operation.execute(executor);
+        }
+        return await(submit(operation));
+    }
+
+    /**
+     * Executes a write on its own, in auto-commit mode, and waits for it to finish.
+     * When called from the writer thread it runs right away. Waits for at most
+     * {@value #MAX_WAIT_SECONDS} seconds, after which the write may still run and commit.
+     *
+     * @param operation The operation to execute
+     * @param <T> The return type of the operation
+     * @return The result of the operation
+     * @throws SQLException If an error occurs
+     */
+    public <T> T executeStandalone(DatabaseOperation<T> operation) throws SQLException {
+        if (isWriterThread()) {
+            return operation.execute(executor);
+        }
+        return await(submitStandalone(operation));
+    }
+
+    private <T> CompletableFuture<T> enqueue(DatabaseOperation<T> operation, boolean grouped) {
+        // Under the close lock, so no task is queued after close drained the queue
+        synchronized (closeLock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new SQLException("SQLite writer is closed"));
+            }
+
+            WriteTask<T> task = new WriteTask<>(operation, grouped);
+            queue.add(task);
+            return task.future;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("SQLite write did not finish in " + MAX_WAIT_SECONDS
+                    + " seconds, it may still commit", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for SQLite write, it may still commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("SQLite write failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Checks if the current thread is the writer thread.
+     *
+     * @return true if called from the writer thread
+     */
+    public boolean isWriterThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    private void run() {
+        List<WriteTask<?>> drained = new ArrayList<>(MAX_GROUP_SIZE);
+        List<WriteTask<?>> group = new ArrayList<>(MAX_GROUP_SIZE);
+
+        while (!closed || !queue.isEmpty()) {
+            try {
+                WriteTask<?> first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    drained.add(first);
+                    queue.drainTo(drained, MAX_GROUP_SIZE - 1);
+
+                    // Standalone writes split the group, keeping the queue order
+                    for (WriteTask<?> task : drained) {
+                        if (task.grouped) {
+                            group.add(task);
+                            continue;
+                        }
+                        if (!group.isEmpty()) {
+                            runGroup(group);
+                            group.clear();
+                        }
+                        runStandalone(task);
+                    }
+                    if (!group.isEmpty()) {
+                        runGroup(group);
+                    }
+                }
+
+                if (checkpointIntervalMillis > 0 && System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMillis) {
+                    checkpoint("PASSIVE");
+                }
+            } catch (InterruptedException e) {
+                // Interrupted by close, drain what is left
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error in SQLite writer: " + e.getMessage(), e);
+            } finally {
+                drained.clear();
+                group.clear();
+            }
+        }
+    }
+
+    private void runGroup(List<WriteTask<?>> group) {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            group.forEach(task -> task.fail(e));
+            return;
+        }
+
+        List<Object> results = new ArrayList<>(group.size());
+        for (WriteTask<?> task : group) {
+            Savepoint savepoint = null;
+            try {
+                savepoint = connection.setSavepoint();
+                results.add(task.operation.execute(executor));
+                connection.releaseSavepoint(savepoint);
+            } catch (Exception e) {
+                if (savepoint != null) {
+                    try {
+                        connection.rollback(savepoint);
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SQLException rollbackEx) {
+                        LOGGER.log(Level.SEVERE, "Error rolling back SQLite write: " + rollbackEx.getMessage(), rollbackEx);
+                    }
+                }
+                results.add(e);
+            }
+        }
+
+        try {
+            connection.commit();
+            transactions.incrementAndGet();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to commit " + group.size() + " SQLite writes: " + e.getMessage(), e);
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                LOGGER.log(Level.SEVERE, "Error rolling back SQLite writes: " + rollbackEx.getMessage(), rollbackEx);
+            }
+            group.forEach(task -> task.fail(e));
+            return;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring autoCommit: " + e.getMessage(), e);
+            }
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            Object result = results.get(i);
+            if (result instanceof Exception e) {
+                group.get(i).fail(e);
+            } else {
+                group.get(i).complete(result);
+            }
+        }
+    }
+
+    private void runStandalone(WriteTask<?> task) {
+        try {
+            task.complete(task.operation.execute(executor));
+        } catch (Exception e) {
+            task.fail(e);
+        } finally {
+            try {
+                // Don't let a forgotten transaction leak into the next writes
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring autoCommit: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void checkpoint(String mode) {
+        lastCheckpoint = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA wal_checkpoint(" + mode + ")");
+            checkpoints.incrementAndGet();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to checkpoint SQLite WAL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the number of writes waiting to run.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of writes committed.
+     *
+     * @return The committed write count
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * Gets the number of writes that failed.
+     *
+     * @return The failed write count
+     */
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    /**
+     * Gets the number of transactions committed. Each one groups one or more writes.
+     *
+     * @return The committed transaction count
+     */
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    /**
+     * Gets the number of WAL checkpoints run.
+     *
+     * @return The checkpoint count
+     */
+    public long getCheckpoints() {
+        return checkpoints.get();
+    }
+
+    /**
+     * Runs the queued writes, truncates the WAL file and closes the writer connection.
+     */
+    @Override
+    public void close() {
+        synchronized (closeLock) {
+            if (closed) return;
+            closed = true;
+        }
+
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (thread.isAlive()) {
+            LOGGER.warning("SQLite writer did not finish in time, " + queue.size() + " writes were not run.");
+        } else {
+            checkpoint("TRUNCATE");
+        }
+
+        WriteTask<?> task;
+        while ((task = queue.poll()) != null) {
+            task.fail(new SQLException("SQLite writer is closed"));
+        }
+
+        try {
+            executor.close();
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error closing SQLite writer connection: " + e.getMessage(), e);
+        }
+    }
+
+    private final class WriteTask<T> {
+        private final DatabaseOperation<T> operation;
+        private final boolean grouped;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        WriteTask(DatabaseOperation<T> operation, boolean grouped) {
+            this.operation = operation;
+            this.grouped = grouped;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            writes.incrementAndGet();
+            future.complete((T) result);
+        }
+
+        void fail(Throwable error) {
+            failedWrites.incrementAndGet();
+            future.completeExceptionally(error);
+        }
+    }
+}
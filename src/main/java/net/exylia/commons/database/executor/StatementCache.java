@@ -0,0 +1,350 @@
+package net.exylia.commons.database.executor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache of prepared statements, kept per physical connection and keyed by SQL.
+ * Statements are prepared on the driver connection behind the pool proxy, so they
+ * survive the connection being returned to the pool and are reused by the next borrower.
+ * Statements of connections closed by the pool are dropped when the pool opens a new
+ * connection, which is when it replaces the closed ones, or on {@link #invalidate}.
+ * The statements reference their connection, so entries are removed explicitly rather than
+ * left to garbage collection.
+ * <p>
+ * A physical connection is only used by one borrower at a time, so statements are never
+ * shared between threads. A statement still in use when the same SQL is prepared again
+ * (for example while iterating its results) gets an uncached statement instead.
+ * The statements of each connection are guarded by their own lock, since invalidation and
+ * the purge of closed connections can run on other threads.
+ */
+public class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maxStatementsPerConnection;
+    private final Map<Connection, ConnectionStatements> connections = new IdentityHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new statement cache.
+     *
+     * @param maxStatementsPerConnection The maximum number of statements cached for each connection
+     */
+    public StatementCache(int maxStatementsPerConnection) {
+        if (maxStatementsPerConnection <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    /**
+     * Prepares a statement, reusing a cached one if available.
+     * The lease must be closed when done, which returns the statement to the cache.
+     *
+     * @param connection The connection to prepare the statement on
+     * @param sql The SQL statement
+     * @return The statement lease
+     * @throws SQLException If an error occurs
+     */
+    public Lease prepare(Connection connection, String sql) throws SQLException {
+        Connection physical = unwrap(connection);
+        ConnectionStatements statements = statementsFor(physical);
+
+        synchronized (statements) {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse) {
+                if (!cached.statement.isClosed()) {
+                    hits.incrementAndGet();
+                    cached.inUse = true;
+                    return new Lease(cached.statement, cached);
+                }
+                statements.remove(sql);
+            } else if (cached != null) {
+                // The cached statement is busy, use a separate one this time
+                misses.incrementAndGet();
+                return uncached(connection.prepareStatement(sql));
+            }
+        }
+
+        misses.incrementAndGet();
+        CachedStatement created = new CachedStatement(physical.prepareStatement(sql), statements);
+        created.inUse = true;
+        synchronized (statements) {
+            if (statements.closed) {
+                // Invalidated while preparing, don't cache it
+                created.evicted = true;
+            } else {
+                CachedStatement replaced = statements.put(sql, created);
+                if (replaced != null) {
+                    statements.release(replaced);
+                }
+            }
+        }
+        return new Lease(created.statement, created);
+    }
+
+    /**
+     * Wraps a statement that is closed when its lease is closed.
+     *
+     * @param statement The statement
+     * @return The statement lease
+     */
+    public static Lease uncached(PreparedStatement statement) {
+        return new Lease(statement, null);
+    }
+
+    /**
+     * Prepares a statement through a cache if there is one, or an uncached statement otherwise.
+     *
+     * @param cache The statement cache, or null
+     * @param connection The connection to prepare the statement on
+     * @param sql The SQL statement
+     * @return The statement lease
+     * @throws SQLException If an error occurs
+     */
+    public static Lease prepare(StatementCache cache, Connection connection, String sql) throws SQLException {
+        return cache != null ? cache.prepare(connection, sql) : uncached(connection.prepareStatement(sql));
+    }
+
+    private ConnectionStatements statementsFor(Connection physical) throws SQLException {
+        synchronized (connections) {
+            ConnectionStatements statements = connections.get(physical);
+            if (statements != null && !physical.isClosed()) {
+                return statements;
+            }
+
+            // New or evicted connection, also drop the statements of other closed connections
+            purgeClosed();
+            statements = new ConnectionStatements();
+            connections.put(physical, statements);
+            return statements;
+        }
+    }
+
+    private void purgeClosed() {
+        Iterator<Map.Entry<Connection, ConnectionStatements>> iterator = connections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, ConnectionStatements> entry = iterator.next();
+            boolean closed;
+            try {
+                closed = entry.getKey().isClosed();
+            } catch (SQLException e) {
+                closed = true;
+            }
+
+            if (closed) {
+                entry.getValue().closeAll();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes and drops the cached statements of a connection.
+     *
+     * @param connection The connection
+     */
+    public void invalidate(Connection connection) {
+        ConnectionStatements statements;
+        synchronized (connections) {
+            statements = connections.remove(unwrap(connection));
+        }
+        if (statements != null) {
+            statements.closeAll();
+        }
+    }
+
+    /**
+     * Closes and drops all cached statements.
+     */
+    public void invalidateAll() {
+        List<ConnectionStatements> all;
+        synchronized (connections) {
+            all = new ArrayList<>(connections.values());
+            connections.clear();
+        }
+        all.forEach(ConnectionStatements::closeAll);
+    }
+
+    /**
+     * Gets the maximum number of statements cached for each connection.
+     *
+     * @return The cache size per connection
+     */
+    public int getMaxStatementsPerConnection() {
+        return maxStatementsPerConnection;
+    }
+
+    /**
+     * Gets the number of statements served from the cache.
+     *
+     * @return The cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of statements that had to be prepared.
+     *
+     * @return The cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of statements evicted to make room for others.
+     *
+     * @return The evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the ratio of statements served from the cache.
+     *
+     * @return The hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private static Connection unwrap(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                return connection.unwrap(Connection.class);
+            }
+        } catch (SQLException ignored) {
+            // Use the connection as is
+        }
+        return connection;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A statement borrowed from the cache. Closing it returns the statement to the
+     * cache, or closes it if it isn't cached.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final CachedStatement cached;
+
+        private Lease(PreparedStatement statement, CachedStatement cached) {
+            this.statement = statement;
+            this.cached = cached;
+        }
+
+        /**
+         * Gets the leased statement. It must not be closed directly.
+         *
+         * @return The prepared statement
+         */
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        /**
+         * Checks if the statement is kept in the cache after the lease is closed.
+         *
+         * @return true if the statement is cached
+         */
+        public boolean isCached() {
+            return cached != null;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (cached == null) {
+                statement.close();
+                return;
+            }
+
+            boolean evicted;
+            synchronized (cached.owner) {
+                cached.inUse = false;
+                evicted = cached.evicted;
+            }
+            if (evicted) {
+                statement.close();
+            } else if (!statement.isClosed()) {
+                statement.clearParameters();
+            }
+        }
+    }
+
+    /**
+     * A cached statement. Its flags are only accessed while holding the lock of its owner.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final ConnectionStatements owner;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement, ConnectionStatements owner) {
+            this.statement = statement;
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Statements of one physical connection in access order, only accessed while holding its lock.
+     */
+    private final class ConnectionStatements extends LinkedHashMap<String, CachedStatement> {
+        private boolean closed = false;
+
+        ConnectionStatements() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+            if (size() <= maxStatementsPerConnection) return false;
+
+            evictions.incrementAndGet();
+            release(eldest.getValue());
+            return true;
+        }
+
+        /**
+         * Closes a statement leaving the cache, or marks it to be closed when its lease is closed.
+         */
+        void release(CachedStatement statement) {
+            if (statement.inUse) {
+                statement.evicted = true;
+            } else {
+                closeQuietly(statement.statement);
+            }
+        }
+
+        synchronized void closeAll() {
+            closed = true;
+            values().forEach(this::release);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package net.exylia.commons.database.executor;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps a {@link SQLException} thrown where checked exceptions can't be propagated,
+ * such as while iterating a stream of query results.
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    /**
+     * Creates a new unchecked exception wrapping a SQL exception.
+     *
+     * @param cause The SQL exception
+     */
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Gets the wrapped SQL exception.
+     *
+     * @return The SQL exception
+     */
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
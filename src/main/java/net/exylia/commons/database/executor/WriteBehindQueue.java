@@ -0,0 +1,499 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.connection.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queue that delays and batches high-frequency writes.
+ * Writes are coalesced per table and key, keeping only the latest parameters, and
+ * flushed through a {@link SQLBatchExecutor} every flush interval or once enough rows
+ * are pending. Since only the last write for a key survives, statements should write
+ * absolute values (UPDATE ... SET kills = ? or an upsert), not increments.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindQueue.class.getName());
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ConnectionPool connectionPool;
+    private final Map<String, String> statements = new ConcurrentHashMap<>();
+    private final long flushIntervalMillis;
+    private final int flushRows;
+    private final int maxBacklog;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private LinkedHashMap<WriteKey, PendingWrite> pending = new LinkedHashMap<>();
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos = 0;
+    private volatile long maxFlushNanos = 0;
+    private volatile int peakDepth = 0;
+
+    /**
+     * Creates a new write-behind queue that flushes every second or every 500 rows,
+     * holding at most 10000 pending rows.
+     *
+     * @param connectionPool The connection pool to write to
+     */
+    public WriteBehindQueue(ConnectionPool connectionPool) {
+        this(connectionPool, 1, TimeUnit.SECONDS, 500, 10000);
+    }
+
+    /**
+     * Creates a new write-behind queue.
+     *
+     * @param connectionPool The connection pool to write to
+     * @param flushInterval The maximum time a write stays queued
+     * @param unit The flush interval unit
+     * @param flushRows The number of pending rows that triggers a flush
+     * @param maxBacklog The maximum number of pending rows before writers are held back
+     */
+    public WriteBehindQueue(ConnectionPool connectionPool, long flushInterval, TimeUnit unit, int flushRows, int maxBacklog) {
+        if (flushInterval <= 0 || flushRows <= 0 || maxBacklog <= 0) {
+            throw new IllegalArgumentException("Flush interval, flush rows and backlog must be positive");
+        }
+
+        this.connectionPool = connectionPool;
+        this.flushIntervalMillis = unit.toMillis(flushInterval);
+        this.flushRows = flushRows;
+        this.maxBacklog = Math.max(maxBacklog, flushRows);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, connectionPool.getCredentials().getPoolName() + "-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers the statement used to write rows for a table.
+     * The statement is executed with the parameters given to {@link #enqueue}.
+     *
+     * @param table The table name
+     * @param sql The SQL statement
+     */
+    public void register(String table, String sql) {
+        statements.put(table, sql);
+    }
+
+    /**
+     * Queues a write, replacing any pending write for the same table and key.
+     * If the backlog is full, waits for a flush to free space for up to the flush interval.
+     *
+     * @param table The table name
+     * @param key The row key
+     * @param params The statement parameters
+     * @return true if the write was queued, false if the backlog stayed full
+     */
+    public boolean enqueue(String table, Object key, Object... params) {
+        return enqueue(table, key, flushIntervalMillis, TimeUnit.MILLISECONDS, params);
+    }
+
+    /**
+     * Queues a write without waiting, replacing any pending write for the same table and key.
+     *
+     * @param table The table name
+     * @param key The row key
+     * @param params The statement parameters
+     * @return true if the write was queued, false if the backlog is full
+     */
+    public boolean offer(String table, Object key, Object... params) {
+        return enqueue(table, key, 0, TimeUnit.MILLISECONDS, params);
+    }
+
+    /**
+     * Queues a write, replacing any pending write for the same table and key.
+     * If the backlog is full, waits for a flush to free space for up to the given time.
+     *
+     * @param table The table name
+     * @param key The row key
+     * @param timeout The maximum time to wait for space
+     * @param unit The timeout unit
+     * @param params The statement parameters
+     * @return true if the write was queued, false if the backlog stayed full
+     */
+    public boolean enqueue(String table, Object key, long timeout, TimeUnit unit, Object... params) {
+        if (closed) {
+            throw new IllegalStateException("Write-behind queue is closed");
+        }
+        if (!statements.containsKey(table)) {
+            throw new IllegalArgumentException("No statement registered for table: " + table);
+        }
+
+        WriteKey writeKey = new WriteKey(table, key);
+        int depth;
+
+        lock.lock();
+        try {
+            PendingWrite previous = pending.get(writeKey);
+            if (previous != null) {
+                // Coalesce with the pending write, it doesn't take more space
+                previous.params = params;
+                previous.attempts = 0;
+                coalesced.incrementAndGet();
+                enqueued.incrementAndGet();
+                return true;
+            }
+
+            long remaining = unit.toNanos(timeout);
+            while (pending.size() >= maxBacklog) {
+                requestFlush();
+                if (remaining <= 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+
+            pending.put(writeKey, new PendingWrite(params));
+            depth = pending.size();
+            if (depth > peakDepth) {
+                peakDepth = depth;
+            }
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+
+        if (depth >= flushRows) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Writes all pending rows on the calling thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+
+            LinkedHashMap<WriteKey, PendingWrite> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+
+            // Group rows by table, keeping the order they were queued in
+            Map<String, List<Map.Entry<WriteKey, PendingWrite>>> byTable = new LinkedHashMap<>();
+            for (Map.Entry<WriteKey, PendingWrite> entry : batch.entrySet()) {
+                byTable.computeIfAbsent(entry.getKey().table, k -> new ArrayList<>()).add(entry);
+            }
+
+            for (Map.Entry<String, List<Map.Entry<WriteKey, PendingWrite>>> tableEntry : byTable.entrySet()) {
+                flushTable(tableEntry.getKey(), tableEntry.getValue());
+            }
+
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            totalFlushNanos.addAndGet(elapsed);
+            lastFlushNanos = elapsed;
+            if (elapsed > maxFlushNanos) {
+                maxFlushNanos = elapsed;
+            }
+        }
+    }
+
+    private void flushTable(String table, List<Map.Entry<WriteKey, PendingWrite>> rows) {
+        String sql = statements.get(table);
+        AtomicInteger committed = new AtomicInteger();
+
+        try {
+            SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+            if (writer != null) {
+                // The batch commits on its own, so it can't join a grouped write
+                writer.executeStandalone(executor -> {
+                    writeBatch(executor.getConnection(), sql, rows, committed);
+                    return null;
+                });
+            } else {
+                try (Connection connection = connectionPool.getConnection()) {
+                    writeBatch(connection, sql, rows, committed);
+                }
+            }
+            flushedRows.addAndGet(rows.size());
+        } catch (SQLException e) {
+            // The batch commits every flushRows rows, only the rows after the last commit failed
+            int written = Math.min(committed.get(), rows.size());
+            int failed = rows.size() - written;
+            LOGGER.log(Level.SEVERE, "Failed to flush " + failed + " of " + rows.size() + " queued writes to "
+                    + table + ": " + e.getMessage(), e);
+            flushedRows.addAndGet(written);
+            failedRows.addAndGet(failed);
+            requeue(rows.subList(written, rows.size()));
+        }
+    }
+
+    private void writeBatch(Connection connection, String sql, List<Map.Entry<WriteKey, PendingWrite>> rows,
+                            AtomicInteger committed) throws SQLException {
+        SQLBatchExecutor batch = null;
+        try (SQLBatchExecutor executor = new SQLBatchExecutor(connection, sql, flushRows, false,
+                connectionPool.getStatementCache())) {
+            batch = executor;
+            for (Map.Entry<WriteKey, PendingWrite> row : rows) {
+                batch.addBatch(row.getValue().params);
+            }
+        } finally {
+            // Read after close, which commits the last rows
+            if (batch != null) {
+                committed.set(batch.getCommittedRows());
+            }
+        }
+    }
+
+    /**
+     * Puts failed rows back in the queue, unless a newer write for the same key was queued
+     * or the row already failed too many times.
+     */
+    private void requeue(List<Map.Entry<WriteKey, PendingWrite>> rows) {
+        lock.lock();
+        try {
+            for (Map.Entry<WriteKey, PendingWrite> row : rows) {
+                PendingWrite write = row.getValue();
+                if (++write.attempts >= MAX_ATTEMPTS) {
+                    droppedRows.incrementAndGet();
+                    continue;
+                }
+                pending.putIfAbsent(row.getKey(), write);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requestFlush() {
+        if (!closed && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error flushing write-behind queue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the number of rows waiting to be written.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the queue statistics.
+     *
+     * @return The queue statistics
+     */
+    public QueueStats getStats() {
+        long flushCount = flushes.get();
+        return new QueueStats(
+                getQueueDepth(),
+                peakDepth,
+                enqueued.get(),
+                coalesced.get(),
+                rejected.get(),
+                flushedRows.get(),
+                failedRows.get(),
+                droppedRows.get(),
+                flushCount,
+                flushCount == 0 ? 0 : totalFlushNanos.get() / flushCount / 1_000_000.0,
+                lastFlushNanos / 1_000_000.0,
+                maxFlushNanos / 1_000_000.0
+        );
+    }
+
+    /**
+     * Stops the periodic flush and writes all pending rows.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warning("Write-behind flush did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+
+        int remaining = getQueueDepth();
+        if (remaining > 0) {
+            LOGGER.severe("Write-behind queue closed with " + remaining + " unwritten rows.");
+        }
+    }
+
+    private static final class WriteKey {
+        private final String table;
+        private final Object key;
+
+        WriteKey(String table, Object key) {
+            this.table = table;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof WriteKey other && table.equals(other.table) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * table.hashCode() + Objects.hashCode(key);
+        }
+    }
+
+    private static final class PendingWrite {
+        private Object[] params;
+        private int attempts = 0;
+
+        PendingWrite(Object[] params) {
+            this.params = params;
+        }
+    }
+
+    /**
+     * Statistics of a write-behind queue.
+     */
+    public static class QueueStats {
+        private final int depth;
+        private final int peakDepth;
+        private final long enqueued;
+        private final long coalesced;
+        private final long rejected;
+        private final long flushedRows;
+        private final long failedRows;
+        private final long droppedRows;
+        private final long flushes;
+        private final double averageFlushMillis;
+        private final double lastFlushMillis;
+        private final double maxFlushMillis;
+
+        public QueueStats(int depth, int peakDepth, long enqueued, long coalesced, long rejected,
+                          long flushedRows, long failedRows, long droppedRows, long flushes,
+                          double averageFlushMillis, double lastFlushMillis, double maxFlushMillis) {
+            this.depth = depth;
+            this.peakDepth = peakDepth;
+            this.enqueued = enqueued;
+            this.coalesced = coalesced;
+            this.rejected = rejected;
+            this.flushedRows = flushedRows;
+            this.failedRows = failedRows;
+            this.droppedRows = droppedRows;
+            this.flushes = flushes;
+            this.averageFlushMillis = averageFlushMillis;
+            this.lastFlushMillis = lastFlushMillis;
+            this.maxFlushMillis = maxFlushMillis;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getPeakDepth() {
+            return peakDepth;
+        }
+
+        public long getEnqueued() {
+            return enqueued;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getFlushedRows() {
+            return flushedRows;
+        }
+
+        public long getFailedRows() {
+            return failedRows;
+        }
+
+        public long getDroppedRows() {
+            return droppedRows;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+
+        public double getAverageFlushMillis() {
+            return averageFlushMillis;
+        }
+
+        public double getLastFlushMillis() {
+            return lastFlushMillis;
+        }
+
+        public double getMaxFlushMillis() {
+            return maxFlushMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("QueueStats{depth=%d, peak=%d, enqueued=%d, coalesced=%d, rejected=%d, flushed=%d, failed=%d, dropped=%d, flushes=%d, avgFlush=%.2fms, lastFlush=%.2fms, maxFlush=%.2fms}",
+                    depth, peakDepth, enqueued, coalesced, rejected, flushedRows, failedRows, droppedRows,
+                    flushes, averageFlushMillis, lastFlushMillis, maxFlushMillis);
+        }
+    }
+}
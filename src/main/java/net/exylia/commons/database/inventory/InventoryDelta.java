@@ -0,0 +1,155 @@
+package net.exylia.commons.database.inventory;
+
+import net.exylia.commons.database.util.ItemStackCodec;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes of an inventory since its last persisted state.
+ * A delta either holds the encoded contents of the changed slots, where an empty array
+ * means the slot was cleared, or a full snapshot that replaces the stored inventory
+ * and every stored slot change.
+ */
+public final class InventoryDelta {
+    private static final byte[] EMPTY_SLOT = new byte[0];
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int size;
+    private final byte[] snapshot;
+    private final Map<Integer, byte[]> slots;
+    private final long[] hashes;
+
+    InventoryDelta(int size, byte[] snapshot, Map<Integer, byte[]> slots, long[] hashes) {
+        this.size = size;
+        this.snapshot = snapshot;
+        this.slots = Collections.unmodifiableMap(slots);
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a full snapshot of an inventory.
+     *
+     * @param items The inventory contents
+     * @return The snapshot delta
+     * @throws IOException If an item can't be serialized
+     */
+    public static InventoryDelta snapshotOf(ItemStack[] items) throws IOException {
+        byte[][] encoded = new byte[items.length][];
+        long[] hashes = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            encoded[i] = encodeSlot(items[i]);
+            hashes[i] = hash(encoded[i]);
+        }
+        return snapshotOf(encoded, hashes);
+    }
+
+    /**
+     * Creates a full snapshot from slots already encoded with {@link #encodeSlot} and their hashes,
+     * so the items aren't serialized again.
+     */
+    static InventoryDelta snapshotOf(byte[][] encoded, long[] hashes) throws IOException {
+        return new InventoryDelta(encoded.length, ItemStackCodec.encodeJoined(encoded), new TreeMap<>(), hashes);
+    }
+
+    /**
+     * Checks if this delta replaces the whole stored inventory.
+     *
+     * @return true if this is a full snapshot
+     */
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    /**
+     * Checks if there is nothing to persist.
+     *
+     * @return true if no slot changed
+     */
+    public boolean isEmpty() {
+        return snapshot == null && slots.isEmpty();
+    }
+
+    /**
+     * Gets the size of the inventory.
+     *
+     * @return The number of slots
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the encoded full inventory, as written by {@link ItemStackCodec#encode(ItemStack[])}.
+     *
+     * @return The snapshot bytes, or null if this is not a snapshot
+     */
+    public byte[] getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the changed slots, in slot order.
+     *
+     * @return The encoded item per changed slot, empty for cleared slots
+     */
+    public Map<Integer, byte[]> getSlots() {
+        return slots;
+    }
+
+    long[] getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Encodes the content of a single slot.
+     *
+     * @param item The item, may be null
+     * @return The encoded item, or an empty array for an empty slot
+     * @throws IOException If the item can't be serialized
+     */
+    static byte[] encodeSlot(ItemStack item) throws IOException {
+        if (item == null || item.getType().isAir()) {
+            return EMPTY_SLOT;
+        }
+        return ItemStackCodec.encodeItem(item);
+    }
+
+    /**
+     * Decodes the content of a single slot written by {@link #encodeSlot}.
+     *
+     * @param data The encoded item
+     * @return The item, or null for an empty slot
+     * @throws IOException If the data is invalid
+     */
+    static ItemStack decodeSlot(byte[] data) throws IOException {
+        return ItemStackCodec.decodeItem(data);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the encoded slot content, 0 for an empty slot.
+     */
+    static long hash(byte[] data) {
+        if (data.length == 0) {
+            return 0;
+        }
+
+        long hash = FNV_OFFSET;
+        for (byte b : data) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    @Override
+    public String toString() {
+        return isSnapshot()
+                ? "InventoryDelta{snapshot, size=" + size + ", bytes=" + snapshot.length + "}"
+                : "InventoryDelta{size=" + size + ", changedSlots=" + slots.keySet() + "}";
+    }
+}
@@ -0,0 +1,209 @@
+package net.exylia.commons.database.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the persisted content of inventories to save only the slots that changed.
+ * Each slot is remembered by a hash of its encoded content, so an autosave compares the
+ * current slots against the last persisted state and produces an {@link InventoryDelta}
+ * with only the changed slots.
+ * <p>
+ * A full snapshot is produced instead when the owner isn't tracked yet, the inventory size
+ * changed, most slots changed, or enough distinct slots were stored as changes since the
+ * last snapshot, which folds the stored changes back into a single snapshot.
+ * <p>
+ * Saves of the same owner must not run concurrently: call {@link #diff}, persist the delta
+ * and then call {@link #markPersisted} before diffing that owner again.
+ *
+ * <pre>{@code
+ * InventoryDelta delta = tracker.diff(uuid, player.getInventory().getContents());
+ * if (!delta.isEmpty()) {
+ *     store.save(uuid, delta);
+ *     tracker.markPersisted(uuid, delta);
+ * }
+ * }</pre>
+ *
+ * @param <K> The owner key type
+ */
+public class InventoryDeltaTracker<K> {
+    public static final int DEFAULT_COMPACT_AFTER = 16;
+    private static final double SNAPSHOT_RATIO = 0.5;
+
+    private final Map<K, State> states = new ConcurrentHashMap<>();
+    private final int compactAfter;
+
+    /**
+     * Creates a new tracker that compacts after {@value #DEFAULT_COMPACT_AFTER} stored slot changes.
+     */
+    public InventoryDeltaTracker() {
+        this(DEFAULT_COMPACT_AFTER);
+    }
+
+    /**
+     * Creates a new tracker.
+     *
+     * @param compactAfter The number of distinct slots stored as changes before the next save is a full snapshot
+     */
+    public InventoryDeltaTracker(int compactAfter) {
+        if (compactAfter <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        }
+        this.compactAfter = compactAfter;
+    }
+
+    /**
+     * Starts tracking an inventory with its persisted content, usually right after loading it.
+     * Without this, the first save of the owner is a full snapshot.
+     *
+     * @param owner The inventory owner
+     * @param persisted The persisted content
+     * @throws IOException If an item can't be serialized
+     */
+    public void track(K owner, ItemStack[] persisted) throws IOException {
+        long[] hashes = new long[persisted.length];
+        for (int i = 0; i < persisted.length; i++) {
+            hashes[i] = InventoryDelta.hash(InventoryDelta.encodeSlot(persisted[i]));
+        }
+        states.put(owner, new State(hashes));
+    }
+
+    /**
+     * Computes the changes of an inventory since its last persisted state.
+     * The tracked state is not updated until {@link #markPersisted} is called.
+     *
+     * @param owner The inventory owner
+     * @param items The current content
+     * @return The delta to persist, empty if nothing changed
+     * @throws IOException If an item can't be serialized
+     */
+    public InventoryDelta diff(K owner, ItemStack[] items) throws IOException {
+        byte[][] encoded = new byte[items.length][];
+        long[] hashes = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            encoded[i] = InventoryDelta.encodeSlot(items[i]);
+            hashes[i] = InventoryDelta.hash(encoded[i]);
+        }
+
+        State state = states.get(owner);
+        if (state == null) {
+            return InventoryDelta.snapshotOf(encoded, hashes);
+        }
+
+        synchronized (state) {
+            if (state.compactRequested || state.hashes.length != items.length
+                    || state.deltaSlots.cardinality() >= compactAfter) {
+                return InventoryDelta.snapshotOf(encoded, hashes);
+            }
+
+            Map<Integer, byte[]> changed = new TreeMap<>();
+            for (int i = 0; i < items.length; i++) {
+                if (hashes[i] != state.hashes[i]) {
+                    changed.put(i, encoded[i]);
+                }
+            }
+
+            // Past this point a single snapshot row is cheaper than the slot rows
+            if (changed.size() > items.length * SNAPSHOT_RATIO) {
+                return InventoryDelta.snapshotOf(encoded, hashes);
+            }
+            return new InventoryDelta(items.length, null, changed, hashes);
+        }
+    }
+
+    /**
+     * Records that a delta was persisted successfully.
+     * If the save failed, don't call this and the changes will be part of the next delta.
+     *
+     * @param owner The inventory owner
+     * @param delta The persisted delta
+     */
+    public void markPersisted(K owner, InventoryDelta delta) {
+        if (delta.isSnapshot()) {
+            states.put(owner, new State(delta.getHashes()));
+            return;
+        }
+
+        State state = states.get(owner);
+        if (state == null) return;
+
+        synchronized (state) {
+            state.hashes = delta.getHashes();
+            for (Integer slot : delta.getSlots().keySet()) {
+                state.deltaSlots.set(slot);
+            }
+        }
+    }
+
+    /**
+     * Makes the next save of an owner a full snapshot, folding its stored slot changes.
+     *
+     * @param owner The inventory owner
+     */
+    public void requestCompaction(K owner) {
+        State state = states.get(owner);
+        if (state == null) return;
+
+        synchronized (state) {
+            state.compactRequested = true;
+        }
+    }
+
+    /**
+     * Makes the next save of every tracked owner a full snapshot, e.g. from a periodic task.
+     */
+    public void requestCompactionAll() {
+        for (K owner : states.keySet()) {
+            requestCompaction(owner);
+        }
+    }
+
+    /**
+     * Stops tracking an owner, usually after its final save when the player quits.
+     *
+     * @param owner The inventory owner
+     */
+    public void forget(K owner) {
+        states.remove(owner);
+    }
+
+    /**
+     * Checks if an owner is tracked.
+     *
+     * @param owner The inventory owner
+     * @return true if the owner is tracked
+     */
+    public boolean isTracked(K owner) {
+        return states.containsKey(owner);
+    }
+
+    /**
+     * Gets the number of distinct slots stored as changes since the last snapshot of an owner.
+     *
+     * @param owner The inventory owner
+     * @return The number of stored slot changes, or 0 if the owner isn't tracked
+     */
+    public int getStoredChanges(K owner) {
+        State state = states.get(owner);
+        if (state == null) return 0;
+
+        synchronized (state) {
+            return state.deltaSlots.cardinality();
+        }
+    }
+
+    private static class State {
+        private long[] hashes;
+        private final BitSet deltaSlots = new BitSet();
+        private boolean compactRequested;
+
+        private State(long[] hashes) {
+            this.hashes = hashes;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.exylia.commons.database.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Storage of inventories as a full snapshot plus the slots changed since that snapshot.
+ *
+ * @param <K> The owner key type
+ */
+public interface InventoryStore<K> {
+
+    /**
+     * Loads an inventory, applying the stored slot changes on top of its snapshot.
+     *
+     * @param owner The inventory owner
+     * @return The inventory content, or null if nothing is stored
+     * @throws IOException If the stored data is invalid
+     * @throws SQLException If a database error occurs
+     */
+    ItemStack[] load(K owner) throws IOException, SQLException;
+
+    /**
+     * Persists a delta. A snapshot replaces the stored snapshot and discards the stored
+     * slot changes, other deltas only write their changed slots.
+     *
+     * @param owner The inventory owner
+     * @param delta The delta to persist
+     * @throws SQLException If a database error occurs
+     */
+    void save(K owner, InventoryDelta delta) throws SQLException;
+
+    /**
+     * Deletes the stored inventory.
+     *
+     * @param owner The inventory owner
+     * @throws SQLException If a database error occurs
+     */
+    void delete(K owner) throws SQLException;
+
+    /**
+     * Folds the stored slot changes of an inventory into its snapshot.
+     * Only use it for owners that aren't being saved at the same time, e.g. offline players.
+     *
+     * @param owner The inventory owner
+     * @return true if an inventory was stored and compacted
+     * @throws IOException If the stored data is invalid
+     * @throws SQLException If a database error occurs
+     */
+    default boolean compact(K owner) throws IOException, SQLException {
+        ItemStack[] items = load(owner);
+        if (items == null) {
+            return false;
+        }
+        save(owner, InventoryDelta.snapshotOf(items));
+        return true;
+    }
+}
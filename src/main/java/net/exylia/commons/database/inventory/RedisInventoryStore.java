@@ -0,0 +1,107 @@
+package net.exylia.commons.database.inventory;
+
+import net.exylia.commons.database.util.ItemStackCodec;
+import net.exylia.commons.redis.RedisManager;
+import org.bukkit.inventory.ItemStack;
+import redis.clients.jedis.Transaction;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores inventories in Redis, as one hash per owner holding a {@code snapshot} field and a
+ * {@code slot:<n>} field per slot changed since that snapshot.
+ * Slot changes are written with a single HSET, and a snapshot replaces the whole hash
+ * in a MULTI transaction. Owners are stored by their {@code toString()} value.
+ *
+ * @param <K> The owner key type
+ */
+public class RedisInventoryStore<K> implements InventoryStore<K> {
+    private static final byte[] SNAPSHOT_FIELD = "snapshot".getBytes(StandardCharsets.UTF_8);
+    private static final String SLOT_PREFIX = "slot:";
+
+    private final RedisManager redisManager;
+    private final String keyPrefix;
+
+    /**
+     * Creates a new Redis inventory store.
+     *
+     * @param redisManager The Redis manager
+     * @param name The name of the store, part of the keys
+     */
+    public RedisInventoryStore(RedisManager redisManager, String name) {
+        this.redisManager = redisManager;
+        this.keyPrefix = redisManager.getConfig().getKeyPrefix() + "inventory:" + name + ":";
+    }
+
+    @Override
+    public ItemStack[] load(K owner) throws IOException {
+        Map<byte[], byte[]> fields = redisManager.execute(jedis -> jedis.hgetAll(key(owner)));
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        ItemStack[] items = new ItemStack[0];
+        Map<Integer, byte[]> slots = new HashMap<>();
+        int maxSlot = -1;
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            String name = new String(field.getKey(), StandardCharsets.UTF_8);
+            if (name.startsWith(SLOT_PREFIX)) {
+                int slot = Integer.parseInt(name.substring(SLOT_PREFIX.length()));
+                slots.put(slot, field.getValue());
+                maxSlot = Math.max(maxSlot, slot);
+            } else if (Arrays.equals(field.getKey(), SNAPSHOT_FIELD)) {
+                items = ItemStackCodec.decode(field.getValue());
+            }
+        }
+
+        if (maxSlot >= items.length) {
+            // Slot fields written without a snapshot, grow to fit them
+            ItemStack[] grown = new ItemStack[maxSlot + 1];
+            System.arraycopy(items, 0, grown, 0, items.length);
+            items = grown;
+        }
+        for (Map.Entry<Integer, byte[]> slot : slots.entrySet()) {
+            items[slot.getKey()] = InventoryDelta.decodeSlot(slot.getValue());
+        }
+        return items;
+    }
+
+    @Override
+    public void save(K owner, InventoryDelta delta) {
+        if (delta.isEmpty()) return;
+
+        byte[] key = key(owner);
+        if (delta.isSnapshot()) {
+            redisManager.execute(jedis -> {
+                Transaction transaction = jedis.multi();
+                transaction.del(key);
+                transaction.hset(key, SNAPSHOT_FIELD, delta.getSnapshot());
+                return transaction.exec();
+            });
+            return;
+        }
+
+        Map<byte[], byte[]> fields = new HashMap<>();
+        for (Map.Entry<Integer, byte[]> slot : delta.getSlots().entrySet()) {
+            fields.put(slotField(slot.getKey()), slot.getValue());
+        }
+        redisManager.execute(jedis -> jedis.hset(key, fields));
+    }
+
+    @Override
+    public void delete(K owner) {
+        redisManager.execute(jedis -> jedis.del(key(owner)));
+    }
+
+    private byte[] key(K owner) {
+        return (keyPrefix + owner).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] slotField(int slot) {
+        return (SLOT_PREFIX + slot).getBytes(StandardCharsets.UTF_8);
+    }
+}
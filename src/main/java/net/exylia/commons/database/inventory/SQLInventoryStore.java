@@ -0,0 +1,195 @@
+package net.exylia.commons.database.inventory;
+
+import net.exylia.commons.database.connection.ConnectionPool;
+import net.exylia.commons.database.core.AbstractDatabaseManager.DatabaseOperation;
+import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.SQLBatchExecutor;
+import net.exylia.commons.database.executor.SQLExecutor;
+import net.exylia.commons.database.executor.SQLiteWriteExecutor;
+import net.exylia.commons.database.util.ItemStackCodec;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores inventories in two tables: {@code <table>} with one snapshot row per owner and
+ * {@code <table>_slots} with one row per slot changed since that snapshot.
+ * Slot changes are written with {@link SQLBatchExecutor}, and a snapshot is written together
+ * with the removal of the owner's slot rows in a single transaction.
+ * Owners are stored by their {@code toString()} value.
+ *
+ * @param <K> The owner key type
+ */
+public class SQLInventoryStore<K> implements InventoryStore<K> {
+    private static final Logger LOGGER = Logger.getLogger(SQLInventoryStore.class.getName());
+    private static final int SNAPSHOT_SLOT = -1;
+
+    private final ConnectionPool connectionPool;
+    private final String snapshotTable;
+    private final String slotTable;
+    private final String upsertSnapshotSql;
+    private final String upsertSlotSql;
+    private final String loadSql;
+
+    /**
+     * Creates a new SQL inventory store.
+     *
+     * @param connectionPool The connection pool
+     * @param table The name of the snapshot table, slot changes use {@code <table>_slots}
+     */
+    public SQLInventoryStore(ConnectionPool connectionPool, String table) {
+        this.connectionPool = connectionPool;
+        this.snapshotTable = table;
+        this.slotTable = table + "_slots";
+        // REPLACE is supported by SQLite, MySQL and MariaDB
+        this.upsertSnapshotSql = "REPLACE INTO " + snapshotTable + " (owner, size, data) VALUES (?, ?, ?)";
+        this.upsertSlotSql = "REPLACE INTO " + slotTable + " (owner, slot, data) VALUES (?, ?, ?)";
+        this.loadSql = "SELECT " + SNAPSHOT_SLOT + " AS slot, data FROM " + snapshotTable + " WHERE owner = ?"
+                + " UNION ALL SELECT slot, data FROM " + slotTable + " WHERE owner = ?";
+    }
+
+    /**
+     * Creates the tables if they don't exist.
+     *
+     * @throws SQLException If a database error occurs
+     */
+    public void createTables() throws SQLException {
+        // A full inventory can exceed the 64KB of a MySQL BLOB
+        String blob = connectionPool.getDatabaseType() == DatabaseType.SQLITE ? "BLOB" : "MEDIUMBLOB";
+        write(executor -> {
+            executor.update("CREATE TABLE IF NOT EXISTS " + snapshotTable
+                    + " (owner VARCHAR(64) NOT NULL PRIMARY KEY, size INT NOT NULL, data " + blob + " NOT NULL)");
+            executor.update("CREATE TABLE IF NOT EXISTS " + slotTable
+                    + " (owner VARCHAR(64) NOT NULL, slot INT NOT NULL, data " + blob + " NOT NULL,"
+                    + " PRIMARY KEY (owner, slot))");
+            return null;
+        });
+    }
+
+    @Override
+    public ItemStack[] load(K owner) throws IOException, SQLException {
+        String key = owner.toString();
+        byte[] snapshot = null;
+        List<SlotRow> slots = new ArrayList<>();
+
+        // A single statement reads both tables from the same state, a snapshot save
+        // committing in between can't pair the old snapshot with its removed slot rows
+        try (Connection conn = connectionPool.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics())) {
+            List<SlotRow> rows = executor.queryList(loadSql, rs -> new SlotRow(rs.getInt(1), rs.getBytes(2)), key, key);
+            for (SlotRow row : rows) {
+                if (row.slot == SNAPSHOT_SLOT) {
+                    snapshot = row.data;
+                } else {
+                    slots.add(row);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load inventory of " + key + ": " + e.getMessage(), e);
+            throw e;
+        }
+
+        if (snapshot == null && slots.isEmpty()) {
+            return null;
+        }
+
+        ItemStack[] items = snapshot != null ? ItemStackCodec.decode(snapshot) : new ItemStack[0];
+        for (SlotRow row : slots) {
+            if (row.slot >= items.length) {
+                // Slot rows written without a snapshot, grow to fit them
+                ItemStack[] grown = new ItemStack[row.slot + 1];
+                System.arraycopy(items, 0, grown, 0, items.length);
+                items = grown;
+            }
+            items[row.slot] = InventoryDelta.decodeSlot(row.data);
+        }
+        return items;
+    }
+
+    @Override
+    public void save(K owner, InventoryDelta delta) throws SQLException {
+        if (delta.isEmpty()) return;
+
+        String key = owner.toString();
+        try {
+            if (delta.isSnapshot()) {
+                write(executor -> {
+                    executor.beginTransaction();
+                    try {
+                        executor.update(upsertSnapshotSql, key, delta.getSize(), delta.getSnapshot());
+                        executor.update("DELETE FROM " + slotTable + " WHERE owner = ?", key);
+                        executor.commit();
+                    } catch (SQLException e) {
+                        executor.rollback();
+                        throw e;
+                    }
+                    return null;
+                });
+            } else {
+                write(executor -> {
+                    Map<Integer, byte[]> slots = delta.getSlots();
+                    try (SQLBatchExecutor batch = new SQLBatchExecutor(executor.getConnection(), upsertSlotSql,
+                            slots.size(), false, connectionPool.getStatementCache())) {
+                        for (Map.Entry<Integer, byte[]> slot : slots.entrySet()) {
+                            batch.addBatch(key, slot.getKey(), slot.getValue());
+                        }
+                    }
+                    return null;
+                });
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save inventory of " + key + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(K owner) throws SQLException {
+        String key = owner.toString();
+        write(executor -> {
+            executor.beginTransaction();
+            try {
+                executor.update("DELETE FROM " + slotTable + " WHERE owner = ?", key);
+                executor.update("DELETE FROM " + snapshotTable + " WHERE owner = ?", key);
+                executor.commit();
+            } catch (SQLException e) {
+                executor.rollback();
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs a write that manages its own transaction, on the SQLite writer when there is one.
+     */
+    private void write(DatabaseOperation<Void> operation) throws SQLException {
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            writer.executeStandalone(operation);
+            return;
+        }
+
+        try (Connection conn = connectionPool.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn, false, connectionPool.getStatementCache(), connectionPool.getMetrics())) {
+            operation.execute(executor);
+        }
+    }
+
+    private static class SlotRow {
+        private final int slot;
+        private final byte[] data;
+
+        private SlotRow(int slot, byte[] data) {
+            this.slot = slot;
+            this.data = data;
+        }
+    }
+}
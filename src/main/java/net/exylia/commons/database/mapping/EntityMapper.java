@@ -0,0 +1,468 @@
+package net.exylia.commons.database.mapping;
+
+import net.exylia.commons.database.annotation.Column;
+import net.exylia.commons.database.annotation.Table;
+import net.exylia.commons.database.executor.RowMapper;
+import net.exylia.commons.database.executor.SQLBatchExecutor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps rows to objects of a class annotated with {@link Table} and {@link Column}.
+ * The mapping plan is built once per class, with fields read and written through
+ * method handles instead of reflection. Column indexes are resolved once per query
+ * shape and reused for every row.
+ * <p>
+ * Mapped classes need a no-arg constructor, and mapped fields can't be final.
+ *
+ * @param <T> The mapped type
+ */
+public final class EntityMapper<T> implements RowMapper<T> {
+
+    private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected EntityMapper<?> computeValue(Class<?> type) {
+            return new EntityMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final String tableName;
+    private final MethodHandle constructor;
+    private final ColumnPlan[] columns;
+    private final List<String> columnNames;
+    private final List<String> keyColumns;
+
+    // Column indexes by result set shape, and the indexes of the last result set mapped
+    private final Map<String, int[]> shapes = new ConcurrentHashMap<>();
+    private volatile LastShape lastShape;
+
+    private EntityMapper(Class<T> type) {
+        Table table = type.getAnnotation(Table.class);
+        if (table == null) {
+            throw new IllegalArgumentException(type.getName() + " is not annotated with @Table");
+        }
+
+        this.type = type;
+        this.tableName = table.value();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+
+            List<ColumnPlan> plans = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    Column column = field.getAnnotation(Column.class);
+                    if (column == null || Modifier.isStatic(field.getModifiers())) continue;
+                    if (Modifier.isFinal(field.getModifiers())) {
+                        throw new IllegalArgumentException("Mapped field " + field.getName() + " of " + type.getName() + " can't be final");
+                    }
+
+                    String name = column.value().isEmpty() ? field.getName() : column.value();
+                    MethodHandles.Lookup fieldLookup = current == type ? lookup : MethodHandles.privateLookupIn(current, MethodHandles.lookup());
+                    plans.add(ColumnPlan.create(name, field, fieldLookup));
+                    names.add(name);
+                    if (column.key()) {
+                        keys.add(name);
+                    }
+                }
+            }
+
+            if (plans.isEmpty()) {
+                throw new IllegalArgumentException(type.getName() + " has no @Column fields");
+            }
+
+            this.columns = plans.toArray(new ColumnPlan[0]);
+            this.columnNames = Collections.unmodifiableList(names);
+            this.keyColumns = Collections.unmodifiableList(keys);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the members of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Gets the mapper of a class, building its mapping plan on first use.
+     *
+     * @param type The mapped class
+     * @param <T> The mapped type
+     * @return The mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> of(Class<T> type) {
+        return (EntityMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Maps the current row to a new instance.
+     * Columns missing from the result set are left at their default values.
+     *
+     * @param rs The result set positioned at the row to map
+     * @return The mapped object
+     * @throws SQLException If an error occurs
+     */
+    @Override
+    public T map(ResultSet rs) throws SQLException {
+        int[] indexes = indexesFor(rs);
+
+        Object instance;
+        try {
+            instance = constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new SQLException("Failed to create " + type.getName(), t);
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            int index = indexes[i];
+            if (index == 0) continue;
+
+            try {
+                columns[i].reader.read(instance, rs, index);
+            } catch (SQLException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new SQLException("Failed to map column " + columns[i].name + " of " + type.getName(), t);
+            }
+        }
+
+        return type.cast(instance);
+    }
+
+    /**
+     * Gets the column values of an object, in the order of {@link #getColumnNames()}.
+     *
+     * @param entity The object
+     * @return The column values
+     */
+    public Object[] toParams(T entity) {
+        Object[] params = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            try {
+                params[i] = columns[i].getter.invokeExact((Object) entity);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to read column " + columns[i].name + " of " + type.getName(), t);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Gets a binder that writes the column values of an object with typed setters,
+     * in the order of {@link #getColumnNames()}.
+     *
+     * @param entity The object
+     * @return The row binder
+     */
+    public SQLBatchExecutor.RowBinder binder(T entity) {
+        return row -> {
+            for (int i = 0; i < columns.length; i++) {
+                try {
+                    columns[i].writer.write(entity, row, i + 1);
+                } catch (SQLException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new SQLException("Failed to bind column " + columns[i].name + " of " + type.getName(), t);
+                }
+            }
+        };
+    }
+
+    /**
+     * Builds an insert statement for all mapped columns, matching {@link #toParams} and {@link #binder}.
+     *
+     * @return The SQL statement
+     */
+    public String insertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        sql.append(String.join(", ", columnNames)).append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Gets the table name.
+     *
+     * @return The table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Gets the mapped column names.
+     *
+     * @return The column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Gets the key column names.
+     *
+     * @return The key column names
+     */
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    /**
+     * Gets the mapped class.
+     *
+     * @return The mapped class
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Resolves the index of each mapped column in a result set.
+     * Consecutive rows of the same result set reuse the previous resolution.
+     */
+    private int[] indexesFor(ResultSet rs) throws SQLException {
+        LastShape last = lastShape;
+        if (last != null && last.resultSet.get() == rs) {
+            return last.indexes;
+        }
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        StringBuilder signature = new StringBuilder();
+        String[] labels = new String[count];
+        for (int i = 1; i <= count; i++) {
+            labels[i - 1] = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            signature.append(labels[i - 1]).append(',');
+        }
+
+        int[] indexes = shapes.computeIfAbsent(signature.toString(), key -> {
+            Map<String, Integer> byLabel = new HashMap<>();
+            for (int i = labels.length; i >= 1; i--) {
+                byLabel.put(labels[i - 1], i);
+            }
+
+            int[] resolved = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                resolved[i] = byLabel.getOrDefault(columns[i].name.toLowerCase(Locale.ROOT), 0);
+            }
+            return resolved;
+        });
+
+        lastShape = new LastShape(rs, indexes);
+        return indexes;
+    }
+
+    private static final class LastShape {
+        private final WeakReference<ResultSet> resultSet;
+        private final int[] indexes;
+
+        LastShape(ResultSet resultSet, int[] indexes) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.indexes = indexes;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        void read(Object target, ResultSet rs, int index) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Object source, SQLBatchExecutor.Row row, int index) throws Throwable;
+    }
+
+    /**
+     * Typed accessors of one mapped field.
+     */
+    private static final class ColumnPlan {
+        private final String name;
+        private final MethodHandle getter;
+        private final Reader reader;
+        private final Writer writer;
+
+        private ColumnPlan(String name, MethodHandle getter, Reader reader, Writer writer) {
+            this.name = name;
+            this.getter = getter;
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        static ColumnPlan create(String name, Field field, MethodHandles.Lookup lookup) throws IllegalAccessException {
+            MethodHandle setter = lookup.unreflectSetter(field);
+            MethodHandle getter = lookup.unreflectGetter(field);
+            MethodHandle boxedGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+            Class<?> fieldType = field.getType();
+
+            // Primitives are read and written without boxing
+            if (fieldType == int.class) {
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+                MethodHandle get = getter.asType(MethodType.methodType(int.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, rs.getInt(index));
+                        },
+                        (source, row, index) -> row.setInt(index, (int) get.invokeExact(source)));
+            }
+            if (fieldType == long.class) {
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+                MethodHandle get = getter.asType(MethodType.methodType(long.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, rs.getLong(index));
+                        },
+                        (source, row, index) -> row.setLong(index, (long) get.invokeExact(source)));
+            }
+            if (fieldType == double.class) {
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+                MethodHandle get = getter.asType(MethodType.methodType(double.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, rs.getDouble(index));
+                        },
+                        (source, row, index) -> row.setDouble(index, (double) get.invokeExact(source)));
+            }
+            if (fieldType == boolean.class) {
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+                MethodHandle get = getter.asType(MethodType.methodType(boolean.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, rs.getBoolean(index));
+                        },
+                        (source, row, index) -> row.setBoolean(index, (boolean) get.invokeExact(source)));
+            }
+            if (fieldType == float.class) {
+                MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, float.class));
+                MethodHandle get = getter.asType(MethodType.methodType(float.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, rs.getFloat(index));
+                        },
+                        (source, row, index) -> row.setDouble(index, (float) get.invokeExact(source)));
+            }
+
+            MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+            if (fieldType == String.class) {
+                MethodHandle get = getter.asType(MethodType.methodType(String.class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, (Object) rs.getString(index));
+                        },
+                        (source, row, index) -> row.setString(index, (String) get.invokeExact(source)));
+            }
+            if (fieldType == byte[].class) {
+                MethodHandle get = getter.asType(MethodType.methodType(byte[].class, Object.class));
+                return new ColumnPlan(name, boxedGetter,
+                        (target, rs, index) -> {
+                            set.invokeExact(target, (Object) rs.getBytes(index));
+                        },
+                        (source, row, index) -> row.setBytes(index, (byte[]) get.invokeExact(source)));
+            }
+            if (fieldType == UUID.class) {
+                // Stored as text
+                return new ColumnPlan(name, MethodHandles.filterReturnValue(boxedGetter, TO_STRING),
+                        (target, rs, index) -> {
+                            String value = rs.getString(index);
+                            set.invokeExact(target, (Object) (value == null ? null : UUID.fromString(value)));
+                        },
+                        (source, row, index) -> {
+                            Object value = boxedGetter.invokeExact(source);
+                            row.setString(index, value == null ? null : value.toString());
+                        });
+            }
+            if (fieldType.isEnum()) {
+                // Stored by name
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                Class<? extends Enum> enumType = (Class<? extends Enum>) fieldType;
+                return new ColumnPlan(name, MethodHandles.filterReturnValue(boxedGetter, ENUM_NAME),
+                        (target, rs, index) -> {
+                            String value = rs.getString(index);
+                            @SuppressWarnings("unchecked")
+                            Object constant = value == null ? null : Enum.valueOf(enumType, value);
+                            set.invokeExact(target, constant);
+                        },
+                        (source, row, index) -> {
+                            Object value = boxedGetter.invokeExact(source);
+                            row.setString(index, value == null ? null : ((Enum<?>) value).name());
+                        });
+            }
+
+            // Boxed and other types go through the driver conversion, keeping nulls
+            return new ColumnPlan(name, boxedGetter,
+                    (target, rs, index) -> {
+                        set.invokeExact(target, readObject(rs, index, fieldType));
+                    },
+                    (source, row, index) -> row.setObject(index, boxedGetter.invokeExact(source)));
+        }
+
+        private static Object readObject(ResultSet rs, int index, Class<?> fieldType) throws SQLException {
+            Object value;
+            if (fieldType == Integer.class) {
+                value = rs.getInt(index);
+            } else if (fieldType == Long.class) {
+                value = rs.getLong(index);
+            } else if (fieldType == Double.class) {
+                value = rs.getDouble(index);
+            } else if (fieldType == Float.class) {
+                value = rs.getFloat(index);
+            } else if (fieldType == Boolean.class) {
+                value = rs.getBoolean(index);
+            } else if (fieldType == Short.class) {
+                value = rs.getShort(index);
+            } else if (fieldType == Byte.class) {
+                value = rs.getByte(index);
+            } else {
+                value = rs.getObject(index);
+                if (value == null || fieldType.isInstance(value)) {
+                    return value;
+                }
+                return rs.getObject(index, fieldType);
+            }
+            return rs.wasNull() ? null : value;
+        }
+
+        private static final MethodHandle TO_STRING;
+        private static final MethodHandle ENUM_NAME;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                TO_STRING = lookup.findStatic(ColumnPlan.class, "toText", MethodType.methodType(Object.class, Object.class));
+                ENUM_NAME = lookup.findStatic(ColumnPlan.class, "enumName", MethodType.methodType(Object.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private static Object toText(Object value) {
+            return value == null ? null : value.toString();
+        }
+
+        private static Object enumName(Object value) {
+            return value == null ? null : ((Enum<?>) value).name();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package net.exylia.commons.database.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Collects connection acquisition latency and per-statement execution times of a connection pool.
+ * Statements are grouped by their {@link SqlFingerprint}, and statements slower than the
+ * slow-query threshold are logged with their fingerprint, so no parameter values are logged.
+ */
+public class DatabaseMetrics {
+    private static final Logger LOGGER = Logger.getLogger(DatabaseMetrics.class.getName());
+    private static final int MAX_FINGERPRINTS = 512;
+    private static final int MAX_SLOW_QUERIES = 20;
+    private static final String OTHER_FINGERPRINT = "(other statements)";
+
+    private final LatencyHistogram acquisition = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> queries = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final AtomicLong slowQueryCount = new AtomicLong();
+    private final AtomicLong acquisitionFailures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriesRecovered = new AtomicLong();
+    private final AtomicLong retriesExhausted = new AtomicLong();
+    private volatile long slowQueryThresholdNanos;
+
+    /**
+     * Creates a new metrics collector.
+     *
+     * @param slowQueryThresholdMillis The execution time above which statements are logged, or 0 to disable
+     */
+    public DatabaseMetrics(long slowQueryThresholdMillis) {
+        setSlowQueryThreshold(slowQueryThresholdMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the time taken to obtain a connection from the pool.
+     *
+     * @param nanos The acquisition time in nanoseconds
+     */
+    public void recordAcquisition(long nanos) {
+        acquisition.record(nanos);
+    }
+
+    /**
+     * Records a failure to obtain a connection from the pool.
+     */
+    public void recordAcquisitionFailure() {
+        acquisitionFailures.incrementAndGet();
+    }
+
+    /**
+     * Records the execution time of a statement.
+     *
+     * @param sql The SQL statement
+     * @param nanos The execution time in nanoseconds
+     */
+    public void recordQuery(String sql, long nanos) {
+        String fingerprint = SqlFingerprint.of(sql);
+
+        LatencyHistogram histogram = queries.get(fingerprint);
+        if (histogram == null) {
+            // Bound the number of tracked statements, statements with inlined values never repeat
+            String key = queries.size() < MAX_FINGERPRINTS ? fingerprint : OTHER_FINGERPRINT;
+            histogram = queries.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+
+        long threshold = slowQueryThresholdNanos;
+        if (threshold > 0 && nanos >= threshold) {
+            recordSlowQuery(fingerprint, nanos);
+        }
+    }
+
+    /**
+     * Records that a failed transaction is retried.
+     */
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    /**
+     * Records the final outcome of a transaction that was retried.
+     *
+     * @param recovered true if a retry succeeded, false if the transaction still failed
+     */
+    public void recordRetryOutcome(boolean recovered) {
+        (recovered ? retriesRecovered : retriesExhausted).incrementAndGet();
+    }
+
+    private void recordSlowQuery(String fingerprint, long nanos) {
+        slowQueryCount.incrementAndGet();
+        SlowQuery slowQuery = new SlowQuery(fingerprint, nanos / 1_000_000.0, System.currentTimeMillis(),
+                Thread.currentThread().getName());
+
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= MAX_SLOW_QUERIES) {
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(slowQuery);
+        }
+
+        LOGGER.warning(String.format("Slow query (%.1fms on %s): %s",
+                slowQuery.getMillis(), slowQuery.getThread(), fingerprint));
+    }
+
+    /**
+     * Sets the execution time above which statements are logged.
+     *
+     * @param threshold The threshold, or 0 to disable
+     * @param unit The threshold unit
+     */
+    public void setSlowQueryThreshold(long threshold, TimeUnit unit) {
+        this.slowQueryThresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * Gets the connection acquisition latency.
+     *
+     * @return The acquisition latency snapshot
+     */
+    public LatencyHistogram.Snapshot getAcquisitionLatency() {
+        return acquisition.snapshot();
+    }
+
+    /**
+     * Gets the number of failures to obtain a connection.
+     *
+     * @return The acquisition failure count
+     */
+    public long getAcquisitionFailures() {
+        return acquisitionFailures.get();
+    }
+
+    /**
+     * Gets the execution times per statement fingerprint, sorted by total time spent.
+     *
+     * @return The latency snapshots per fingerprint
+     */
+    public Map<String, LatencyHistogram.Snapshot> getQueryLatencies() {
+        List<Map.Entry<String, LatencyHistogram.Snapshot>> entries = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : queries.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), entry.getValue().snapshot()));
+        }
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<String, LatencyHistogram.Snapshot> entry) -> entry.getValue().getTotalMillis()).reversed());
+
+        Map<String, LatencyHistogram.Snapshot> result = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the most recent slow queries, oldest first.
+     *
+     * @return The recent slow queries
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    /**
+     * Gets the number of slow queries since the last reset.
+     *
+     * @return The slow query count
+     */
+    public long getSlowQueryCount() {
+        return slowQueryCount.get();
+    }
+
+    /**
+     * Gets the number of transaction retries.
+     *
+     * @return The retry count
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Gets the number of retried transactions that eventually succeeded.
+     *
+     * @return The recovered transaction count
+     */
+    public long getRetriesRecovered() {
+        return retriesRecovered.get();
+    }
+
+    /**
+     * Gets the number of retried transactions that still failed.
+     *
+     * @return The failed transaction count
+     */
+    public long getRetriesExhausted() {
+        return retriesExhausted.get();
+    }
+
+    /**
+     * Clears all collected metrics.
+     */
+    public void reset() {
+        acquisition.reset();
+        queries.clear();
+        slowQueryCount.set(0);
+        acquisitionFailures.set(0);
+        retries.set(0);
+        retriesRecovered.set(0);
+        retriesExhausted.set(0);
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Builds a human-readable report of the metrics.
+     *
+     * @param pool The current pool counts, or null to omit them
+     * @param topQueries The number of statements to include, by total time spent
+     * @return The report lines
+     */
+    public List<String> report(PoolStats pool, int topQueries) {
+        List<String> lines = new ArrayList<>();
+
+        if (pool != null) {
+            lines.add(String.format("Pool: active=%d, idle=%d, pending=%d, total=%d/%d",
+                    pool.getActive(), pool.getIdle(), pool.getPending(), pool.getTotal(), pool.getMax()));
+        }
+        lines.add("Acquisition: " + getAcquisitionLatency() + ", failures=" + acquisitionFailures.get());
+        lines.add(String.format("Transaction retries: %d, recovered=%d, failed=%d",
+                retries.get(), retriesRecovered.get(), retriesExhausted.get()));
+
+        Map<String, LatencyHistogram.Snapshot> latencies = getQueryLatencies();
+        lines.add("Top statements by total time (" + Math.min(topQueries, latencies.size()) + "/" + latencies.size() + "):");
+        int shown = 0;
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : latencies.entrySet()) {
+            if (shown++ >= topQueries) break;
+            LatencyHistogram.Snapshot snapshot = entry.getValue();
+            lines.add(String.format("  %.1fms total | %s", snapshot.getTotalMillis(), snapshot));
+            lines.add("    " + entry.getKey());
+        }
+
+        List<SlowQuery> recent = getSlowQueries();
+        lines.add("Slow queries: " + slowQueryCount.get() + " (threshold "
+                + TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos) + "ms), recent:");
+        for (SlowQuery slowQuery : recent) {
+            lines.add("  " + slowQuery);
+        }
+
+        return lines;
+    }
+
+    /**
+     * A statement that took longer than the slow-query threshold.
+     */
+    public static class SlowQuery {
+        private final String fingerprint;
+        private final double millis;
+        private final long timestamp;
+        private final String thread;
+
+        public SlowQuery(String fingerprint, double millis, long timestamp, String thread) {
+            this.fingerprint = fingerprint;
+            this.millis = millis;
+            this.timestamp = timestamp;
+            this.thread = thread;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        @Override
+        public String toString() {
+            long secondsAgo = (System.currentTimeMillis() - timestamp) / 1000;
+            return String.format("%.1fms, %ds ago on %s: %s", millis, secondsAgo, thread, fingerprint);
+        }
+    }
+}
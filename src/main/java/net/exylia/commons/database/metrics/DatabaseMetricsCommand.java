@@ -0,0 +1,71 @@
+package net.exylia.commons.database.metrics;
+
+import net.exylia.commons.command.annotation.CommandInfo;
+import net.exylia.commons.command.types.SimpleCommand;
+import net.exylia.commons.database.connection.ConnectionPool;
+import net.exylia.commons.utils.ColorUtils;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command that prints the pool and statement metrics of a connection pool.
+ * Usage: {@code /<label> [top amount]} to dump the metrics, {@code /<label> reset} to clear them.
+ */
+@CommandInfo(usage = "[top <amount>|reset]")
+public class DatabaseMetricsCommand extends SimpleCommand {
+    private static final int DEFAULT_TOP_QUERIES = 5;
+
+    private final ConnectionPool connectionPool;
+
+    /**
+     * Creates a new metrics command.
+     *
+     * @param plugin The plugin owning the command
+     * @param name The command name
+     * @param permission The permission required, or null for none
+     * @param connectionPool The connection pool to report
+     */
+    public DatabaseMetricsCommand(JavaPlugin plugin, String name, String permission, ConnectionPool connectionPool) {
+        super(plugin, name, permission, false);
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    protected boolean executeCommand(CommandSender sender, String label, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            connectionPool.getMetrics().reset();
+            sender.sendMessage(ColorUtils.parse("<#8fffc1>Database metrics reset."));
+            return true;
+        }
+
+        int top = DEFAULT_TOP_QUERIES;
+        if (args.length > 1 && args[0].equalsIgnoreCase("top")) {
+            try {
+                top = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ColorUtils.parse("<#a33b53>Invalid amount: " + args[1]));
+                return true;
+            }
+        }
+
+        sender.sendMessage(ColorUtils.parse("<#8a51c4>" + connectionPool.getCredentials().getPoolName()
+                + " &8&l•&r <#aa76de>" + connectionPool.getDatabaseType()));
+        for (String line : connectionPool.getMetricsReport(top)) {
+            // Plain text, statements may contain characters used by the color format
+            sender.sendMessage(line);
+        }
+        return true;
+    }
+
+    @Override
+    protected List<String> tabComplete(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            return Arrays.asList("top", "reset");
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,57 @@
+package net.exylia.commons.database.metrics;
+
+/**
+ * Point-in-time connection counts of a connection pool.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int pending;
+    private final int total;
+    private final int max;
+
+    public PoolStats(int active, int idle, int pending, int total, int max) {
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.total = total;
+        this.max = max;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Gets the number of threads waiting for a connection.
+     * A value above zero means the pool is starved.
+     *
+     * @return The pending connection requests
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", pending=" + pending +
+                ", total=" + total +
+                ", max=" + max +
+                '}';
+    }
+}
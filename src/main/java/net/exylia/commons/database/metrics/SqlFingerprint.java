@@ -0,0 +1,112 @@
+package net.exylia.commons.database.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL statements so statements that only differ in their values are grouped together.
+ * String and number literals are replaced with {@code ?}, so no values leak into logs, and
+ * parameter lists of any length collapse into {@code ?+}.
+ */
+public final class SqlFingerprint {
+    private static final int MAX_LENGTH = 300;
+    private static final int MAX_CACHED = 2048;
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern ROW_LIST = Pattern.compile("\\(\\?\\+?\\)(?:\\s*,\\s*\\(\\?\\+?\\))+");
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Gets the fingerprint of a SQL statement.
+     *
+     * @param sql The SQL statement
+     * @return The normalized statement
+     */
+    public static String of(String sql) {
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fingerprint = normalize(sql);
+
+        // Statements with inlined values are all different, don't let them fill the cache
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        CACHE.put(sql, fingerprint);
+        return fingerprint;
+    }
+
+    private static String normalize(String sql) {
+        StringBuilder builder = new StringBuilder(Math.min(sql.length(), MAX_LENGTH + 16));
+        int length = sql.length();
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+
+            if (c == '\'' || c == '"') {
+                // Skip the literal, including doubled and escaped quotes
+                int j = i + 1;
+                while (j < length) {
+                    char d = sql.charAt(j);
+                    if (d == '\\') {
+                        j += 2;
+                        continue;
+                    }
+                    if (d == c) {
+                        if (j + 1 < length && sql.charAt(j + 1) == c) {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                builder.append('?');
+                i = j;
+            } else if (Character.isDigit(c) && !isIdentifierChar(builder)) {
+                int j = i;
+                while (j + 1 < length && (Character.isLetterOrDigit(sql.charAt(j + 1)) || sql.charAt(j + 1) == '.')) {
+                    j++;
+                }
+                builder.append('?');
+                i = j;
+            } else {
+                builder.append(c);
+            }
+
+            if (builder.length() > MAX_LENGTH) {
+                break;
+            }
+        }
+
+        String fingerprint = PARAMETER_LIST.matcher(builder).replaceAll("?+");
+        fingerprint = ROW_LIST.matcher(fingerprint).replaceAll("(?+)+");
+        if (fingerprint.length() > MAX_LENGTH) {
+            fingerprint = fingerprint.substring(0, MAX_LENGTH) + "...";
+        }
+        return fingerprint;
+    }
+
+    private static boolean isIdentifierChar(StringBuilder builder) {
+        if (builder.length() == 0) return false;
+        char previous = builder.charAt(builder.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '`';
+    }
+}
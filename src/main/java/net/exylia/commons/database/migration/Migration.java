@@ -0,0 +1,159 @@
+package net.exylia.commons.database.migration;
+
+import net.exylia.commons.database.enums.DatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A versioned schema change for a table.
+ * Statements can be shared by all database types or given per type. MariaDB uses
+ * the MySQL statements unless it has its own.
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> commonStatements;
+    private final Map<DatabaseType, List<String>> dialectStatements;
+
+    private Migration(Builder builder) {
+        this.version = builder.version;
+        this.description = builder.description;
+        this.commonStatements = Collections.unmodifiableList(new ArrayList<>(builder.commonStatements));
+        this.dialectStatements = new EnumMap<>(DatabaseType.class);
+        builder.dialectStatements.forEach((type, statements) ->
+                dialectStatements.put(type, Collections.unmodifiableList(new ArrayList<>(statements))));
+    }
+
+    /**
+     * Creates a new migration builder.
+     *
+     * @param version The migration version, starting at 1
+     * @param description A short description of the change
+     * @return A new builder
+     */
+    public static Builder builder(int version, String description) {
+        return new Builder(version, description);
+    }
+
+    /**
+     * Gets the migration version.
+     *
+     * @return The version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the migration description.
+     *
+     * @return The description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the statements to execute for a database type.
+     *
+     * @param type The database type
+     * @return The statements, in execution order
+     */
+    public List<String> getStatements(DatabaseType type) {
+        List<String> statements = dialectStatements.get(type);
+        if (statements == null && type == DatabaseType.MARIADB) {
+            statements = dialectStatements.get(DatabaseType.MYSQL);
+        }
+        return statements != null ? statements : commonStatements;
+    }
+
+    /**
+     * Gets the checksum of the statements for a database type.
+     * Applied migrations whose checksum changed are rejected by the runner.
+     *
+     * @param type The database type
+     * @return The checksum as a hex string
+     */
+    public String getChecksum(DatabaseType type) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String statement : getStatements(type)) {
+                digest.update(statement.trim().replaceAll("\\s+", " ").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+
+    /**
+     * Builder for migrations.
+     */
+    public static class Builder {
+        private final int version;
+        private final String description;
+        private final List<String> commonStatements = new ArrayList<>();
+        private final Map<DatabaseType, List<String>> dialectStatements = new EnumMap<>(DatabaseType.class);
+
+        private Builder(int version, String description) {
+            if (version <= 0) {
+                throw new IllegalArgumentException("Migration version must be positive");
+            }
+            this.version = version;
+            this.description = description;
+        }
+
+        /**
+         * Adds a statement executed on every database type without its own statements.
+         *
+         * @param sql The SQL statement
+         * @return The builder instance
+         */
+        public Builder sql(String sql) {
+            commonStatements.add(sql);
+            return this;
+        }
+
+        /**
+         * Adds a statement executed only on a database type.
+         *
+         * @param type The database type
+         * @param sql The SQL statement
+         * @return The builder instance
+         */
+        public Builder sql(DatabaseType type, String sql) {
+            dialectStatements.computeIfAbsent(type, k -> new ArrayList<>()).add(sql);
+            return this;
+        }
+
+        /**
+         * Builds the migration.
+         *
+         * @return A new Migration instance
+         */
+        public Migration build() {
+            if (commonStatements.isEmpty() && dialectStatements.isEmpty()) {
+                throw new IllegalStateException("Migration " + version + " has no statements");
+            }
+            return new Migration(this);
+        }
+    }
+}
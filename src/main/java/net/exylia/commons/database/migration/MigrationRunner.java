@@ -0,0 +1,214 @@
+package net.exylia.commons.database.migration;
+
+import net.exylia.commons.database.connection.ConnectionPool;
+import net.exylia.commons.database.enums.DatabaseType;
+import net.exylia.commons.database.executor.SQLExecutor;
+import net.exylia.commons.database.executor.SQLiteWriteExecutor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies versioned migrations to tables, recording them in a versions table.
+ * Migrations already applied are skipped, after checking that their checksum didn't change.
+ * In dry-run mode pending migrations are only logged.
+ */
+public class MigrationRunner {
+    private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+    public static final String VERSIONS_TABLE = "exylia_schema_versions";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseType type;
+    private volatile boolean dryRun = false;
+    private volatile boolean versionsTableReady = false;
+
+    /**
+     * Creates a new migration runner.
+     *
+     * @param connectionPool The connection pool
+     */
+    public MigrationRunner(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.type = connectionPool.getDatabaseType();
+    }
+
+    /**
+     * Sets whether pending migrations are only logged instead of applied.
+     *
+     * @param dryRun true to enable dry-run mode
+     */
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Checks if the runner is in dry-run mode.
+     *
+     * @return true if migrations are only logged
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * Applies the pending migrations of a table in version order.
+     * Each migration runs in its own transaction. Note that MySQL and MariaDB
+     * commit DDL statements implicitly, so a failing migration may be partially applied.
+     *
+     * @param table The table name
+     * @param migrations The migrations of the table
+     * @return The migrations applied, or that would be applied in dry-run mode
+     * @throws SQLException If a migration fails or an applied migration was modified
+     */
+    public List<Migration> migrate(String table, Collection<Migration> migrations) throws SQLException {
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::getVersion));
+        Set<Integer> versions = new HashSet<>();
+        for (Migration migration : ordered) {
+            if (!versions.add(migration.getVersion())) {
+                throw new IllegalArgumentException("Duplicate migration version " + migration.getVersion() + " for table " + table);
+            }
+        }
+
+        ensureVersionsTable();
+        Map<Integer, String> applied = getAppliedChecksums(table);
+
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : ordered) {
+            String checksum = applied.remove(migration.getVersion());
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (!checksum.equals(migration.getChecksum(type))) {
+                throw new SQLException("Migration " + migration + " of table " + table
+                        + " was modified after being applied (checksum mismatch)");
+            }
+        }
+
+        if (!applied.isEmpty()) {
+            LOGGER.warning("Table " + table + " has applied migrations unknown to this version: " + applied.keySet());
+        }
+
+        for (Migration migration : pending) {
+            if (dryRun) {
+                LOGGER.info("[Dry run] Would apply migration " + migration + " to table " + table + ":");
+                for (String statement : migration.getStatements(type)) {
+                    LOGGER.info("  " + statement);
+                }
+            } else {
+                apply(table, migration);
+            }
+        }
+
+        return pending;
+    }
+
+    /**
+     * Gets the latest applied migration version of a table.
+     *
+     * @param table The table name
+     * @return The latest version, or 0 if none was applied
+     * @throws SQLException If an error occurs
+     */
+    public int getCurrentVersion(String table) throws SQLException {
+        ensureVersionsTable();
+        try (Connection conn = connectionPool.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn)) {
+            Number version = executor.queryScalar(
+                    "SELECT MAX(version) FROM " + VERSIONS_TABLE + " WHERE table_name = ?", 1, table);
+            return version != null ? version.intValue() : 0;
+        }
+    }
+
+    private void apply(String table, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+
+        SQLiteWriteExecutor writer = connectionPool.getSQLiteWriter();
+        if (writer != null) {
+            // Runs its own transaction, so it can't join a grouped write
+            writer.executeStandalone(executor -> {
+                apply(executor, table, migration, start);
+                return null;
+            });
+        } else {
+            try (Connection conn = connectionPool.getConnection();
+                 SQLExecutor executor = new SQLExecutor(conn)) {
+                apply(executor, table, migration, start);
+            }
+        }
+
+        LOGGER.info("Applied migration " + migration + " to table " + table + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void apply(SQLExecutor executor, String table, Migration migration, long start) throws SQLException {
+        executor.beginTransaction();
+        try {
+            for (String statement : migration.getStatements(type)) {
+                executor.update(statement);
+            }
+            executor.update("INSERT INTO " + VERSIONS_TABLE
+                            + " (table_name, version, description, checksum, applied_at) VALUES (?, ?, ?, ?, ?)",
+                    table, migration.getVersion(), migration.getDescription(), migration.getChecksum(type), start);
+            executor.commit();
+        } catch (SQLException e) {
+            try {
+                executor.rollback();
+            } catch (SQLException rollbackEx) {
+                LOGGER.log(Level.SEVERE, "Error rolling back migration: " + rollbackEx.getMessage(), rollbackEx);
+            }
+            throw new SQLException("Failed to apply migration " + migration + " to table " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Map<Integer, String> getAppliedChecksums(String table) throws SQLException {
+        try (Connection conn = connectionPool.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn)) {
+            Map<Integer, String> applied = new HashMap<>();
+            for (Object[] row : executor.queryList("SELECT version, checksum FROM " + VERSIONS_TABLE + " WHERE table_name = ?",
+                    rs -> new Object[]{rs.getInt(1), rs.getString(2)}, table)) {
+                applied.put((Integer) row[0], (String) row[1]);
+            }
+            return applied;
+        }
+    }
+
+    private void ensureVersionsTable() throws SQLException {
+        if (versionsTableReady) return;
+
+        synchronized (this) {
+            if (versionsTableReady) return;
+
+            String sql = switch (type) {
+                case SQLITE -> "CREATE TABLE IF NOT EXISTS " + VERSIONS_TABLE + " ("
+                        + "table_name TEXT NOT NULL, "
+                        + "version INTEGER NOT NULL, "
+                        + "description TEXT, "
+                        + "checksum TEXT NOT NULL, "
+                        + "applied_at INTEGER NOT NULL, "
+                        + "PRIMARY KEY (table_name, version))";
+                case MYSQL, MARIADB -> "CREATE TABLE IF NOT EXISTS " + VERSIONS_TABLE + " ("
+                        + "table_name VARCHAR(128) NOT NULL, "
+                        + "version INT NOT NULL, "
+                        + "description VARCHAR(255), "
+                        + "checksum CHAR(64) NOT NULL, "
+                        + "applied_at BIGINT NOT NULL, "
+                        + "PRIMARY KEY (table_name, version))";
+            };
+
+            try (Connection conn = connectionPool.getConnection();
+                 SQLExecutor executor = new SQLExecutor(conn)) {
+                executor.update(sql);
+            }
+            versionsTableReady = true;
+        }
+    }
+}
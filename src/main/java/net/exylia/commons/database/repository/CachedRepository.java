@@ -0,0 +1,816 @@
+package net.exylia.commons.database.repository;
+
+import net.exylia.commons.database.core.AbstractDatabaseManager;
+import net.exylia.commons.database.executor.SQLExecutor;
+import net.exylia.commons.redis.pubsub.RedisPubSubManager;
+import net.exylia.commons.redis.pubsub.subcriptions.RedisSubscription;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of entities in front of the database.
+ * Reads load missing entries from the database once, even if requested concurrently, and
+ * keys without a row are remembered for a while so they don't hit the database every time.
+ * Writes update the cache and are persisted right away (write-through) or collected and
+ * persisted periodically in a single transaction (write-behind). Writes of the same key reach
+ * the database in the order they were made: write-through writes of a key wait for the previous
+ * one, and write-behind deletes run on the same thread as the periodic flush.
+ * <p>
+ * Entries of online players can be pinned with {@link #bindPlayerLifecycle}, which loads
+ * them before the player joins and persists and evicts them when the player quits.
+ * Invalidations can be broadcast to other servers through Redis Pub/Sub.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public abstract class CachedRepository<K, V> implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(CachedRepository.class.getName());
+
+    /**
+     * How writes are persisted.
+     */
+    public enum WriteMode {
+        /**
+         * Every write is persisted right away.
+         */
+        WRITE_THROUGH,
+        /**
+         * Writes are collected and persisted periodically, keeping only the latest value per key.
+         */
+        WRITE_BEHIND
+    }
+
+    private final AbstractDatabaseManager database;
+    private final Settings settings;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final Map<K, V> dirty = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<Void>> persisting = new ConcurrentHashMap<>();
+    private final Set<K> pinned = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private final Object flushLock = new Object();
+    private final AtomicLong versions = new AtomicLong();
+
+    // Cross-server invalidation
+    private final String serverId = UUID.randomUUID().toString();
+    private volatile RedisPubSubManager pubSub;
+    private volatile String invalidationChannel;
+    private volatile Function<K, String> keyWriter;
+    private volatile RedisSubscription invalidationSubscription;
+    private volatile Listener lifecycleListener;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * Creates a new repository.
+     *
+     * @param database The database manager
+     * @param settings The repository settings
+     */
+    protected CachedRepository(AbstractDatabaseManager database, Settings settings) {
+        this.database = database;
+        this.settings = settings;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ExyliaDatabase-Repository");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = settings.writeMode == WriteMode.WRITE_BEHIND
+                ? settings.writeBehindIntervalMs
+                : Math.max(1000, Math.min(settings.expireAfterMs, 60000));
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads a value from the database.
+     *
+     * @param executor The SQL executor
+     * @param key The key
+     * @return The value, or null if there is none
+     * @throws SQLException If an error occurs
+     */
+    protected abstract V load(SQLExecutor executor, K key) throws SQLException;
+
+    /**
+     * Persists a value to the database.
+     *
+     * @param executor The SQL executor
+     * @param key The key
+     * @param value The value
+     * @throws SQLException If an error occurs
+     */
+    protected abstract void save(SQLExecutor executor, K key, V value) throws SQLException;
+
+    /**
+     * Deletes a value from the database.
+     *
+     * @param executor The SQL executor
+     * @param key The key
+     * @throws SQLException If an error occurs
+     */
+    protected abstract void delete(SQLExecutor executor, K key) throws SQLException;
+
+    /**
+     * Gets a value, loading it from the database if it isn't cached.
+     *
+     * @param key The key
+     * @return A future completed with the value, or null if there is none
+     */
+    public CompletableFuture<V> get(K key) {
+        // Loads only replace entries written before they started
+        long started = versions.get();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && (pinned.contains(key) || !entry.isExpired())) {
+            if (entry.value == null) {
+                negativeHits.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+            return CompletableFuture.completedFuture(entry.value);
+        }
+
+        misses.incrementAndGet();
+
+        // Share the load with concurrent requests for the same key
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        database.executeReadAsync(executor -> load(executor, key)).whenComplete((value, error) -> {
+            if (error == null) {
+                // A pending write-behind value is newer than the database
+                V pending = dirty.get(key);
+                V loaded = pending != null ? pending : value;
+                Entry<V> current = entries.compute(key, (k, cached) -> {
+                    if (cached != null && cached.version > started) {
+                        return cached;
+                    }
+                    return loaded == null && settings.negativeExpireAfterMs <= 0 ? null : newEntry(loaded, started);
+                });
+                value = current != null ? current.value : null;
+            }
+            loading.remove(key, created);
+
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+
+        return created;
+    }
+
+    /**
+     * Gets a value, blocking until it is loaded. Must not be called from the main thread.
+     *
+     * @param key The key
+     * @return The value, or null if there is none
+     * @throws SQLException If the value can't be loaded
+     */
+    public V getSync(K key) throws SQLException {
+        try {
+            return get(key).join();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Failed to load " + key + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Gets a value only if it is cached.
+     *
+     * @param key The key
+     * @return The cached value, or null if not cached or there is none
+     */
+    public V getIfCached(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || (!pinned.contains(key) && entry.isExpired())) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Stores a value in the cache and persists it according to the write mode.
+     *
+     * @param key The key
+     * @param value The value
+     * @return A future completed once the value is persisted, or right away in write-behind mode
+     */
+    public CompletableFuture<Void> put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null, use delete instead");
+        }
+
+        Entry<V> entry = store(key, value);
+        writes.incrementAndGet();
+
+        if (settings.writeMode == WriteMode.WRITE_BEHIND) {
+            dirty.put(key, value);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return persist(key, entry, executor -> {
+            save(executor, key, value);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a value from the cache and the database.
+     * The key is remembered as missing like any other key without a row.
+     *
+     * @param key The key
+     * @return A future completed once the value is deleted
+     */
+    public CompletableFuture<Void> remove(K key) {
+        dirty.remove(key);
+        Entry<V> entry = store(key, null);
+
+        return persist(key, entry, executor -> {
+            delete(executor, key);
+            return null;
+        });
+    }
+
+    /**
+     * Runs a write and publishes the invalidation once it succeeds.
+     * If it fails, the cached entry is dropped so the next read loads the database value.
+     * In write-through mode the write waits for the previous write of the key, without a
+     * timeout so a slow write can't be overtaken. In write-behind mode it runs between flushes.
+     */
+    private CompletableFuture<Void> persist(K key, Entry<V> entry, AbstractDatabaseManager.DatabaseOperation<Void> operation) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        if (settings.writeMode == WriteMode.WRITE_BEHIND) {
+            runBetweenFlushes(() -> {
+                try {
+                    database.executeOperation(operation);
+                    finishPersist(key, entry, done, null);
+                } catch (Exception e) {
+                    finishPersist(key, entry, done, e);
+                }
+            });
+            return done;
+        }
+
+        CompletableFuture<Void> previous = persisting.put(key, done);
+        CompletableFuture<Void> ready = previous != null ? previous : CompletableFuture.completedFuture(null);
+        ready.whenComplete((ignored, previousError) ->
+                database.executeAsync(operation, 0, TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+                    persisting.remove(key, done);
+                    finishPersist(key, entry, done, error);
+                }));
+        return done;
+    }
+
+    private void finishPersist(K key, Entry<V> entry, CompletableFuture<Void> done, Throwable error) {
+        if (error != null) {
+            entries.remove(key, entry);
+            done.completeExceptionally(error);
+        } else {
+            publishInvalidation(key);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Runs a write-behind task on the maintenance thread while holding the flush lock, so it
+     * never overlaps with a flush. Runs it on the calling thread once the repository is closed.
+     */
+    private void runBetweenFlushes(Runnable task) {
+        Runnable locked = () -> {
+            synchronized (flushLock) {
+                task.run();
+            }
+        };
+        try {
+            maintenance.execute(locked);
+        } catch (RejectedExecutionException e) {
+            locked.run();
+        }
+    }
+
+    /**
+     * Drops a key from the local cache, so the next read loads it again.
+     * Pending write-behind values are kept and still persisted.
+     *
+     * @param key The key
+     */
+    public void invalidate(K key) {
+        if (!dirty.containsKey(key)) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops a key from the local cache and from the cache of other servers.
+     *
+     * @param key The key
+     */
+    public void invalidateEverywhere(K key) {
+        invalidate(key);
+        publishInvalidation(key);
+    }
+
+    /**
+     * Persists all pending write-behind values in a single transaction.
+     * Values that fail to persist are kept for the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) return;
+
+            Map<K, V> batch = new LinkedHashMap<>(dirty);
+            try {
+                database.executeTransaction(executor -> {
+                    for (Map.Entry<K, V> entry : batch.entrySet()) {
+                        // Removed or written again since the snapshot, that write is persisted on its own
+                        if (dirty.get(entry.getKey()) != entry.getValue()) continue;
+                        save(executor, entry.getKey(), entry.getValue());
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Failed to persist " + batch.size() + " cached values: " + e.getMessage(), e);
+                return;
+            }
+
+            // Keep values written again while flushing
+            for (Map.Entry<K, V> entry : batch.entrySet()) {
+                dirty.remove(entry.getKey(), entry.getValue());
+                publishInvalidation(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Loads a key and keeps it cached until it is unpinned.
+     *
+     * @param key The key
+     * @return A future completed with the value, or null if there is none
+     */
+    public CompletableFuture<V> pin(K key) {
+        pinned.add(key);
+        return get(key);
+    }
+
+    /**
+     * Stops keeping a key cached, persisting its pending value and evicting it.
+     *
+     * @param key The key
+     */
+    public void unpin(K key) {
+        pinned.remove(key);
+
+        if (!dirty.containsKey(key)) {
+            entries.remove(key);
+            return;
+        }
+
+        runBetweenFlushes(() -> {
+            // The latest value, a flush may have persisted it already
+            V pending = dirty.get(key);
+            if (pending != null) {
+                try {
+                    database.executeOperation(executor -> {
+                        save(executor, key, pending);
+                        return null;
+                    });
+                } catch (SQLException e) {
+                    LOGGER.log(Level.SEVERE, "Failed to persist " + key + ": " + e.getMessage(), e);
+                    return;
+                }
+                dirty.remove(key, pending);
+                publishInvalidation(key);
+            }
+            if (!pinned.contains(key) && !dirty.containsKey(key)) {
+                entries.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Loads the entries of players before they join and unloads them when they quit.
+     * Players whose entry fails to load are not allowed to join. The entry is loaded at
+     * {@link EventPriority#HIGHEST}, and unloaded again if a later listener denies the login.
+     *
+     * @param plugin The plugin registering the listener
+     * @param keyMapper Maps a player UUID to a key
+     */
+    public void bindPlayerLifecycle(Plugin plugin, Function<UUID, K> keyMapper) {
+        if (lifecycleListener != null) {
+            HandlerList.unregisterAll(lifecycleListener);
+        }
+
+        lifecycleListener = new Listener() {
+            @EventHandler(priority = EventPriority.HIGHEST)
+            public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+                if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+                // Runs off the main thread, so it can wait for the data
+                K key = keyMapper.apply(event.getUniqueId());
+                try {
+                    pin(key).get(settings.loadTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    pinned.remove(key);
+                    LOGGER.log(Level.SEVERE, "Failed to load data of " + event.getName() + ": " + e.getMessage(), e);
+                    event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, settings.loadFailureMessage);
+                }
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPreLoginResult(AsyncPlayerPreLoginEvent event) {
+                if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+                // Denied after the entry was loaded, the player never joins nor quits
+                K key = keyMapper.apply(event.getUniqueId());
+                if (pinned.contains(key)) {
+                    unpin(key);
+                }
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onQuit(PlayerQuitEvent event) {
+                unpin(keyMapper.apply(event.getPlayer().getUniqueId()));
+            }
+        };
+        Bukkit.getPluginManager().registerEvents(lifecycleListener, plugin);
+    }
+
+    /**
+     * Broadcasts invalidations to other servers and applies theirs.
+     * Other servers drop the key from their cache whenever this server persists it.
+     *
+     * @param pubSub The Redis Pub/Sub manager
+     * @param channel The channel shared by all servers using this repository
+     * @param keyWriter Converts a key to a string
+     * @param keyReader Converts a string back to a key
+     */
+    public void enableInvalidation(RedisPubSubManager pubSub, String channel,
+                                   Function<K, String> keyWriter, Function<String, K> keyReader) {
+        disableInvalidation();
+
+        this.pubSub = pubSub;
+        this.invalidationChannel = channel;
+        this.keyWriter = keyWriter;
+        this.invalidationSubscription = pubSub.subscribe(channel, message -> {
+            int separator = message.indexOf(':');
+            if (separator < 0 || message.substring(0, separator).equals(serverId)) return;
+
+            try {
+                invalidate(keyReader.apply(message.substring(separator + 1)));
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Invalid cache invalidation message: " + message, e);
+            }
+        });
+    }
+
+    /**
+     * Stops broadcasting and applying invalidations.
+     */
+    public void disableInvalidation() {
+        RedisSubscription subscription = invalidationSubscription;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        invalidationSubscription = null;
+        pubSub = null;
+    }
+
+    private void publishInvalidation(K key) {
+        RedisPubSubManager manager = pubSub;
+        if (manager == null) return;
+
+        try {
+            manager.publish(invalidationChannel, serverId + ":" + keyWriter.apply(key));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to publish cache invalidation: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Caches a written value with a new version, so loads started before the write don't replace it.
+     * Deleted keys are kept as an expired entry when missing keys aren't remembered.
+     */
+    private Entry<V> store(K key, V value) {
+        Entry<V> entry = newEntry(value, versions.incrementAndGet());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private Entry<V> newEntry(V value, long version) {
+        long ttl = value == null ? settings.negativeExpireAfterMs : settings.expireAfterMs;
+        return new Entry<>(value, System.currentTimeMillis() + Math.max(0, ttl), version);
+    }
+
+    private void maintain() {
+        try {
+            if (settings.writeMode == WriteMode.WRITE_BEHIND) {
+                flush();
+            }
+
+            long now = System.currentTimeMillis();
+            entries.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now
+                    && !pinned.contains(entry.getKey())
+                    && !loading.containsKey(entry.getKey())
+                    && !dirty.containsKey(entry.getKey()));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error maintaining repository cache: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the number of cached entries, including remembered missing keys.
+     *
+     * @return The cached entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of write-behind values waiting to be persisted.
+     *
+     * @return The pending write count
+     */
+    public int getPendingWrites() {
+        return dirty.size();
+    }
+
+    /**
+     * Gets the repository statistics.
+     *
+     * @return The repository statistics
+     */
+    public RepositoryStats getStats() {
+        return new RepositoryStats(entries.size(), pinned.size(), dirty.size(),
+                hits.get(), negativeHits.get(), misses.get(), writes.get());
+    }
+
+    /**
+     * Stops the periodic maintenance and persists all pending values.
+     */
+    @Override
+    public void close() {
+        if (lifecycleListener != null) {
+            HandlerList.unregisterAll(lifecycleListener);
+            lifecycleListener = null;
+        }
+        disableInvalidation();
+
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        if (!dirty.isEmpty()) {
+            LOGGER.severe("Repository closed with " + dirty.size() + " unsaved values.");
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private final long version;
+
+        Entry(V value, long expiresAt, long version) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.version = version;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    /**
+     * Settings of a cached repository.
+     */
+    public static class Settings {
+        private final WriteMode writeMode;
+        private final long expireAfterMs;
+        private final long negativeExpireAfterMs;
+        private final long writeBehindIntervalMs;
+        private final long loadTimeoutMs;
+        private final String loadFailureMessage;
+
+        private Settings(Builder builder) {
+            this.writeMode = builder.writeMode;
+            this.expireAfterMs = builder.expireAfterMs;
+            this.negativeExpireAfterMs = builder.negativeExpireAfterMs;
+            this.writeBehindIntervalMs = builder.writeBehindIntervalMs;
+            this.loadTimeoutMs = builder.loadTimeoutMs;
+            this.loadFailureMessage = builder.loadFailureMessage;
+        }
+
+        /**
+         * Creates a new settings builder.
+         *
+         * @return A new builder
+         */
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        /**
+         * Builder for repository settings.
+         */
+        public static class Builder {
+            private WriteMode writeMode = WriteMode.WRITE_THROUGH;
+            private long expireAfterMs = TimeUnit.MINUTES.toMillis(10);
+            private long negativeExpireAfterMs = TimeUnit.SECONDS.toMillis(30);
+            private long writeBehindIntervalMs = TimeUnit.SECONDS.toMillis(5);
+            private long loadTimeoutMs = TimeUnit.SECONDS.toMillis(10);
+            private String loadFailureMessage = "Your data could not be loaded, please try again.";
+
+            private Builder() {
+            }
+
+            /**
+             * Sets how writes are persisted.
+             *
+             * @param writeMode The write mode
+             * @return The builder instance
+             */
+            public Builder writeMode(WriteMode writeMode) {
+                this.writeMode = writeMode;
+                return this;
+            }
+
+            /**
+             * Sets how long unpinned entries stay cached.
+             *
+             * @param duration The duration
+             * @param unit The duration unit
+             * @return The builder instance
+             */
+            public Builder expireAfter(long duration, TimeUnit unit) {
+                this.expireAfterMs = unit.toMillis(duration);
+                return this;
+            }
+
+            /**
+             * Sets how long keys without a row are remembered as missing, 0 to disable.
+             *
+             * @param duration The duration
+             * @param unit The duration unit
+             * @return The builder instance
+             */
+            public Builder negativeExpireAfter(long duration, TimeUnit unit) {
+                this.negativeExpireAfterMs = unit.toMillis(duration);
+                return this;
+            }
+
+            /**
+             * Sets how often write-behind values are persisted.
+             *
+             * @param interval The interval
+             * @param unit The interval unit
+             * @return The builder instance
+             */
+            public Builder writeBehindInterval(long interval, TimeUnit unit) {
+                this.writeBehindIntervalMs = Math.max(1, unit.toMillis(interval));
+                return this;
+            }
+
+            /**
+             * Sets how long joining players wait for their data to load.
+             *
+             * @param timeout The timeout
+             * @param unit The timeout unit
+             * @return The builder instance
+             */
+            public Builder loadTimeout(long timeout, TimeUnit unit) {
+                this.loadTimeoutMs = unit.toMillis(timeout);
+                return this;
+            }
+
+            /**
+             * Sets the kick message of players whose data fails to load.
+             *
+             * @param message The kick message
+             * @return The builder instance
+             */
+            public Builder loadFailureMessage(String message) {
+                this.loadFailureMessage = message;
+                return this;
+            }
+
+            /**
+             * Builds the settings.
+             *
+             * @return A new Settings instance
+             */
+            public Settings build() {
+                return new Settings(this);
+            }
+        }
+    }
+
+    /**
+     * Statistics of a cached repository.
+     */
+    public static class RepositoryStats {
+        private final int entries;
+        private final int pinned;
+        private final int pendingWrites;
+        private final long hits;
+        private final long negativeHits;
+        private final long misses;
+        private final long writes;
+
+        public RepositoryStats(int entries, int pinned, int pendingWrites, long hits, long negativeHits, long misses, long writes) {
+            this.entries = entries;
+            this.pinned = pinned;
+            this.pendingWrites = pendingWrites;
+            this.hits = hits;
+            this.negativeHits = negativeHits;
+            this.misses = misses;
+            this.writes = writes;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public int getPinned() {
+            return pinned;
+        }
+
+        public int getPendingWrites() {
+            return pendingWrites;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getNegativeHits() {
+            return negativeHits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public double getHitRate() {
+            long total = hits + negativeHits + misses;
+            return total == 0 ? 0 : (double) (hits + negativeHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return "RepositoryStats{" +
+                    "entries=" + entries +
+                    ", pinned=" + pinned +
+                    ", pendingWrites=" + pendingWrites +
+                    ", hits=" + hits +
+                    ", negativeHits=" + negativeHits +
+                    ", misses=" + misses +
+                    ", writes=" + writes +
+                    ", hitRate=" + String.format("%.2f", getHitRate()) +
+                    '}';
+        }
+    }
+}
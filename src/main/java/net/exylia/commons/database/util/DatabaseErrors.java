@@ -1,14 +1,27 @@
 package net.exylia.commons.database.util;
 
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Utility class for logging database errors and messages.
+ * Utility class for logging and classifying database errors.
  */
 public class DatabaseErrors {
     private static final Logger LOGGER = Logger.getLogger(DatabaseErrors.class.getName());
 
+    // Serialization failure and deadlock
+    private static final Set<String> TRANSIENT_SQL_STATES = Set.of("40001", "40P01");
+    // MySQL/MariaDB: lock wait timeout, deadlock, XA deadlock, NOWAIT lock
+    private static final Set<Integer> TRANSIENT_MYSQL_CODES = Set.of(1205, 1213, 1614, 3572);
+    // SQLite primary result codes: SQLITE_BUSY, SQLITE_LOCKED
+    private static final Set<Integer> TRANSIENT_SQLITE_CODES = Set.of(5, 6);
+
     private DatabaseErrors() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -114,4 +127,64 @@ public class DatabaseErrors {
     public static void logSerializationError(String operation, Throwable error) {
         logDatabaseError(operation, error);
     }
+
+    /**
+     * Checks if an error means the connection to the server failed or was lost,
+     * rather than the statement itself being wrong.
+     *
+     * @param error The error to check
+     * @return true if it is a connection error
+     */
+    public static boolean isConnectionError(SQLException error) {
+        for (SQLException e = error; e != null; e = e.getNextException()) {
+            if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            // SQL state class 08: connection exception
+            String state = e.getSQLState();
+            if (state != null && state.startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if an error is a transient concurrency failure that is likely to succeed if the
+     * transaction is run again: deadlocks, lock wait timeouts, serialization failures and
+     * {@code SQLITE_BUSY}/{@code SQLITE_LOCKED}.
+     *
+     * @param error The error to check
+     * @return true if it is a transient error
+     */
+    public static boolean isTransient(SQLException error) {
+        for (SQLException e = error; e != null; e = e.getNextException()) {
+            if (e instanceof SQLTransactionRollbackException) {
+                return true;
+            }
+            if (e instanceof SQLTransientException && !(e instanceof SQLTransientConnectionException)) {
+                return true;
+            }
+
+            String state = e.getSQLState();
+            if (state != null && TRANSIENT_SQL_STATES.contains(state)) {
+                return true;
+            }
+
+            if (isSQLiteError(e)) {
+                // Extended result codes keep the primary code in the low byte
+                if (TRANSIENT_SQLITE_CODES.contains(e.getErrorCode() & 0xff)) {
+                    return true;
+                }
+            } else if (TRANSIENT_MYSQL_CODES.contains(e.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSQLiteError(SQLException error) {
+        // Checked by name, the SQLite driver is not always on the classpath
+        return error.getClass().getName().startsWith("org.sqlite.");
+    }
 }
@@ -0,0 +1,644 @@
+package net.exylia.commons.database.util;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary codec for ItemStack arrays, meant to be stored in BLOB columns.
+ * <p>
+ * Items are encoded with Paper's {@code ItemStack#serializeAsBytes} when available, falling back
+ * to Bukkit object serialization per item otherwise. The encoded data is:
+ * <pre>
+ * magic "EXI" | version | flags | [varint raw length if compressed] | payload
+ * payload = varint count, then per item: varint length (0 for empty slots) | item bytes
+ * </pre>
+ * Payloads over {@value #COMPRESSION_THRESHOLD} bytes are compressed with Deflate.
+ * <p>
+ * Decoding also accepts data written by the old {@link SerializationUtil} methods, both as raw
+ * Java serialization bytes and as Base64 text, so existing TEXT columns keep working.
+ * <p>
+ * Encoding and decoding borrow buffers from a small shared pool and return them afterwards,
+ * so saving many inventories in a row only allocates the final result. The pool is not tied
+ * to threads, so it also works with virtual threads. {@link #encodeTo} and
+ * {@link #decodeFrom} skip even that, writing to and reading from streams directly.
+ */
+public final class ItemStackCodec {
+    private static final byte[] MAGIC = {'E', 'X', 'I'};
+    private static final byte VERSION = 1;
+    private static final int FLAG_DEFLATE = 1;
+    private static final int FLAG_BUKKIT_ITEMS = 1 << 1;
+    private static final int HEADER_SIZE = MAGIC.length + 2;
+    private static final int COMPRESSION_THRESHOLD = 512;
+    private static final int MAX_ITEMS = 65536;
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    private static final boolean PAPER_BYTES = hasPaperSerialization();
+    private static final BlockingQueue<Buffers> POOL =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * How the payload is compressed.
+     */
+    public enum Compression {
+        /**
+         * Never compress.
+         */
+        NONE,
+        /**
+         * Always compress with Deflate.
+         */
+        DEFLATE,
+        /**
+         * Compress with Deflate when the payload is large enough to benefit.
+         */
+        AUTO
+    }
+
+    private ItemStackCodec() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Encodes an ItemStack array, compressing it when large enough.
+     *
+     * @param items The items, may contain nulls
+     * @return The encoded bytes
+     * @throws IOException If an item can't be serialized
+     */
+    public static byte[] encode(ItemStack[] items) throws IOException {
+        return encode(items, Compression.AUTO);
+    }
+
+    /**
+     * Encodes an ItemStack array.
+     *
+     * @param items The items, may contain nulls
+     * @param compression The compression to use
+     * @return The encoded bytes
+     * @throws IOException If an item can't be serialized
+     */
+    public static byte[] encode(ItemStack[] items, Compression compression) throws IOException {
+        Buffers buffers = borrow();
+        try {
+            return encodeInto(items, compression, buffers).toByteArray();
+        } finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Encodes an ItemStack array into a stream, compressing it when large enough.
+     * The stream is not closed.
+     *
+     * @param items The items, may contain nulls
+     * @param out The stream to write to
+     * @throws IOException If an item can't be serialized or the stream fails
+     */
+    public static void encodeTo(ItemStack[] items, OutputStream out) throws IOException {
+        encodeTo(items, Compression.AUTO, out);
+    }
+
+    /**
+     * Encodes an ItemStack array into a stream. The stream is not closed.
+     *
+     * @param items The items, may contain nulls
+     * @param compression The compression to use
+     * @param out The stream to write to
+     * @throws IOException If an item can't be serialized or the stream fails
+     */
+    public static void encodeTo(ItemStack[] items, Compression compression, OutputStream out) throws IOException {
+        Buffers buffers = borrow();
+        try {
+            ByteWriter encoded = encodeInto(items, compression, buffers);
+            out.write(encoded.buffer, 0, encoded.size());
+        } finally {
+            release(buffers);
+        }
+    }
+
+    private static ByteWriter encodeInto(ItemStack[] items, Compression compression, Buffers buffers) throws IOException {
+        ByteWriter payload = buffers.payload.reset();
+        payload.writeVarInt(items.length);
+        for (ItemStack item : items) {
+            if (item == null || item.getType().isAir()) {
+                payload.writeVarInt(0);
+                continue;
+            }
+            byte[] bytes = PAPER_BYTES ? item.serializeAsBytes() : serializeBukkit(item);
+            payload.writeVarInt(bytes.length);
+            payload.write(bytes, 0, bytes.length);
+        }
+
+        return writeEncoded(payload, PAPER_BYTES ? 0 : FLAG_BUKKIT_ITEMS, compression, buffers);
+    }
+
+    private static ByteWriter writeEncoded(ByteWriter payload, int flags, Compression compression, Buffers buffers) {
+        boolean deflate = compression == Compression.DEFLATE
+                || (compression == Compression.AUTO && payload.size() > COMPRESSION_THRESHOLD);
+
+        ByteWriter out = buffers.output.reset();
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+
+        if (deflate) {
+            out.write(flags | FLAG_DEFLATE);
+            out.writeVarInt(payload.size());
+            deflate(payload, out, buffers.deflater);
+        } else {
+            out.write(flags);
+            out.write(payload.buffer, 0, payload.size());
+        }
+        return out;
+    }
+
+    /**
+     * Decodes an ItemStack array. Accepts data written by {@link #encode} and the legacy
+     * Java serialization format, as bytes or Base64 text.
+     *
+     * @param data The encoded data
+     * @return The items, empty slots are null
+     * @throws IOException If the data is invalid
+     */
+    public static ItemStack[] decode(byte[] data) throws IOException {
+        if (data == null) {
+            return new ItemStack[0];
+        }
+        Buffers buffers = borrow();
+        try {
+            return decode(data, data.length, buffers);
+        } finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Decodes an ItemStack array from a stream, such as a BLOB column read with
+     * {@code ResultSet#getBinaryStream}. Accepts the same formats as {@link #decode}.
+     * The stream is read to the end but not closed.
+     *
+     * @param in The stream to read from
+     * @return The items, empty slots are null
+     * @throws IOException If the data is invalid or the stream fails
+     */
+    public static ItemStack[] decodeFrom(InputStream in) throws IOException {
+        Buffers buffers = borrow();
+        try {
+            ByteWriter data = buffers.input.reset();
+            data.readFrom(in);
+            return decode(data.buffer, data.size(), buffers);
+        } finally {
+            release(buffers);
+        }
+    }
+
+    private static ItemStack[] decode(byte[] data, int length, Buffers buffers) throws IOException {
+        if (length == 0) {
+            return new ItemStack[0];
+        }
+        if (isEncoded(data, length)) {
+            return decodeEncoded(data, length, buffers);
+        }
+        if (isJavaSerialization(data, length)) {
+            return decodeLegacy(data, length);
+        }
+
+        // Base64 text read from a column as bytes
+        byte[] decoded = decodeBase64Text(data, length);
+        return isEncoded(decoded, decoded.length)
+                ? decodeEncoded(decoded, decoded.length, buffers)
+                : decodeLegacy(decoded, decoded.length);
+    }
+
+    /**
+     * Encodes an ItemStack array as Base64 text, for TEXT columns.
+     *
+     * @param items The items, may contain nulls
+     * @return The Base64 encoded data
+     * @throws IOException If an item can't be serialized
+     */
+    public static String encodeToString(ItemStack[] items) throws IOException {
+        return Base64.getEncoder().encodeToString(encode(items));
+    }
+
+    /**
+     * Decodes an ItemStack array from Base64 text, written by {@link #encodeToString}
+     * or by the legacy {@link SerializationUtil#itemStackArrayToBase64}.
+     *
+     * @param base64 The Base64 encoded data
+     * @return The items, empty slots are null
+     * @throws IOException If the data is invalid
+     */
+    public static ItemStack[] decodeFromString(String base64) throws IOException {
+        if (base64 == null || base64.isEmpty()) {
+            return new ItemStack[0];
+        }
+        return decode(base64.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Encodes a single ItemStack.
+     *
+     * @param item The item, may be null
+     * @return The encoded bytes
+     * @throws IOException If the item can't be serialized
+     */
+    public static byte[] encodeItem(ItemStack item) throws IOException {
+        return encode(new ItemStack[]{item});
+    }
+
+    /**
+     * Encodes an ItemStack array from items already encoded one by one with {@link #encodeItem},
+     * without serializing them again. The result is the same as {@link #encode} of the items.
+     *
+     * @param encodedItems The encoded items, null or empty arrays for empty slots
+     * @return The encoded bytes
+     * @throws IOException If an item was not written by {@link #encodeItem}
+     */
+    public static byte[] encodeJoined(byte[][] encodedItems) throws IOException {
+        Buffers buffers = borrow();
+        try {
+            ByteWriter payload = buffers.payload.reset();
+            payload.writeVarInt(encodedItems.length);
+
+            int flags = PAPER_BYTES ? 0 : FLAG_BUKKIT_ITEMS;
+            for (byte[] item : encodedItems) {
+                if (item == null || item.length == 0) {
+                    payload.writeVarInt(0);
+                    continue;
+                }
+                if (!isEncoded(item, item.length) || item[MAGIC.length] != VERSION) {
+                    throw new IOException("Item data was not written by encodeItem");
+                }
+                int itemFlags = item[MAGIC.length + 1];
+                if ((itemFlags & FLAG_BUKKIT_ITEMS) != (flags & FLAG_BUKKIT_ITEMS)) {
+                    throw new IOException("Item data was written with a different item serialization");
+                }
+
+                ByteReader reader = new ByteReader(item, HEADER_SIZE, item.length);
+                if ((itemFlags & FLAG_DEFLATE) != 0) {
+                    int rawLength = reader.readVarInt();
+                    ByteWriter raw = buffers.inflated.reset();
+                    inflate(item, reader.position, item.length - reader.position, rawLength, raw, buffers.inflater);
+                    reader = new ByteReader(raw.buffer, 0, rawLength);
+                }
+                if (reader.readVarInt() != 1) {
+                    throw new IOException("Item data holds more than one item");
+                }
+                int itemLength = reader.readVarInt();
+                payload.writeVarInt(itemLength);
+                reader.copyTo(payload, itemLength);
+            }
+
+            return writeEncoded(payload, flags, Compression.AUTO, buffers).toByteArray();
+        } finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Decodes a single ItemStack written by {@link #encodeItem} or the legacy single item format.
+     *
+     * @param data The encoded data
+     * @return The item, or null if empty
+     * @throws IOException If the data is invalid
+     */
+    public static ItemStack decodeItem(byte[] data) throws IOException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (isEncoded(data, data.length)) {
+            ItemStack[] items;
+            Buffers buffers = borrow();
+            try {
+                items = decodeEncoded(data, data.length, buffers);
+            } finally {
+                release(buffers);
+            }
+            return items.length > 0 ? items[0] : null;
+        }
+        if (isJavaSerialization(data, data.length)) {
+            try (BukkitObjectInputStream input = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+                return (ItemStack) input.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Invalid legacy item data", e);
+            }
+        }
+        return decodeItem(decodeBase64Text(data, data.length));
+    }
+
+    /**
+     * Checks if data was written by this codec.
+     *
+     * @param data The data
+     * @return true if the data starts with the codec header
+     */
+    public static boolean isEncoded(byte[] data) {
+        return isEncoded(data, data.length);
+    }
+
+    private static boolean isEncoded(byte[] data, int length) {
+        return length >= HEADER_SIZE && data[0] == MAGIC[0] && data[1] == MAGIC[1] && data[2] == MAGIC[2];
+    }
+
+    /**
+     * Checks if items are encoded with Paper's native item serialization.
+     *
+     * @return true if Paper serialization is available
+     */
+    public static boolean isPaperSerialization() {
+        return PAPER_BYTES;
+    }
+
+    private static ItemStack[] decodeEncoded(byte[] data, int length, Buffers buffers) throws IOException {
+        int version = data[MAGIC.length];
+        if (version != VERSION) {
+            throw new IOException("Unsupported item data version " + version);
+        }
+        int flags = data[MAGIC.length + 1];
+
+        ByteReader payload = new ByteReader(data, HEADER_SIZE, length);
+        if ((flags & FLAG_DEFLATE) != 0) {
+            int rawLength = payload.readVarInt();
+            ByteWriter raw = buffers.inflated.reset();
+            inflate(data, payload.position, length - payload.position, rawLength, raw, buffers.inflater);
+            payload = new ByteReader(raw.buffer, 0, rawLength);
+        }
+
+        boolean bukkitItems = (flags & FLAG_BUKKIT_ITEMS) != 0;
+        if (!bukkitItems && !PAPER_BYTES) {
+            throw new IOException("Item data was written with Paper serialization, which is not available");
+        }
+
+        int count = payload.readVarInt();
+        if (count < 0 || count > MAX_ITEMS) {
+            throw new IOException("Invalid item count " + count);
+        }
+
+        ItemStack[] items = new ItemStack[count];
+        for (int i = 0; i < count; i++) {
+            int itemLength = payload.readVarInt();
+            if (itemLength == 0) continue;
+
+            byte[] bytes = payload.read(itemLength);
+            items[i] = bukkitItems ? deserializeBukkit(bytes) : ItemStack.deserializeBytes(bytes);
+        }
+        return items;
+    }
+
+    private static ItemStack[] decodeLegacy(byte[] data, int length) throws IOException {
+        try (BukkitObjectInputStream input = new BukkitObjectInputStream(new ByteArrayInputStream(data, 0, length))) {
+            ItemStack[] items = new ItemStack[input.readInt()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = (ItemStack) input.readObject();
+            }
+            return items;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Invalid legacy item data", e);
+        }
+    }
+
+    private static byte[] decodeBase64Text(byte[] text, int length) throws IOException {
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(new String(text, 0, length, StandardCharsets.US_ASCII).trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown item data format", e);
+        }
+        if (!isEncoded(decoded, decoded.length) && !isJavaSerialization(decoded, decoded.length)) {
+            throw new IOException("Unknown item data format");
+        }
+        return decoded;
+    }
+
+    private static boolean isJavaSerialization(byte[] data, int length) {
+        return length >= 2 && data[0] == (byte) 0xAC && data[1] == (byte) 0xED;
+    }
+
+    private static byte[] serializeBukkit(ItemStack item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (BukkitObjectOutputStream output = new BukkitObjectOutputStream(bytes)) {
+            output.writeObject(item);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ItemStack deserializeBukkit(byte[] bytes) throws IOException {
+        try (BukkitObjectInputStream input = new BukkitObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (ItemStack) input.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Invalid item data", e);
+        }
+    }
+
+    private static void deflate(ByteWriter payload, ByteWriter out, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(payload.buffer, 0, payload.size());
+        deflater.finish();
+        while (!deflater.finished()) {
+            // Deflate straight into the output buffer
+            out.ensureCapacity(Math.max(64, payload.size() / 4));
+            out.size += deflater.deflate(out.buffer, out.size, out.buffer.length - out.size);
+        }
+    }
+
+    private static void inflate(byte[] data, int offset, int length, int rawLength, ByteWriter raw, Inflater inflater) throws IOException {
+        if (rawLength < 0 || rawLength > 64 * 1024 * 1024) {
+            throw new IOException("Invalid item data length " + rawLength);
+        }
+
+        inflater.reset();
+        inflater.setInput(data, offset, length);
+        raw.ensureCapacity(rawLength);
+        try {
+            while (raw.size < rawLength) {
+                int inflated = inflater.inflate(raw.buffer, raw.size, rawLength - raw.size);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated item data");
+                }
+                raw.size += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted item data", e);
+        }
+    }
+
+    private static boolean hasPaperSerialization() {
+        try {
+            ItemStack.class.getMethod("serializeAsBytes");
+            ItemStack.class.getMethod("deserializeBytes", byte[].class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Buffers borrow() {
+        Buffers buffers = POOL.poll();
+        return buffers != null ? buffers : new Buffers();
+    }
+
+    /**
+     * Returns buffers to the pool. When the pool is full they are dropped, ending the
+     * Deflater and Inflater so their native memory is freed right away.
+     */
+    private static void release(Buffers buffers) {
+        buffers.trim();
+        if (!POOL.offer(buffers)) {
+            buffers.end();
+        }
+    }
+
+    /**
+     * Buffers used by one encoding or decoding call at a time, pooled between calls.
+     */
+    private static final class Buffers {
+        private final ByteWriter payload = new ByteWriter(4096);
+        private final ByteWriter output = new ByteWriter(4096);
+        private final ByteWriter input = new ByteWriter(4096);
+        private final ByteWriter inflated = new ByteWriter(4096);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final Inflater inflater = new Inflater();
+
+        /**
+         * Drops buffers grown by an unusually large inventory, so they aren't held forever.
+         */
+        void trim() {
+            payload.trim();
+            output.trim();
+            input.trim();
+            inflated.trim();
+        }
+
+        void end() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+
+    /**
+     * Growable byte buffer that exposes its array, avoiding the copies of ByteArrayOutputStream.
+     */
+    private static final class ByteWriter {
+        private byte[] buffer;
+        private int size;
+
+        ByteWriter(int capacity) {
+            this.buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void readFrom(InputStream in) throws IOException {
+            int read;
+            do {
+                ensureCapacity(4096);
+                read = in.read(buffer, size, buffer.length - size);
+                if (read > 0) {
+                    size += read;
+                }
+            } while (read >= 0);
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteWriter reset() {
+            size = 0;
+            return this;
+        }
+
+        void trim() {
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                buffer = new byte[4096];
+            }
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ByteReader {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        ByteReader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (position >= limit) {
+                    throw new IOException("Truncated item data");
+                }
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid varint in item data");
+        }
+
+        void copyTo(ByteWriter out, int length) throws IOException {
+            if (length < 0 || position + length > limit) {
+                throw new IOException("Truncated item data");
+            }
+            out.write(data, position, length);
+            position += length;
+        }
+
+        byte[] read(int length) throws IOException {
+            if (length < 0 || position + length > limit) {
+                throw new IOException("Truncated item data");
+            }
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
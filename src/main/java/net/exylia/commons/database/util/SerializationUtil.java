@@ -6,15 +6,28 @@ import org.bukkit.util.io.BukkitObjectOutputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Utility class for serializing and deserializing objects to and from Base64 strings.
+ * ItemStacks use the compact {@link ItemStackCodec} format, other objects use Bukkit object serialization.
  */
 public class SerializationUtil {
     private static final Logger LOGGER = Logger.getLogger(SerializationUtil.class.getName());
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    // Shared pool rather than per-thread buffers, which virtual threads would never reuse
+    private static final BlockingQueue<ByteArrayOutputStream> OBJECT_BUFFERS =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
 
     /**
      * Private constructor to prevent instantiation.
@@ -24,25 +37,14 @@ public class SerializationUtil {
     }
 
     /**
-     * Serializes an ItemStack array to a Base64 string.
+     * Serializes an ItemStack array to a Base64 string using the compact {@link ItemStackCodec} format.
      *
      * @param items The ItemStack array to serialize
      * @return The Base64 encoded string
      */
     public static String itemStackArrayToBase64(ItemStack[] items) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
-
-            // Write the length of the array
-            dataOutput.writeInt(items.length);
-
-            // Write each item in the array
-            for (ItemStack item : items) {
-                dataOutput.writeObject(item);
-            }
-
-            // Convert to Base64 and return
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+        try {
+            return ItemStackCodec.encodeToString(items);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error serializing ItemStack array to Base64: " + e.getMessage(), e);
             return null;
@@ -51,35 +53,113 @@ public class SerializationUtil {
 
     /**
      * Deserializes an ItemStack array from a Base64 string.
+     * Both the compact format and the legacy Java serialization format are accepted.
      *
      * @param base64 The Base64 encoded string
      * @return The ItemStack array
      */
     public static ItemStack[] base64ToItemStackArray(String base64) {
-        if (base64 == null || base64.isEmpty()) {
+        try {
+            return ItemStackCodec.decodeFromString(base64);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error deserializing ItemStack array from Base64: " + e.getMessage(), e);
             return new ItemStack[0];
         }
+    }
 
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64.getDecoder().decode(base64));
-             BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream)) {
-
-            // Read the length of the array
-            ItemStack[] items = new ItemStack[dataInput.readInt()];
-
-            // Read each item in the array
-            for (int i = 0; i < items.length; i++) {
-                items[i] = (ItemStack) dataInput.readObject();
-            }
+    /**
+     * Serializes an ItemStack array to bytes for a BLOB column, using the compact {@link ItemStackCodec} format.
+     *
+     * @param items The ItemStack array to serialize
+     * @return The encoded bytes
+     */
+    public static byte[] itemStackArrayToBytes(ItemStack[] items) {
+        try {
+            return ItemStackCodec.encode(items);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error serializing ItemStack array to bytes: " + e.getMessage(), e);
+            return null;
+        }
+    }
 
-            return items;
+    /**
+     * Deserializes an ItemStack array from bytes read from a BLOB or TEXT column.
+     * Both the compact format and the legacy format, as bytes or Base64 text, are accepted.
+     *
+     * @param data The encoded bytes
+     * @return The ItemStack array
+     */
+    public static ItemStack[] bytesToItemStackArray(byte[] data) {
+        try {
+            return ItemStackCodec.decode(data);
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error deserializing ItemStack array from Base64: " + e.getMessage(), e);
+            LOGGER.log(Level.SEVERE, "Error deserializing ItemStack array from bytes: " + e.getMessage(), e);
             return new ItemStack[0];
         }
     }
 
     /**
-     * Serializes a single ItemStack to a Base64 string.
+     * Serializes an ItemStack array into a stream using the compact {@link ItemStackCodec} format,
+     * for example a Redis value or a file. The stream is not closed.
+     *
+     * @param items The ItemStack array to serialize
+     * @param out The stream to write to
+     * @throws IOException If an item can't be serialized or the stream fails
+     */
+    public static void serializeTo(ItemStack[] items, OutputStream out) throws IOException {
+        ItemStackCodec.encodeTo(items, out);
+    }
+
+    /**
+     * Deserializes an ItemStack array from a stream, reading it to the end.
+     * Both the compact format and the legacy format, as bytes or Base64 text, are accepted.
+     * The stream is not closed.
+     *
+     * @param in The stream to read from
+     * @return The ItemStack array
+     * @throws IOException If the data is invalid or the stream fails
+     */
+    public static ItemStack[] deserializeFrom(InputStream in) throws IOException {
+        return ItemStackCodec.decodeFrom(in);
+    }
+
+    /**
+     * Binds an ItemStack array to a BLOB parameter of a statement.
+     * The items are bound as a single exact-size array: drivers may read a bound stream only when
+     * the statement runs, so a reused buffer can't be handed to {@code setBinaryStream}.
+     *
+     * @param statement The prepared statement
+     * @param index The parameter index (1-based)
+     * @param items The ItemStack array to bind
+     * @throws SQLException If the items can't be serialized or bound
+     */
+    public static void setItems(PreparedStatement statement, int index, ItemStack[] items) throws SQLException {
+        try {
+            statement.setBytes(index, ItemStackCodec.encode(items));
+        } catch (IOException e) {
+            throw new SQLException("Failed to serialize items: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads an ItemStack array from a BLOB column, streaming it without an intermediate string.
+     * Legacy Base64 TEXT columns are accepted as well.
+     *
+     * @param resultSet The result set, positioned on a row
+     * @param column The column name
+     * @return The ItemStack array, empty if the column is null
+     * @throws SQLException If the column can't be read or the items are invalid
+     */
+    public static ItemStack[] getItems(ResultSet resultSet, String column) throws SQLException {
+        try (InputStream in = resultSet.getBinaryStream(column)) {
+            return in == null ? new ItemStack[0] : ItemStackCodec.decodeFrom(in);
+        } catch (IOException e) {
+            throw new SQLException("Failed to deserialize items from column " + column + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Serializes a single ItemStack to a Base64 string using the compact {@link ItemStackCodec} format.
      *
      * @param item The ItemStack to serialize
      * @return The Base64 encoded string
@@ -89,14 +169,8 @@ public class SerializationUtil {
             return null;
         }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
-
-            // Write the item
-            dataOutput.writeObject(item);
-
-            // Convert to Base64 and return
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+        try {
+            return Base64.getEncoder().encodeToString(ItemStackCodec.encodeItem(item));
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error serializing ItemStack to Base64: " + e.getMessage(), e);
             return null;
@@ -105,6 +179,7 @@ public class SerializationUtil {
 
     /**
      * Deserializes a single ItemStack from a Base64 string.
+     * Both the compact format and the legacy Java serialization format are accepted.
      *
      * @param base64 The Base64 encoded string
      * @return The ItemStack
@@ -114,11 +189,8 @@ public class SerializationUtil {
             return null;
         }
 
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64.getDecoder().decode(base64));
-             BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream)) {
-
-            // Read and return the item
-            return (ItemStack) dataInput.readObject();
+        try {
+            return ItemStackCodec.decodeItem(Base64.getDecoder().decode(base64));
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error deserializing ItemStack from Base64: " + e.getMessage(), e);
             return null;
@@ -136,17 +208,25 @@ public class SerializationUtil {
             return null;
         }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
+        ByteArrayOutputStream pooled = OBJECT_BUFFERS.poll();
+        ByteArrayOutputStream outputStream = pooled != null ? pooled : new ByteArrayOutputStream(1024);
+        try (BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
 
             // Write the object
             dataOutput.writeObject(object);
+            dataOutput.flush();
 
             // Convert to Base64 and return
             return Base64.getEncoder().encodeToString(outputStream.toByteArray());
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error serializing object to Base64: " + e.getMessage(), e);
             return null;
+        } finally {
+            // Don't keep a buffer grown by an unusually large object
+            if (outputStream.size() <= MAX_RETAINED_BUFFER) {
+                outputStream.reset();
+                OBJECT_BUFFERS.offer(outputStream);
+            }
         }
     }
 
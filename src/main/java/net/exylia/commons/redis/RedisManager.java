@@ -9,8 +9,13 @@ import net.exylia.commons.redis.serialization.RedisSerializer;
 import net.exylia.commons.redis.serialization.GsonRedisSerializer;
 import org.bukkit.scheduler.BukkitRunnable;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.exceptions.JedisException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -217,6 +222,61 @@ public class RedisManager {
         return defaultSerializer.deserialize(serialized, type);
     }
 
+    // ==================== OPERACIONES EN LOTE ====================
+
+    /**
+     * Obtiene varios valores string con un solo MGET
+     * La lista devuelta tiene el mismo orden que las claves, con null para las que no existen
+     */
+    public List<String> getMultiple(List<String> keys) {
+        if (keys.isEmpty()) return new ArrayList<>();
+        return execute(jedis -> jedis.mget(keys.toArray(new String[0])));
+    }
+
+    /**
+     * Establece varios valores string en un pipeline, con una sola conexión y un solo viaje
+     */
+    public void setMultiple(Map<String, String> values, int seconds) {
+        if (values.isEmpty()) return;
+
+        execute(jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (seconds > 0) {
+                    pipeline.setex(entry.getKey(), seconds, entry.getValue());
+                } else {
+                    pipeline.set(entry.getKey(), entry.getValue());
+                }
+            }
+            pipeline.sync();
+            return null;
+        });
+    }
+
+    /**
+     * Obtiene varios objetos deserializados con un solo MGET
+     * La lista devuelta tiene el mismo orden que las claves, con null para las que no existen
+     */
+    public <T> List<T> getObjects(List<String> keys, Class<T> type) {
+        List<String> serialized = getMultiple(keys);
+        List<T> result = new ArrayList<>(serialized.size());
+        for (String value : serialized) {
+            result.add(value != null ? defaultSerializer.deserialize(value, type) : null);
+        }
+        return result;
+    }
+
+    /**
+     * Establece varios objetos serializados en un pipeline con expiración
+     */
+    public <T> void setObjects(Map<String, T> objects, int seconds) {
+        Map<String, String> serialized = new LinkedHashMap<>();
+        for (Map.Entry<String, T> entry : objects.entrySet()) {
+            serialized.put(entry.getKey(), defaultSerializer.serialize(entry.getValue()));
+        }
+        setMultiple(serialized, seconds);
+    }
+
     // ==================== OPERACIONES ASÍNCRONAS ====================
 
     /**
@@ -2,9 +2,14 @@ package net.exylia.commons.redis.cache;
 
 import net.exylia.commons.redis.RedisManager;
 import net.exylia.commons.redis.serialization.RedisSerializer;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -27,8 +32,11 @@ public class RedisCache<T> {
     private final String keyPrefix;
     private final Map<String, CacheEntry<T>> localCache;
     private final boolean useLocalCache;
+    private volatile long localMaxTtlMillis = 0;
     private volatile boolean closed = false;
 
+    private static final long NOT_CACHEABLE = -2;
+
     public RedisCache(RedisManager redisManager, String cacheName, Class<T> type, RedisSerializer serializer) {
         this.redisManager = redisManager;
         this.cacheName = cacheName;
@@ -58,10 +66,19 @@ public class RedisCache<T> {
                 }
             }
 
-            // Buscar en Redis
+            // Buscar en Redis, con el TTL en el mismo viaje si hace falta
             String redisKey = keyPrefix + key;
-            String serialized = redisManager.get(redisKey);
+            boolean fetchTtl = useLocalCache && localMaxTtlMillis <= 0;
+            List<Object> replies = redisManager.execute(jedis -> {
+                Pipeline pipeline = jedis.pipelined();
+                pipeline.get(redisKey);
+                if (fetchTtl) {
+                    pipeline.pttl(redisKey);
+                }
+                return pipeline.syncAndReturnAll();
+            });
 
+            String serialized = (String) replies.get(0);
             if (serialized == null) {
                 return null;
             }
@@ -70,11 +87,9 @@ public class RedisCache<T> {
 
             // Actualizar caché local
             if (useLocalCache && value != null) {
-                long ttl = redisManager.getTTL(redisKey);
-                if (ttl > 0) {
-                    localCache.put(key, new CacheEntry<>(value, System.currentTimeMillis() + (ttl * 1000)));
-                } else if (ttl == -1) { // Clave sin expiración
-                    localCache.put(key, new CacheEntry<>(value, -1));
+                long expirationTime = localExpiration(fetchTtl ? (Long) replies.get(1) : 0, System.currentTimeMillis());
+                if (expirationTime != NOT_CACHEABLE) {
+                    localCache.put(key, new CacheEntry<>(value, expirationTime));
                 }
             }
 
@@ -202,15 +217,75 @@ public class RedisCache<T> {
 
     /**
      * Obtiene múltiples valores
+     * Las claves que no están en la caché local se leen en un solo pipeline (GET + PTTL por clave)
      */
     public Map<String, T> getMultiple(Collection<String> keys) {
         Map<String, T> result = new HashMap<>();
+        if (closed || keys.isEmpty()) return result;
 
+        // Resolver primero desde la caché local
+        List<String> missing = new ArrayList<>();
         for (String key : keys) {
-            T value = get(key);
-            if (value != null) {
+            if (useLocalCache) {
+                CacheEntry<T> localEntry = localCache.get(key);
+                if (localEntry != null && !localEntry.isExpired()) {
+                    result.put(key, localEntry.getValue());
+                    continue;
+                } else if (localEntry != null) {
+                    localCache.remove(key);
+                }
+            }
+            missing.add(key);
+        }
+
+        if (missing.isEmpty()) return result;
+
+        try {
+            List<Response<String>> values = new ArrayList<>(missing.size());
+            List<Response<Long>> ttls = new ArrayList<>(missing.size());
+            boolean fetchTtl = useLocalCache && localMaxTtlMillis <= 0;
+
+            redisManager.execute(jedis -> {
+                Pipeline pipeline = jedis.pipelined();
+                for (String key : missing) {
+                    String redisKey = keyPrefix + key;
+                    values.add(pipeline.get(redisKey));
+                    if (fetchTtl) {
+                        ttls.add(pipeline.pttl(redisKey));
+                    }
+                }
+                pipeline.sync();
+                return null;
+            });
+
+            long now = System.currentTimeMillis();
+            Map<String, CacheEntry<T>> localEntries = useLocalCache ? new HashMap<>() : null;
+
+            for (int i = 0; i < missing.size(); i++) {
+                String serialized = values.get(i).get();
+                if (serialized == null) continue;
+
+                T value = serializer.deserialize(serialized, type);
+                if (value == null) continue;
+
+                String key = missing.get(i);
                 result.put(key, value);
+
+                if (useLocalCache) {
+                    long expirationTime = localExpiration(fetchTtl ? ttls.get(i).get() : 0, now);
+                    if (expirationTime != NOT_CACHEABLE) {
+                        localEntries.put(key, new CacheEntry<>(value, expirationTime));
+                    }
+                }
+            }
+
+            // Poblar la caché local en bloque
+            if (useLocalCache && !localEntries.isEmpty()) {
+                localCache.putAll(localEntries);
             }
+
+        } catch (Exception e) {
+            logError("Error obteniendo valores de caché '" + cacheName + "': " + e.getMessage());
         }
 
         return result;
@@ -225,10 +300,32 @@ public class RedisCache<T> {
 
     /**
      * Almacena múltiples valores con TTL específico
+     * Todos los valores se envían en un solo pipeline
      */
     public void putMultiple(Map<String, T> values, int ttlSeconds) {
-        for (Map.Entry<String, T> entry : values.entrySet()) {
-            put(entry.getKey(), entry.getValue(), ttlSeconds);
+        if (closed || values.isEmpty()) return;
+
+        try {
+            Map<String, String> serialized = new LinkedHashMap<>();
+            for (Map.Entry<String, T> entry : values.entrySet()) {
+                serialized.put(keyPrefix + entry.getKey(), serializer.serialize(entry.getValue()));
+            }
+
+            redisManager.setMultiple(serialized, ttlSeconds);
+
+            // Actualizar caché local en bloque
+            if (useLocalCache) {
+                long expirationTime = ttlSeconds > 0 ?
+                        System.currentTimeMillis() + (ttlSeconds * 1000L) : -1;
+                Map<String, CacheEntry<T>> localEntries = new HashMap<>();
+                for (Map.Entry<String, T> entry : values.entrySet()) {
+                    localEntries.put(entry.getKey(), new CacheEntry<>(entry.getValue(), expirationTime));
+                }
+                localCache.putAll(localEntries);
+            }
+
+        } catch (Exception e) {
+            logError("Error almacenando valores en caché '" + cacheName + "': " + e.getMessage());
         }
     }
 
@@ -306,6 +403,36 @@ public class RedisCache<T> {
 
     // ==================== UTILIDADES ====================
 
+    /**
+     * Establece un TTL máximo para la caché local
+     * Con un valor mayor que 0 las lecturas no consultan el TTL en Redis y la entrada local
+     * expira tras ese tiempo, aunque la clave en Redis expire antes. Con 0 se usa el TTL de Redis
+     */
+    public RedisCache<T> setLocalMaxTTL(int seconds) {
+        this.localMaxTtlMillis = Math.max(0, seconds) * 1000L;
+        return this;
+    }
+
+    /**
+     * Obtiene el TTL máximo de la caché local en segundos, 0 si se usa el TTL de Redis
+     */
+    public int getLocalMaxTTL() {
+        return (int) (localMaxTtlMillis / 1000L);
+    }
+
+    /**
+     * Calcula la expiración local a partir del PTTL de Redis o del TTL máximo local
+     */
+    private long localExpiration(long pttl, long now) {
+        if (localMaxTtlMillis > 0) {
+            return now + localMaxTtlMillis;
+        }
+        if (pttl > 0) {
+            return now + pttl;
+        }
+        return pttl == -1 ? -1 : NOT_CACHEABLE; // -1: clave sin expiración
+    }
+
     /**
      * Limpia las entradas expiradas de la caché local
      */
@@ -33,7 +33,7 @@ public class RedisUtils {
     public static <T> void savePlayerData(String playerName, String key, T data, int ttlSeconds) {
         if (!RedisManager.isAvailable()) return;
 
-        String redisKey = PLAYER_PREFIX + playerName.toLowerCase() + ":" + key;
+        String redisKey = playerKey(playerName, key);
         RedisManager.getInstance().setObject(redisKey, data, ttlSeconds);
     }
 
@@ -43,7 +43,7 @@ public class RedisUtils {
     public static <T> T loadPlayerData(String playerName, String key, Class<T> type) {
         if (!RedisManager.isAvailable()) return null;
 
-        String redisKey = PLAYER_PREFIX + playerName.toLowerCase() + ":" + key;
+        String redisKey = playerKey(playerName, key);
         return RedisManager.getInstance().getObject(redisKey, type);
     }
 
@@ -61,7 +61,7 @@ public class RedisUtils {
     public static void deletePlayerData(String playerName, String key) {
         if (!RedisManager.isAvailable()) return;
 
-        String redisKey = PLAYER_PREFIX + playerName.toLowerCase() + ":" + key;
+        String redisKey = playerKey(playerName, key);
         RedisManager.getInstance().delete(redisKey);
     }
 
@@ -71,7 +71,7 @@ public class RedisUtils {
     public static boolean hasPlayerData(String playerName, String key) {
         if (!RedisManager.isAvailable()) return false;
 
-        String redisKey = PLAYER_PREFIX + playerName.toLowerCase() + ":" + key;
+        String redisKey = playerKey(playerName, key);
         return RedisManager.getInstance().exists(redisKey);
     }
 
@@ -240,17 +240,21 @@ public class RedisUtils {
 
     /**
      * Guarda múltiples datos de jugador con TTL
+     * Todas las claves se envían en un pipeline, con una sola conexión
      */
     public static <T> void savePlayerDataBatch(String playerName, Map<String, T> dataMap, int ttlSeconds) {
         if (!RedisManager.isAvailable() || dataMap == null || dataMap.isEmpty()) return;
 
+        Map<String, T> objects = new LinkedHashMap<>();
         for (Map.Entry<String, T> entry : dataMap.entrySet()) {
-            savePlayerData(playerName, entry.getKey(), entry.getValue(), ttlSeconds);
+            objects.put(playerKey(playerName, entry.getKey()), entry.getValue());
         }
+        RedisManager.getInstance().setObjects(objects, ttlSeconds);
     }
 
     /**
      * Carga múltiples datos de jugador
+     * Todas las claves se leen con un solo MGET
      */
     public static <T> Map<String, T> loadPlayerDataBatch(String playerName, Set<String> keys, Class<T> type) {
         Map<String, T> result = new HashMap<>();
@@ -259,16 +263,27 @@ public class RedisUtils {
             return result;
         }
 
-        for (String key : keys) {
-            T data = loadPlayerData(playerName, key, type);
+        List<String> dataKeys = new ArrayList<>(keys);
+        List<String> redisKeys = new ArrayList<>(dataKeys.size());
+        for (String key : dataKeys) {
+            redisKeys.add(playerKey(playerName, key));
+        }
+
+        List<T> values = RedisManager.getInstance().getObjects(redisKeys, type);
+        for (int i = 0; i < dataKeys.size(); i++) {
+            T data = values.get(i);
             if (data != null) {
-                result.put(key, data);
+                result.put(dataKeys.get(i), data);
             }
         }
 
         return result;
     }
 
+    private static String playerKey(String playerName, String key) {
+        return PLAYER_PREFIX + playerName.toLowerCase() + ":" + key;
+    }
+
     // ==================== UTILIDADES DE TIEMPO ====================
 
     /**
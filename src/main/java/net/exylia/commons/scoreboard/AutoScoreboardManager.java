@@ -3,27 +3,47 @@ package net.exylia.commons.scoreboard;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static net.exylia.commons.utils.DebugUtils.logError;
 
 /**
- * Manager for automatically applying scoreboards to players when they join.
+ * Manager for automatically applying scoreboards to players based on prioritized rules.
+ * Every rule is evaluated when a player joins. Afterwards, only the rules that declare
+ * a trigger are re-evaluated when it fires, and the player's scoreboard is switched
+ * to the template of the highest priority matching rule.
  */
 public class AutoScoreboardManager implements Listener {
 
     private final ExyliaScoreboardManager scoreboardManager;
     private final Plugin plugin;
-    private final Map<String, Function<Player, Boolean>> conditions;
+    private final List<ScoreboardRule> rules;
+    private final Map<ScoreboardTrigger, List<ScoreboardRule>> triggerIndex;
+    private final Map<String, List<ScoreboardRule>> customTriggerIndex;
+    private final Map<String, Class<? extends PlayerEvent>> customTriggerEvents;
+    private final Map<UUID, Set<ScoreboardRule>> matchedRules;
+    private final Map<UUID, String> appliedTemplates;
     private boolean registered = false;
 
     /**
@@ -35,7 +55,12 @@ public class AutoScoreboardManager implements Listener {
     public AutoScoreboardManager(ExyliaScoreboardManager scoreboardManager, Plugin plugin) {
         this.scoreboardManager = scoreboardManager;
         this.plugin = plugin;
-        this.conditions = new HashMap<>();
+        this.rules = new ArrayList<>();
+        this.triggerIndex = new EnumMap<>(ScoreboardTrigger.class);
+        this.customTriggerIndex = new HashMap<>();
+        this.customTriggerEvents = new HashMap<>();
+        this.matchedRules = new HashMap<>();
+        this.appliedTemplates = new HashMap<>();
     }
 
     /**
@@ -49,23 +74,40 @@ public class AutoScoreboardManager implements Listener {
 
     /**
      * Registers a template to be automatically applied when players join,
-     * if they meet a certain condition.
+     * if they meet a certain condition. Templates registered first win ties.
      *
      * @param templateId The template ID
      * @param condition The condition function
      */
     public void registerTemplate(String templateId, Function<Player, Boolean> condition) {
-        conditions.put(templateId, condition);
+        registerRule(ScoreboardRule.builder(templateId)
+                .condition(player -> Boolean.TRUE.equals(condition.apply(player)))
+                .build());
+    }
+
+    /**
+     * Registers a rule, replacing any rule with the same ID.
+     * The rule is evaluated right away for all online players.
+     *
+     * @param rule The rule to register
+     */
+    public void registerRule(ScoreboardRule rule) {
+        removeRules(existing -> existing.getId().equals(rule.getId()));
+        rules.add(rule);
+
+        // Stable sort keeps registration order for rules with the same priority
+        rules.sort(Comparator.comparingInt(ScoreboardRule::getPriority).reversed());
+        rebuildIndex();
 
         // Register events if not already registered
         if (!registered) {
-            Bukkit.getPluginManager().registerEvents(this, plugin);
-            registered = true;
+            registerListeners();
+        }
 
-            // Apply to all online players
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                checkAndApply(player);
-            }
+        // Evaluate the new rule for all online players
+        List<ScoreboardRule> affected = Collections.singletonList(rule);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            evaluate(player, affected);
         }
     }
 
@@ -75,10 +117,11 @@ public class AutoScoreboardManager implements Listener {
      * @param templateId The template ID
      */
     public void unregisterTemplate(String templateId) {
-        conditions.remove(templateId);
+        removeRules(rule -> rule.getTemplateId().equals(templateId));
+        rebuildIndex();
 
         // Unregister events if no templates are registered
-        if (conditions.isEmpty() && registered) {
+        if (rules.isEmpty() && registered) {
             HandlerList.unregisterAll(this);
             registered = false;
         }
@@ -88,7 +131,10 @@ public class AutoScoreboardManager implements Listener {
      * Unregisters all templates and stops listening for events.
      */
     public void unregisterAll() {
-        conditions.clear();
+        rules.clear();
+        rebuildIndex();
+        matchedRules.clear();
+        appliedTemplates.clear();
 
         if (registered) {
             HandlerList.unregisterAll(this);
@@ -97,42 +143,211 @@ public class AutoScoreboardManager implements Listener {
     }
 
     /**
-     * Checks if any template should be applied to a player, and applies it.
+     * Re-evaluates the rules that declare a trigger for a player.
+     * Use this for triggers without a Bukkit event, such as permission changes.
+     *
+     * @param player The player
+     * @param trigger The trigger that fired
+     */
+    public void trigger(Player player, ScoreboardTrigger trigger) {
+        if (trigger == ScoreboardTrigger.JOIN) {
+            evaluate(player, rules);
+            return;
+        }
+        evaluate(player, triggerIndex.getOrDefault(trigger, Collections.emptyList()));
+    }
+
+    /**
+     * Re-evaluates the rules that declare a custom trigger for a player.
+     *
+     * @param player The player
+     * @param key The custom trigger key
+     */
+    public void trigger(Player player, String key) {
+        evaluate(player, customTriggerIndex.getOrDefault(key, Collections.emptyList()));
+    }
+
+    /**
+     * Re-evaluates the rules that declare a trigger for all online players.
+     *
+     * @param trigger The trigger that fired
+     */
+    public void triggerAll(ScoreboardTrigger trigger) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            trigger(player, trigger);
+        }
+    }
+
+    /**
+     * Fires a custom trigger whenever a player event is called.
+     *
+     * @param eventClass The player event class
+     * @param key The custom trigger key
+     */
+    public void registerTrigger(Class<? extends PlayerEvent> eventClass, String key) {
+        customTriggerEvents.put(key, eventClass);
+        if (registered) {
+            registerTriggerEvent(eventClass, key);
+        }
+    }
+
+    /**
+     * Evaluates the given rules for a player and applies the best matching template.
+     * Results of rules that are not evaluated are kept from previous evaluations.
      *
      * @param player The player
+     * @param affected The rules to evaluate
      */
-    private void checkAndApply(Player player) {
-        for (Map.Entry<String, Function<Player, Boolean>> entry : conditions.entrySet()) {
-            String templateId = entry.getKey();
-            Function<Player, Boolean> condition = entry.getValue();
+    private void evaluate(Player player, Collection<ScoreboardRule> affected) {
+        if (affected.isEmpty() || !player.isOnline()) return;
 
+        Set<ScoreboardRule> matched = matchedRules.computeIfAbsent(player.getUniqueId(), k -> new HashSet<>());
+        for (ScoreboardRule rule : affected) {
+            boolean matches;
             try {
-                if (condition.apply(player)) {
-                    if (!scoreboardManager.hasScoreboard(player)) {
-                        scoreboardManager.showScoreboard(player, templateId);
-                    }
-                    return;
-                }
+                matches = rule.test(player);
             } catch (Exception e) {
-                logError("Error checking condition for template " + templateId + ": " + e.getMessage());
+                logError("Error checking condition for scoreboard rule " + rule.getId() + ": " + e.getMessage());
+                matches = false;
+            }
+
+            if (matches) {
+                matched.add(rule);
+            } else {
+                matched.remove(rule);
+            }
+        }
+
+        apply(player, matched);
+    }
+
+    /**
+     * Applies the template of the highest priority matching rule.
+     * Scoreboards shown by other means are left untouched.
+     *
+     * @param player The player
+     * @param matched The rules matching the player
+     */
+    private void apply(Player player, Set<ScoreboardRule> matched) {
+        String templateId = null;
+        for (ScoreboardRule rule : rules) {
+            if (matched.contains(rule)) {
+                templateId = rule.getTemplateId();
+                break;
+            }
+        }
+
+        UUID uuid = player.getUniqueId();
+        String applied = appliedTemplates.get(uuid);
+        boolean hasScoreboard = scoreboardManager.hasScoreboard(player);
+
+        if (templateId == null) {
+            if (applied != null) {
+                appliedTemplates.remove(uuid);
+                scoreboardManager.hideScoreboard(player);
+            }
+            return;
+        }
+
+        if (hasScoreboard && (applied == null || applied.equals(templateId))) {
+            return;
+        }
+
+        try {
+            scoreboardManager.switchTemplate(player, templateId);
+            appliedTemplates.put(uuid, templateId);
+        } catch (Exception e) {
+            logError("Error applying scoreboard template " + templateId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the rules matching a filter, along with their evaluation results.
+     *
+     * @param filter The filter
+     */
+    private void removeRules(Predicate<ScoreboardRule> filter) {
+        List<ScoreboardRule> removed = new ArrayList<>();
+        rules.removeIf(rule -> {
+            if (filter.test(rule)) {
+                removed.add(rule);
+                return true;
+            }
+            return false;
+        });
+
+        if (!removed.isEmpty()) {
+            for (Set<ScoreboardRule> matched : matchedRules.values()) {
+                removed.forEach(matched::remove);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the trigger indexes, keeping rules in priority order.
+     */
+    private void rebuildIndex() {
+        triggerIndex.clear();
+        customTriggerIndex.clear();
+
+        for (ScoreboardRule rule : rules) {
+            for (ScoreboardTrigger trigger : rule.getTriggers()) {
+                triggerIndex.computeIfAbsent(trigger, k -> new ArrayList<>()).add(rule);
+            }
+            for (String key : rule.getCustomTriggers()) {
+                customTriggerIndex.computeIfAbsent(key, k -> new ArrayList<>()).add(rule);
             }
         }
     }
 
+    /**
+     * Registers this listener and the custom trigger events.
+     */
+    private void registerListeners() {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        registered = true;
+
+        for (Map.Entry<String, Class<? extends PlayerEvent>> entry : customTriggerEvents.entrySet()) {
+            registerTriggerEvent(entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * Registers the Bukkit executor of a custom trigger event.
+     *
+     * @param eventClass The player event class
+     * @param key The custom trigger key
+     */
+    private void registerTriggerEvent(Class<? extends PlayerEvent> eventClass, String key) {
+        Bukkit.getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR, (listener, event) -> {
+            if (eventClass.isInstance(event)) {
+                trigger(((PlayerEvent) event).getPlayer(), key);
+            }
+        }, plugin, true);
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         // Schedule a task to check conditions after a short delay
         // This allows other plugins to set up data the conditions might need
         Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
             if (event.getPlayer().isOnline()) {
-                checkAndApply(event.getPlayer());
+                trigger(event.getPlayer(), ScoreboardTrigger.JOIN);
             }
         }, 5L);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        trigger(event.getPlayer(), ScoreboardTrigger.WORLD_CHANGE);
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         // Clean up player's scoreboard
+        UUID uuid = event.getPlayer().getUniqueId();
+        matchedRules.remove(uuid);
+        appliedTemplates.remove(uuid);
         scoreboardManager.hideScoreboard(event.getPlayer());
     }
-}
\ No newline at end of file
+}
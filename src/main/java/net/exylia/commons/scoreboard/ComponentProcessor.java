@@ -0,0 +1,157 @@
+package net.exylia.commons.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Processes line components directly, without a MiniMessage round trip.
+ * Results are cached by the value of the input component, so unchanged content skips
+ * processing entirely, even when a dynamic provider builds a new instance on every update.
+ * <p>
+ * The wrapped operator must be a pure function of its input and thread-safe,
+ * since lines may be rendered off the main thread.
+ */
+public final class ComponentProcessor {
+
+    private static final int DEFAULT_CACHE_SIZE = 64;
+
+    private final UnaryOperator<Component> operator;
+    private final Map<Component, Component> cache;
+    private long hits = 0;
+    private long misses = 0;
+
+    private ComponentProcessor(UnaryOperator<Component> operator, int cacheSize) {
+        this.operator = operator;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Component, Component> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a processor from a component operator.
+     *
+     * @param operator The operator to apply
+     * @return A new ComponentProcessor
+     */
+    public static ComponentProcessor of(UnaryOperator<Component> operator) {
+        return new ComponentProcessor(operator, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a processor from a component operator with a custom cache size.
+     *
+     * @param operator The operator to apply
+     * @param cacheSize The maximum number of cached inputs
+     * @return A new ComponentProcessor
+     */
+    public static ComponentProcessor of(UnaryOperator<Component> operator, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        return new ComponentProcessor(operator, cacheSize);
+    }
+
+    /**
+     * Creates a processor that applies a text replacement.
+     *
+     * @param config The replacement configuration
+     * @return A new ComponentProcessor
+     */
+    public static ComponentProcessor replacing(TextReplacementConfig config) {
+        return of(component -> component.replaceText(config));
+    }
+
+    /**
+     * Creates a processor from a string function applied to the MiniMessage form of the component.
+     * This still serializes and parses the component, but only when the input changes.
+     *
+     * @param processor The string function
+     * @return A new ComponentProcessor
+     */
+    public static ComponentProcessor fromString(Function<String, String> processor) {
+        return of(component -> {
+            String raw = ScoreboardUtil.serializeComponent(component);
+            return ScoreboardUtil.deserializeComponent(processor.apply(raw));
+        });
+    }
+
+    /**
+     * Processes a component, reusing the previous result if an equal component was processed before.
+     *
+     * @param input The component to process
+     * @return The processed component
+     */
+    public Component process(Component input) {
+        if (input == null) return null;
+
+        synchronized (cache) {
+            Component cached = cache.get(input);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        Component output = operator.apply(input);
+        if (output == null) {
+            output = Component.empty();
+        }
+
+        synchronized (cache) {
+            cache.put(input, output);
+        }
+        return output;
+    }
+
+    /**
+     * Clears the cached results.
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of inputs served from the cache.
+     *
+     * @return The cache hits
+     */
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Gets the number of inputs that had to be processed.
+     *
+     * @return The cache misses
+     */
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    /**
+     * Gets the ratio of inputs served from the cache.
+     *
+     * @return The hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        synchronized (cache) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
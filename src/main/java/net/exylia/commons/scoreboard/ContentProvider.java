@@ -19,6 +19,16 @@ public interface ContentProvider {
      */
     Component getContent(Player player);
 
+    /**
+     * Checks if this provider can be called off the main thread.
+     * Providers that use PlaceholderAPI or Bukkit state must return false.
+     *
+     * @return true if the provider is thread-safe
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Creates a content provider from a lambda expression.
      *
@@ -43,6 +53,17 @@ public interface ContentProvider {
         };
     }
 
+    /**
+     * Creates a thread-safe content provider from a lambda expression.
+     * The function may be called from the async render pool.
+     *
+     * @param function The function to generate content
+     * @return A thread-safe content provider
+     */
+    static ContentProvider threadSafe(java.util.function.Function<Player, Component> function) {
+        return new DynamicContentProvider(function, true);
+    }
+
     /**
      * Creates a content provider from a static component.
      *
@@ -13,6 +13,7 @@ import java.util.function.Function;
 public class DynamicContentProvider implements ContentProvider {
 
     private final Function<Player, Component> contentFunction;
+    private final boolean threadSafe;
 
     /**
      * Creates a new DynamicContentProvider.
@@ -20,7 +21,18 @@ public class DynamicContentProvider implements ContentProvider {
      * @param contentFunction The function to generate content
      */
     public DynamicContentProvider(Function<Player, Component> contentFunction) {
+        this(contentFunction, false);
+    }
+
+    /**
+     * Creates a new DynamicContentProvider.
+     *
+     * @param contentFunction The function to generate content
+     * @param threadSafe Whether the function can be called off the main thread
+     */
+    public DynamicContentProvider(Function<Player, Component> contentFunction, boolean threadSafe) {
         this.contentFunction = contentFunction;
+        this.threadSafe = threadSafe;
     }
 
     /**
@@ -58,4 +70,9 @@ public class DynamicContentProvider implements ContentProvider {
             return Component.empty();
         }
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
 }
\ No newline at end of file
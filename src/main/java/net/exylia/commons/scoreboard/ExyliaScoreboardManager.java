@@ -19,6 +19,8 @@ public class ExyliaScoreboardManager {
     private final Plugin plugin;
     private final Map<String, ScoreboardTemplate> templates;
     private final Map<UUID, PlayerScoreboard> playerScoreboards;
+    private final ScoreboardScheduler scheduler;
+    private final ScoreboardPool pool;
     private final boolean placeholderAPIEnabled;
 
     /**
@@ -30,6 +32,8 @@ public class ExyliaScoreboardManager {
         this.plugin = plugin;
         this.templates = new HashMap<>();
         this.playerScoreboards = new ConcurrentHashMap<>();
+        this.scheduler = new ScoreboardScheduler(plugin);
+        this.pool = new ScoreboardPool();
         this.placeholderAPIEnabled = isPlaceholderAPIEnabled();
 
         if (placeholderAPIEnabled) {
@@ -83,13 +87,36 @@ public class ExyliaScoreboardManager {
         hideScoreboard(player);
 
         // Create and show the new scoreboard
-        PlayerScoreboard playerScoreboard = new PlayerScoreboard(plugin, player, template);
+        PlayerScoreboard playerScoreboard = new PlayerScoreboard(scheduler, pool, player, template);
         playerScoreboards.put(player.getUniqueId(), playerScoreboard);
         playerScoreboard.show();
 
         return playerScoreboard;
     }
 
+    /**
+     * Switches a player's scoreboard to another template.
+     * The player's existing scoreboard is reused instead of being destroyed and
+     * created again. If the player has no scoreboard, a new one is shown.
+     *
+     * @param player The player
+     * @param templateId The template ID
+     * @return The PlayerScoreboard instance
+     */
+    public PlayerScoreboard switchTemplate(Player player, String templateId) {
+        ScoreboardTemplate template = templates.get(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("Scoreboard template not found: " + templateId);
+        }
+
+        PlayerScoreboard playerScoreboard = playerScoreboards.get(player.getUniqueId());
+        if (playerScoreboard == null) {
+            return showScoreboard(player, templateId);
+        }
+
+        return playerScoreboard.switchTemplate(template);
+    }
+
     /**
      * Gets a player's active scoreboard.
      *
@@ -129,6 +156,24 @@ public class ExyliaScoreboardManager {
         playerScoreboards.values().forEach(PlayerScoreboard::update);
     }
 
+    /**
+     * Gets the scheduler that drives all scoreboard updates.
+     *
+     * @return The scoreboard scheduler
+     */
+    public ScoreboardScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets the pool scoreboards are leased from.
+     *
+     * @return The scoreboard pool
+     */
+    public ScoreboardPool getPool() {
+        return pool;
+    }
+
     /**
      * Gets the total number of active player scoreboards.
      *
@@ -153,6 +198,8 @@ public class ExyliaScoreboardManager {
     public void shutdown() {
         playerScoreboards.values().forEach(PlayerScoreboard::destroy);
         playerScoreboards.clear();
+        scheduler.shutdown();
+        pool.clear();
         templates.clear();
     }
 
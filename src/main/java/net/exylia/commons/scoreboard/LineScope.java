@@ -0,0 +1,24 @@
+package net.exylia.commons.scoreboard;
+
+/**
+ * Defines who a scoreboard line is rendered for.
+ */
+public enum LineScope {
+
+    /**
+     * The line is rendered for every player.
+     */
+    PLAYER,
+
+    /**
+     * The line is the same for every player. It is rendered once per update
+     * interval and the result is shared by all scoreboards using the template.
+     */
+    GLOBAL,
+
+    /**
+     * The line is the same for every player of a group. It is rendered once per
+     * update interval for each group and shared by the players of that group.
+     */
+    GROUP
+}
@@ -3,11 +3,10 @@ package net.exylia.commons.scoreboard;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.plugin.Plugin;
 import org.bukkit.scoreboard.*;
 
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 import static net.exylia.commons.utils.DebugUtils.logWarn;
@@ -18,39 +17,45 @@ import static net.exylia.commons.utils.DebugUtils.logWarn;
  */
 public class PlayerScoreboard {
 
-    private final Plugin plugin;
+    private final ScoreboardScheduler scheduler;
+    private final ScoreboardPool pool;
+    private final ScoreboardPool.PooledScoreboard pooled;
     private final Player player;
-    private final ScoreboardTemplate template;
+    private volatile ScoreboardTemplate template;
     private final Scoreboard scoreboard;
     private final Objective objective;
-    private int taskId = -1;
     private boolean visible = false;
+    private boolean destroyed = false;
 
-    private static final ScoreboardManager SCOREBOARD_MANAGER = Bukkit.getScoreboardManager();
-    private static final String OBJECTIVE_NAME = "exylia";
+    // Last content sent to the client, used to only apply what changed
+    private final Component[] appliedLines = new Component[MAX_LINES];
+    private Component appliedTitle;
+
+    // Scheduler state, only touched from the main thread
+    private int schedulerInterval = 0;
+    private int schedulerSlot = 0;
+    private boolean queued = false;
+
+    private static final int MAX_LINES = ScoreboardPool.MAX_LINES;
 
     /**
      * Creates a new PlayerScoreboard.
      *
-     * @param plugin The plugin instance
+     * @param scheduler The scheduler driving the updates
+     * @param pool The pool the scoreboard is leased from
      * @param player The player
      * @param template The scoreboard template
      */
-    PlayerScoreboard(Plugin plugin, Player player, ScoreboardTemplate template) {
-        this.plugin = plugin;
+    PlayerScoreboard(ScoreboardScheduler scheduler, ScoreboardPool pool, Player player, ScoreboardTemplate template) {
+        this.scheduler = scheduler;
+        this.pool = pool;
         this.player = player;
         this.template = template;
 
-        // Create the scoreboard
-        this.scoreboard = SCOREBOARD_MANAGER.getNewScoreboard();
-        Component title = template.getTitle(player);
-        this.objective = scoreboard.registerNewObjective(OBJECTIVE_NAME, "dummy", title);
-        this.objective.setDisplaySlot(DisplaySlot.SIDEBAR);
-
-        // Start the update task if needed
-        if (template.getUpdateTicks() > 0) {
-            startUpdateTask();
-        }
+        // Lease a scoreboard with its objective and line teams already registered
+        this.pooled = pool.lease();
+        this.scoreboard = pooled.getScoreboard();
+        this.objective = pooled.getObjective();
     }
 
     /**
@@ -59,15 +64,12 @@ public class PlayerScoreboard {
      * @return This instance for chaining
      */
     public PlayerScoreboard show() {
-        if (visible) return this;
+        if (visible || destroyed) return this;
 
         visible = true;
         update();
         player.setScoreboard(scoreboard);
-
-        if (taskId == -1 && template.getUpdateTicks() > 0) {
-            startUpdateTask();
-        }
+        scheduler.schedule(this);
 
         return this;
     }
@@ -81,12 +83,8 @@ public class PlayerScoreboard {
         if (!visible) return this;
 
         visible = false;
-        player.setScoreboard(SCOREBOARD_MANAGER.getMainScoreboard());
-
-        if (taskId != -1) {
-            Bukkit.getScheduler().cancelTask(taskId);
-            taskId = -1;
-        }
+        player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+        scheduler.unschedule(this);
 
         return this;
     }
@@ -106,61 +104,155 @@ public class PlayerScoreboard {
      * @return This instance for chaining
      */
     public PlayerScoreboard update() {
-        if (!visible) return this;
+        render();
+        return this;
+    }
+
+    /**
+     * Renders the scoreboard content on the current thread and applies it.
+     *
+     * @return The number of lines rendered
+     */
+    int render() {
+        if (!canRender()) return 0;
+        return apply(renderFrame(ScoreboardRenderPolicy.SYNC));
+    }
+
+    /**
+     * Checks if this scoreboard should be rendered, destroying it if the player went offline.
+     *
+     * @return true if the scoreboard is visible and the player is online
+     */
+    boolean canRender() {
+        if (!visible) return false;
         if (!player.isOnline()) {
             destroy();
-            return this;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the title and line contents without touching the scoreboard.
+     * Content the policy doesn't allow off the main thread is left out
+     * and rendered by {@link #apply(Frame)} instead.
+     *
+     * @param policy The render policy in use
+     * @return The rendered frame
+     */
+    Frame renderFrame(ScoreboardRenderPolicy policy) {
+        ScoreboardTemplate template = this.template;
+        Frame frame = new Frame(template);
+
+        if (policy.rendersOffMainThread(template.isTitleThreadSafe())) {
+            frame.title = template.getTitle(player);
+            frame.titleRendered = true;
+        }
+
+        for (Map.Entry<Integer, ScoreboardTemplate.LineTemplate> entry : template.getLines().entrySet()) {
+            ScoreboardTemplate.LineTemplate lineTemplate = entry.getValue();
+            if (policy.rendersOffMainThread(lineTemplate.isThreadSafe())) {
+                int position = entry.getKey();
+                frame.lines[position] = lineTemplate.getContent(player);
+                frame.rendered[position] = true;
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Applies a rendered frame to the scoreboard, only sending what changed.
+     * Must be called from the main thread.
+     *
+     * @param frame The rendered frame
+     * @return The number of lines rendered
+     */
+    int apply(Frame frame) {
+        if (!visible) return 0;
+
+        // Frames rendered for a previous template are rendered again on the main thread
+        if (frame.template != template) {
+            frame = new Frame(template);
         }
 
+        int rendered = 0;
+
         try {
             // Update the title
-            objective.displayName(template.getTitle(player));
-
-            // Clear existing scores
-            for (String entry : new HashSet<>(scoreboard.getEntries())) {
-                scoreboard.resetScores(entry);
+            Component title = frame.titleRendered ? frame.title : template.getTitle(player);
+            if (!Objects.equals(title, appliedTitle)) {
+                objective.displayName(title);
+                appliedTitle = title;
             }
 
             // Update all lines
-            Map<Integer, ScoreboardTemplate.LineTemplate> lines = template.getLines();
-            for (Map.Entry<Integer, ScoreboardTemplate.LineTemplate> entry : lines.entrySet()) {
+            for (Map.Entry<Integer, ScoreboardTemplate.LineTemplate> entry : template.getLines().entrySet()) {
                 int position = entry.getKey();
                 ScoreboardTemplate.LineTemplate lineTemplate = entry.getValue();
-                Component content = lineTemplate.getContent(player);
+                Component content = frame.rendered[position] ? frame.lines[position] : lineTemplate.getContent(player);
+                if (content == null) {
+                    content = Component.empty();
+                }
+                rendered++;
+
+                if (content.equals(appliedLines[position])) continue;
 
-                // Use a team to set the line content
-                String entryName = getUniqueEntryName(position);
-                Team team = scoreboard.getTeam("line" + position);
-                if (team == null) {
-                    team = scoreboard.registerNewTeam("line" + position);
+                // The line team and its entry are registered by the pool
+                if (appliedLines[position] == null) {
+                    objective.getScore(ScoreboardUtil.createUniqueEntryName(position)).setScore(lineTemplate.getScore());
                 }
 
-                team.prefix(content);
-                team.addEntry(entryName);
-                objective.getScore(entryName).setScore(lineTemplate.getScore());
+                pooled.getTeam(position).prefix(content);
+                appliedLines[position] = content;
             }
         } catch (Exception e) {
             logWarn("Error updating scoreboard for player " + player.getName() + ": " + e.getMessage());
         }
 
+        return rendered;
+    }
+
+    /**
+     * Switches this scoreboard to another template, reusing the existing
+     * scoreboard, objective and line teams.
+     *
+     * @param newTemplate The template to switch to
+     * @return This instance for chaining
+     */
+    public PlayerScoreboard switchTemplate(ScoreboardTemplate newTemplate) {
+        if (newTemplate == template || destroyed) return this;
+
+        scheduler.unschedule(this);
+
+        // Clear the lines of the previous template, teams stay registered for reuse
+        for (int position = 0; position < MAX_LINES; position++) {
+            if (appliedLines[position] != null) {
+                scoreboard.resetScores(ScoreboardUtil.createUniqueEntryName(position));
+                appliedLines[position] = null;
+            }
+        }
+        appliedTitle = null;
+        template = newTemplate;
+
+        if (visible) {
+            render();
+            scheduler.schedule(this);
+        }
+
         return this;
     }
 
     /**
-     * Destroys this scoreboard, cleaning up resources.
+     * Destroys this scoreboard, returning it to the pool.
+     * A destroyed scoreboard can't be shown again.
      */
     public void destroy() {
         hide();
+        if (destroyed) return;
 
-        // Clean up objective and teams
-        try {
-            objective.unregister();
-            for (Team team : scoreboard.getTeams()) {
-                team.unregister();
-            }
-        } catch (Exception ignored) {
-            // Ignore exceptions during cleanup
-        }
+        destroyed = true;
+        pool.release(pooled);
     }
 
     /**
@@ -199,25 +291,39 @@ public class PlayerScoreboard {
         return visible;
     }
 
-    /**
-     * Gets a unique entry name for a line.
-     *
-     * @param line The line position
-     * @return A unique entry name
-     */
-    private String getUniqueEntryName(int line) {
-        // Use color codes to create unique entries for each line
-        char[] colors = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
-        return "§" + colors[line % colors.length] + "§r";
+    int getSchedulerInterval() {
+        return schedulerInterval;
+    }
+
+    int getSchedulerSlot() {
+        return schedulerSlot;
+    }
+
+    void setSchedulerSlot(int interval, int slot) {
+        this.schedulerInterval = interval;
+        this.schedulerSlot = slot;
+    }
+
+    boolean isQueued() {
+        return queued;
+    }
+
+    void setQueued(boolean queued) {
+        this.queued = queued;
     }
 
     /**
-     * Starts the update task.
+     * Content computed for one update, possibly off the main thread.
      */
-    private void startUpdateTask() {
-        int updateTicks = template.getUpdateTicks();
-        if (updateTicks <= 0) return;
-
-        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::update, updateTicks, updateTicks);
+    static final class Frame {
+        private final ScoreboardTemplate template;
+        private Component title;
+        private boolean titleRendered;
+        private final Component[] lines = new Component[MAX_LINES];
+        private final boolean[] rendered = new boolean[MAX_LINES];
+
+        Frame(ScoreboardTemplate template) {
+            this.template = template;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package net.exylia.commons.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.ScoreboardManager;
+import org.bukkit.scoreboard.Team;
+
+import java.util.ArrayDeque;
+
+/**
+ * Bounded pool of pre-built scoreboards, each with its sidebar objective and one
+ * registered team per line. Scoreboards returned to the pool are reset but keep
+ * their objective and teams, so showing, hiding and switching scoreboards doesn't
+ * create and unregister them every time. Must only be used from the main thread.
+ */
+public class ScoreboardPool {
+
+    private static final int DEFAULT_MAX_SIZE = 64;
+    static final String OBJECTIVE_NAME = "exylia";
+    static final int MAX_LINES = 16;
+
+    private final ArrayDeque<PooledScoreboard> available = new ArrayDeque<>();
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private int leased = 0;
+    private long created = 0;
+    private long reused = 0;
+    private long disposed = 0;
+
+    /**
+     * Creates a new ScoreboardPool.
+     */
+    ScoreboardPool() {
+    }
+
+    /**
+     * Leases a scoreboard from the pool, building a new one if the pool is empty.
+     *
+     * @return A reset scoreboard
+     */
+    PooledScoreboard lease() {
+        PooledScoreboard pooled = available.poll();
+        if (pooled != null) {
+            reused++;
+        } else {
+            pooled = create();
+        }
+
+        leased++;
+        return pooled;
+    }
+
+    /**
+     * Returns a scoreboard to the pool. It is reset and kept if the pool has room,
+     * otherwise its objective and teams are unregistered.
+     *
+     * @param pooled The scoreboard to return
+     */
+    void release(PooledScoreboard pooled) {
+        leased--;
+
+        if (available.size() < maxSize) {
+            try {
+                pooled.reset();
+                available.push(pooled);
+                return;
+            } catch (Exception ignored) {
+                // Dispose scoreboards that can't be reset
+            }
+        }
+
+        pooled.dispose();
+        disposed++;
+    }
+
+    /**
+     * Builds scoreboards ahead of time so the first players don't pay for it.
+     *
+     * @param count The number of scoreboards to have available
+     */
+    public void prewarm(int count) {
+        int target = Math.min(count, maxSize);
+        while (available.size() < target) {
+            available.push(create());
+        }
+    }
+
+    /**
+     * Sets the maximum number of idle scoreboards kept in the pool.
+     *
+     * @param maxSize The maximum pool size
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Pool size cannot be negative");
+        }
+        this.maxSize = maxSize;
+
+        while (available.size() > maxSize) {
+            available.poll().dispose();
+            disposed++;
+        }
+    }
+
+    /**
+     * Gets the maximum number of idle scoreboards kept in the pool.
+     *
+     * @return The maximum pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of idle scoreboards in the pool.
+     *
+     * @return The idle scoreboard count
+     */
+    public int getAvailableCount() {
+        return available.size();
+    }
+
+    /**
+     * Gets the number of scoreboards currently leased.
+     *
+     * @return The leased scoreboard count
+     */
+    public int getLeasedCount() {
+        return leased;
+    }
+
+    /**
+     * Gets the number of scoreboards built by the pool.
+     *
+     * @return The created scoreboard count
+     */
+    public long getCreatedCount() {
+        return created;
+    }
+
+    /**
+     * Gets the number of leases served from idle scoreboards.
+     *
+     * @return The reused scoreboard count
+     */
+    public long getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Gets the number of scoreboards dropped because the pool was full.
+     *
+     * @return The disposed scoreboard count
+     */
+    public long getDisposedCount() {
+        return disposed;
+    }
+
+    /**
+     * Drops all idle scoreboards.
+     */
+    void clear() {
+        available.clear();
+    }
+
+    private PooledScoreboard create() {
+        created++;
+        return new PooledScoreboard(Bukkit.getScoreboardManager());
+    }
+
+    /**
+     * Scoreboard with its sidebar objective and pre-registered line teams.
+     */
+    static final class PooledScoreboard {
+        private final Scoreboard scoreboard;
+        private final Objective objective;
+        private final Team[] teams = new Team[MAX_LINES];
+
+        private PooledScoreboard(ScoreboardManager manager) {
+            this.scoreboard = manager.getNewScoreboard();
+            this.objective = scoreboard.registerNewObjective(OBJECTIVE_NAME, "dummy", Component.empty());
+            this.objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+
+            for (int position = 0; position < MAX_LINES; position++) {
+                Team team = scoreboard.registerNewTeam("line" + position);
+                team.addEntry(ScoreboardUtil.createUniqueEntryName(position));
+                teams[position] = team;
+            }
+        }
+
+        Scoreboard getScoreboard() {
+            return scoreboard;
+        }
+
+        Objective getObjective() {
+            return objective;
+        }
+
+        Team getTeam(int position) {
+            return teams[position];
+        }
+
+        /**
+         * Clears the title, scores and line contents, keeping the objective and teams registered.
+         */
+        private void reset() {
+            objective.displayName(Component.empty());
+            for (int position = 0; position < MAX_LINES; position++) {
+                scoreboard.resetScores(ScoreboardUtil.createUniqueEntryName(position));
+                teams[position].prefix(Component.empty());
+            }
+        }
+
+        /**
+         * Unregisters the objective and teams.
+         */
+        private void dispose() {
+            try {
+                objective.unregister();
+                for (Team team : teams) {
+                    team.unregister();
+                }
+            } catch (Exception ignored) {
+                // Ignore exceptions during cleanup
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.exylia.commons.scoreboard;
+
+/**
+ * Controls which scoreboard content is rendered off the main thread.
+ * Rendered content is always applied to the scoreboards on the main thread.
+ */
+public enum ScoreboardRenderPolicy {
+
+    /**
+     * Everything is rendered on the main thread inside the scheduler tick.
+     */
+    SYNC,
+
+    /**
+     * Providers marked as thread-safe are rendered on the async pool,
+     * the rest are rendered on the main thread when the frame is applied.
+     */
+    ASYNC_THREAD_SAFE,
+
+    /**
+     * Every provider is rendered on the async pool.
+     * Only use this when no provider touches non thread-safe state such as PlaceholderAPI.
+     */
+    ASYNC_ALL;
+
+    /**
+     * Checks if this policy uses the async render pool.
+     *
+     * @return true if rendering happens off the main thread
+     */
+    public boolean isAsync() {
+        return this != SYNC;
+    }
+
+    /**
+     * Checks if content from a provider may be rendered off the main thread.
+     *
+     * @param threadSafe Whether the provider is thread-safe
+     * @return true if the content may be rendered off the main thread
+     */
+    boolean rendersOffMainThread(boolean threadSafe) {
+        return this == ASYNC_ALL || (this == ASYNC_THREAD_SAFE && threadSafe);
+    }
+}
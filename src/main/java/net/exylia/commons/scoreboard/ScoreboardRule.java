@@ -0,0 +1,181 @@
+package net.exylia.commons.scoreboard;
+
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Rule that decides which scoreboard template is applied to a player.
+ * When several rules match, the one with the highest priority wins.
+ */
+public class ScoreboardRule {
+
+    private final String id;
+    private final String templateId;
+    private final int priority;
+    private final Predicate<Player> condition;
+    private final Set<ScoreboardTrigger> triggers;
+    private final Set<String> customTriggers;
+
+    private ScoreboardRule(Builder builder) {
+        this.id = builder.id != null ? builder.id : builder.templateId;
+        this.templateId = builder.templateId;
+        this.priority = builder.priority;
+        this.condition = builder.condition;
+        this.triggers = Collections.unmodifiableSet(EnumSet.copyOf(builder.triggers));
+        this.customTriggers = Collections.unmodifiableSet(new HashSet<>(builder.customTriggers));
+    }
+
+    /**
+     * Creates a new rule builder for a template.
+     *
+     * @param templateId The template applied when the rule matches
+     * @return A new Builder instance
+     */
+    public static Builder builder(String templateId) {
+        return new Builder(templateId);
+    }
+
+    /**
+     * Gets the rule ID.
+     *
+     * @return The rule ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the template applied when the rule matches.
+     *
+     * @return The template ID
+     */
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    /**
+     * Gets the rule priority, higher priorities win.
+     *
+     * @return The priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the events that re-evaluate this rule.
+     *
+     * @return The triggers
+     */
+    public Set<ScoreboardTrigger> getTriggers() {
+        return triggers;
+    }
+
+    /**
+     * Gets the custom trigger keys that re-evaluate this rule.
+     *
+     * @return The custom trigger keys
+     */
+    public Set<String> getCustomTriggers() {
+        return customTriggers;
+    }
+
+    /**
+     * Checks if the rule matches a player.
+     *
+     * @param player The player
+     * @return true if the rule matches
+     */
+    public boolean test(Player player) {
+        return condition.test(player);
+    }
+
+    /**
+     * Builder for scoreboard rules.
+     */
+    public static class Builder {
+        private final String templateId;
+        private String id;
+        private int priority = 0;
+        private Predicate<Player> condition = player -> true;
+        private final Set<ScoreboardTrigger> triggers = EnumSet.of(ScoreboardTrigger.JOIN);
+        private final Set<String> customTriggers = new HashSet<>();
+
+        private Builder(String templateId) {
+            this.templateId = templateId;
+        }
+
+        /**
+         * Sets the rule ID, defaults to the template ID.
+         *
+         * @param id The rule ID
+         * @return The builder instance
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        /**
+         * Sets the rule priority, higher priorities win.
+         *
+         * @param priority The priority
+         * @return The builder instance
+         */
+        public Builder priority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Sets the condition a player must meet.
+         *
+         * @param condition The condition
+         * @return The builder instance
+         */
+        public Builder condition(Predicate<Player> condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        /**
+         * Adds events that re-evaluate the rule.
+         *
+         * @param triggers The triggers
+         * @return The builder instance
+         */
+        public Builder on(ScoreboardTrigger... triggers) {
+            Collections.addAll(this.triggers, triggers);
+            return this;
+        }
+
+        /**
+         * Adds custom trigger keys that re-evaluate the rule.
+         *
+         * @param keys The custom trigger keys
+         * @return The builder instance
+         */
+        public Builder onCustom(String... keys) {
+            Collections.addAll(this.customTriggers, keys);
+            this.triggers.add(ScoreboardTrigger.CUSTOM);
+            return this;
+        }
+
+        /**
+         * Builds the rule.
+         *
+         * @return A new ScoreboardRule
+         */
+        public ScoreboardRule build() {
+            if (templateId == null) {
+                throw new IllegalStateException("Scoreboard rule template is required");
+            }
+            return new ScoreboardRule(this);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package net.exylia.commons.scoreboard;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.exylia.commons.utils.DebugUtils.logWarn;
+
+/**
+ * Single driver that updates every player scoreboard from one Bukkit task.
+ * Scoreboards are bucketed by update interval and staggered across the ticks of
+ * that interval, so players sharing an interval don't all refresh on the same tick.
+ * Work that doesn't fit in the per-tick time budget is carried over to the next tick.
+ * <p>
+ * With an async {@link ScoreboardRenderPolicy}, due scoreboards are rendered on a worker
+ * pool and the resulting frames are applied on the main thread in one batch on the next tick.
+ */
+public class ScoreboardScheduler implements Runnable {
+
+    private static final long DEFAULT_TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int DEFAULT_RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final Plugin plugin;
+    private final Map<Integer, IntervalBucket> buckets = new HashMap<>();
+    private final ArrayDeque<PlayerScoreboard> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<RenderedFrame> renderedFrames = new ConcurrentLinkedQueue<>();
+    private volatile ScoreboardRenderPolicy renderPolicy = ScoreboardRenderPolicy.SYNC;
+    private int renderThreads = DEFAULT_RENDER_THREADS;
+    private ExecutorService renderExecutor;
+    private long tickBudgetNanos = DEFAULT_TICK_BUDGET_NANOS;
+    private long currentTick = 0;
+    private int scheduledCount = 0;
+    private int taskId = -1;
+
+    // Statistics
+    private int lastTickLines = 0;
+    private int lastTickScoreboards = 0;
+    private long lastTickNanos = 0;
+    private int maxTickLines = 0;
+    private long totalLines = 0;
+    private long totalTicks = 0;
+    private long overBudgetTicks = 0;
+
+    /**
+     * Creates a new ScoreboardScheduler.
+     *
+     * @param plugin The plugin that owns the update task
+     */
+    ScoreboardScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Adds a scoreboard to the bucket of its template's update interval.
+     * The scoreboard is placed in the least loaded tick slot of that bucket.
+     *
+     * @param scoreboard The scoreboard to schedule
+     */
+    void schedule(PlayerScoreboard scoreboard) {
+        if (scoreboard.getSchedulerInterval() > 0) return;
+
+        int interval = scoreboard.getTemplate().getUpdateTicks();
+        if (interval <= 0) return;
+
+        IntervalBucket bucket = buckets.computeIfAbsent(interval, IntervalBucket::new);
+        int slot = bucket.leastLoadedSlot();
+        bucket.slots[slot].add(scoreboard);
+        scoreboard.setSchedulerSlot(interval, slot);
+        scheduledCount++;
+
+        start();
+    }
+
+    /**
+     * Removes a scoreboard from its bucket.
+     * A pending update for it is skipped when it is reached in the queue.
+     *
+     * @param scoreboard The scoreboard to unschedule
+     */
+    void unschedule(PlayerScoreboard scoreboard) {
+        int interval = scoreboard.getSchedulerInterval();
+        if (interval <= 0) return;
+
+        IntervalBucket bucket = buckets.get(interval);
+        if (bucket != null && bucket.slots[scoreboard.getSchedulerSlot()].remove(scoreboard)) {
+            scheduledCount--;
+            if (bucket.isEmpty()) {
+                buckets.remove(interval);
+            }
+        }
+        scoreboard.setSchedulerSlot(0, 0);
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+
+        // Queue every scoreboard whose slot is due this tick
+        for (IntervalBucket bucket : buckets.values()) {
+            for (PlayerScoreboard scoreboard : bucket.slots[(int) (currentTick % bucket.interval)]) {
+                if (!scoreboard.isQueued()) {
+                    scoreboard.setQueued(true);
+                    pending.add(scoreboard);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + tickBudgetNanos;
+        int lines = 0;
+        int scoreboards = 0;
+        boolean overBudget = false;
+
+        // Apply the frames rendered on the async pool since the last tick in one batch
+        RenderedFrame rendered;
+        while ((rendered = renderedFrames.peek()) != null) {
+            if (scoreboards > 0 && System.nanoTime() >= deadline) {
+                overBudget = true;
+                break;
+            }
+
+            renderedFrames.poll();
+            rendered.scoreboard.setQueued(false);
+            if (rendered.scoreboard.getSchedulerInterval() <= 0) continue;
+
+            lines += rendered.scoreboard.apply(rendered.frame);
+            scoreboards++;
+        }
+
+        if (renderPolicy.isAsync()) {
+            dispatchPending();
+        } else {
+            // Always process at least one scoreboard so the queue keeps moving
+            while (!pending.isEmpty()) {
+                if (scoreboards > 0 && System.nanoTime() >= deadline) {
+                    overBudget = true;
+                    break;
+                }
+
+                PlayerScoreboard scoreboard = pending.poll();
+                scoreboard.setQueued(false);
+                if (scoreboard.getSchedulerInterval() <= 0) continue;
+
+                lines += scoreboard.render();
+                scoreboards++;
+            }
+        }
+
+        if (overBudget) {
+            overBudgetTicks++;
+        }
+
+        lastTickLines = lines;
+        lastTickScoreboards = scoreboards;
+        lastTickNanos = System.nanoTime() - start;
+        maxTickLines = Math.max(maxTickLines, lines);
+        totalLines += lines;
+        totalTicks++;
+    }
+
+    /**
+     * Hands every pending scoreboard to the render pool.
+     * Scoreboards stay queued until their frame has been applied.
+     */
+    private void dispatchPending() {
+        ScoreboardRenderPolicy policy = renderPolicy;
+        ExecutorService executor = getRenderExecutor();
+
+        PlayerScoreboard scoreboard;
+        while ((scoreboard = pending.poll()) != null) {
+            if (scoreboard.getSchedulerInterval() <= 0 || !scoreboard.canRender()) {
+                scoreboard.setQueued(false);
+                continue;
+            }
+
+            PlayerScoreboard target = scoreboard;
+            try {
+                executor.execute(() -> renderedFrames.add(new RenderedFrame(target, renderFrame(target, policy))));
+            } catch (RejectedExecutionException e) {
+                scoreboard.setQueued(false);
+            }
+        }
+    }
+
+    /**
+     * Renders a frame on the render pool. If rendering fails, an empty frame is
+     * returned so that all content is rendered again on the main thread.
+     *
+     * @param scoreboard The scoreboard to render
+     * @param policy The render policy in use
+     * @return The rendered frame
+     */
+    private PlayerScoreboard.Frame renderFrame(PlayerScoreboard scoreboard, ScoreboardRenderPolicy policy) {
+        try {
+            return scoreboard.renderFrame(policy);
+        } catch (Exception e) {
+            logWarn("Error rendering scoreboard for player " + scoreboard.getPlayer().getName() + " off the main thread: " + e.getMessage());
+            return new PlayerScoreboard.Frame(scoreboard.getTemplate());
+        }
+    }
+
+    /**
+     * Gets the render pool, creating it if needed.
+     *
+     * @return The render executor
+     */
+    private ExecutorService getRenderExecutor() {
+        if (renderExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            renderExecutor = Executors.newFixedThreadPool(renderThreads, r -> {
+                Thread thread = new Thread(r, "ExyliaScoreboard-Render-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return renderExecutor;
+    }
+
+    /**
+     * Starts the update task if it isn't running.
+     */
+    private void start() {
+        if (taskId != -1) return;
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 1L, 1L);
+    }
+
+    /**
+     * Stops the update task and clears all buckets and pending work.
+     */
+    void shutdown() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+            renderExecutor = null;
+        }
+
+        for (PlayerScoreboard scoreboard : pending) {
+            scoreboard.setQueued(false);
+        }
+        pending.clear();
+        renderedFrames.clear();
+        buckets.clear();
+        scheduledCount = 0;
+    }
+
+    /**
+     * Sets the maximum time spent updating scoreboards per tick.
+     * Scoreboards that don't fit are carried over to the next tick.
+     *
+     * @param budget The time budget
+     * @param unit The time unit of the budget
+     */
+    public void setTickBudget(long budget, TimeUnit unit) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Tick budget must be positive");
+        }
+        this.tickBudgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Gets the maximum time spent updating scoreboards per tick.
+     *
+     * @return The time budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * Sets which content is rendered off the main thread.
+     *
+     * @param policy The render policy
+     */
+    public void setRenderPolicy(ScoreboardRenderPolicy policy) {
+        this.renderPolicy = policy;
+    }
+
+    /**
+     * Gets the current render policy.
+     *
+     * @return The render policy
+     */
+    public ScoreboardRenderPolicy getRenderPolicy() {
+        return renderPolicy;
+    }
+
+    /**
+     * Sets the number of threads of the async render pool.
+     * A running pool is replaced once its current work finishes.
+     *
+     * @param threads The number of render threads
+     */
+    public void setRenderThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Render threads must be positive");
+        }
+        this.renderThreads = threads;
+
+        if (renderExecutor != null) {
+            renderExecutor.shutdown();
+            renderExecutor = null;
+        }
+    }
+
+    /**
+     * Gets the number of ticks this scheduler has run.
+     *
+     * @return The current scheduler tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Gets a snapshot of the scheduler statistics.
+     *
+     * @return The scheduler statistics
+     */
+    public Stats getStats() {
+        double average = totalTicks == 0 ? 0 : (double) totalLines / totalTicks;
+        return new Stats(scheduledCount, pending.size(), renderedFrames.size(), lastTickScoreboards, lastTickLines,
+                lastTickNanos, maxTickLines, average, overBudgetTicks);
+    }
+
+    /**
+     * Resets the accumulated statistics.
+     */
+    public void resetStats() {
+        maxTickLines = 0;
+        totalLines = 0;
+        totalTicks = 0;
+        overBudgetTicks = 0;
+    }
+
+    /**
+     * Group of scoreboards sharing the same update interval, split in one slot per tick.
+     */
+    private static class IntervalBucket {
+        private final int interval;
+        private final List<PlayerScoreboard>[] slots;
+
+        @SuppressWarnings("unchecked")
+        IntervalBucket(int interval) {
+            this.interval = interval;
+            this.slots = new List[interval];
+            for (int i = 0; i < interval; i++) {
+                slots[i] = new ArrayList<>();
+            }
+        }
+
+        int leastLoadedSlot() {
+            int best = 0;
+            for (int i = 1; i < slots.length; i++) {
+                if (slots[i].size() < slots[best].size()) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        boolean isEmpty() {
+            for (List<PlayerScoreboard> slot : slots) {
+                if (!slot.isEmpty()) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Frame rendered on the async pool waiting to be applied on the main thread.
+     */
+    private static class RenderedFrame {
+        private final PlayerScoreboard scoreboard;
+        private final PlayerScoreboard.Frame frame;
+
+        RenderedFrame(PlayerScoreboard scoreboard, PlayerScoreboard.Frame frame) {
+            this.scoreboard = scoreboard;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * Snapshot of the scheduler statistics.
+     */
+    public static class Stats {
+        private final int scheduledScoreboards;
+        private final int pendingScoreboards;
+        private final int framesAwaitingApply;
+        private final int lastTickScoreboards;
+        private final int lastTickLines;
+        private final long lastTickNanos;
+        private final int maxTickLines;
+        private final double averageLinesPerTick;
+        private final long overBudgetTicks;
+
+        Stats(int scheduledScoreboards, int pendingScoreboards, int framesAwaitingApply, int lastTickScoreboards, int lastTickLines,
+              long lastTickNanos, int maxTickLines, double averageLinesPerTick, long overBudgetTicks) {
+            this.scheduledScoreboards = scheduledScoreboards;
+            this.pendingScoreboards = pendingScoreboards;
+            this.framesAwaitingApply = framesAwaitingApply;
+            this.lastTickScoreboards = lastTickScoreboards;
+            this.lastTickLines = lastTickLines;
+            this.lastTickNanos = lastTickNanos;
+            this.maxTickLines = maxTickLines;
+            this.averageLinesPerTick = averageLinesPerTick;
+            this.overBudgetTicks = overBudgetTicks;
+        }
+
+        public int getScheduledScoreboards() {
+            return scheduledScoreboards;
+        }
+
+        /**
+         * Gets the number of scoreboards carried over to the next tick.
+         *
+         * @return The pending scoreboard count
+         */
+        public int getPendingScoreboards() {
+            return pendingScoreboards;
+        }
+
+        /**
+         * Gets the number of frames rendered off the main thread that haven't been applied yet.
+         *
+         * @return The number of frames awaiting apply
+         */
+        public int getFramesAwaitingApply() {
+            return framesAwaitingApply;
+        }
+
+        public int getLastTickScoreboards() {
+            return lastTickScoreboards;
+        }
+
+        public int getLastTickLines() {
+            return lastTickLines;
+        }
+
+        public long getLastTickNanos() {
+            return lastTickNanos;
+        }
+
+        public int getMaxTickLines() {
+            return maxTickLines;
+        }
+
+        public double getAverageLinesPerTick() {
+            return averageLinesPerTick;
+        }
+
+        public long getOverBudgetTicks() {
+            return overBudgetTicks;
+        }
+
+        @Override
+        public String toString() {
+            return "ScoreboardScheduler.Stats{" +
+                    "scheduled=" + scheduledScoreboards +
+                    ", pending=" + pendingScoreboards +
+                    ", awaitingApply=" + framesAwaitingApply +
+                    ", lastTickScoreboards=" + lastTickScoreboards +
+                    ", lastTickLines=" + lastTickLines +
+                    ", lastTickMicros=" + TimeUnit.NANOSECONDS.toMicros(lastTickNanos) +
+                    ", maxTickLines=" + maxTickLines +
+                    ", avgLinesPerTick=" + String.format("%.2f", averageLinesPerTick) +
+                    ", overBudgetTicks=" + overBudgetTicks +
+                    '}';
+        }
+    }
+}
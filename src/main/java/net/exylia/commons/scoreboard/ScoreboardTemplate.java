@@ -1,10 +1,12 @@
 package net.exylia.commons.scoreboard;
 
 import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -16,13 +18,21 @@ public class ScoreboardTemplate {
     private final String id;
     private final Map<Integer, LineTemplate> lines;
     private final ContentProvider titleProvider;
+    private final boolean titleThreadSafe;
     private final int updateTicks;
 
     ScoreboardTemplate(String id, ContentProvider titleProvider, Map<Integer, LineTemplate> lines, int updateTicks) {
         this.id = id;
         this.titleProvider = titleProvider;
-        this.lines = new HashMap<>(lines);
+        this.titleThreadSafe = titleProvider.isThreadSafe();
         this.updateTicks = updateTicks;
+
+        // Shared lines are rendered at most once per update interval. Each template keeps its
+        // own copies, so lines passed in by the caller and used elsewhere are left untouched
+        this.lines = new HashMap<>();
+        for (Map.Entry<Integer, LineTemplate> entry : lines.entrySet()) {
+            this.lines.put(entry.getKey(), new LineTemplate(entry.getValue(), Math.max(1, updateTicks)));
+        }
     }
 
     /**
@@ -53,6 +63,15 @@ public class ScoreboardTemplate {
         return titleProvider.getContent(player);
     }
 
+    /**
+     * Checks if the title provider can be rendered off the main thread.
+     *
+     * @return true if the title provider is thread-safe
+     */
+    public boolean isTitleThreadSafe() {
+        return titleThreadSafe;
+    }
+
     /**
      * Gets all line templates.
      *
@@ -76,41 +95,178 @@ public class ScoreboardTemplate {
      * Represents a line template in the scoreboard.
      */
     public static class LineTemplate {
+        private static final String GLOBAL_KEY = "";
+
         private final ContentProvider contentProvider;
         private final int score;
-        private final Function<String, String> processor;
+        private final ComponentProcessor processor;
+        private final boolean threadSafe;
+        private final LineScope scope;
+        private final Function<Player, String> groupResolver;
+        private final Map<String, SharedContent> sharedContent;
+        private final int sharedTicks;
+        private volatile long lastEviction;
+
+        /**
+         * Creates a new line template without a processor.
+         *
+         * @param contentProvider The content provider
+         * @param score The score value
+         */
+        public LineTemplate(ContentProvider contentProvider, int score) {
+            this(contentProvider, score, (ComponentProcessor) null);
+        }
 
         /**
-         * Creates a new line template.
+         * Creates a new line template with a string processor.
          *
          * @param contentProvider The content provider
          * @param score The score value
-         * @param processor Optional processor function
+         * @param processor Optional processor function, must be thread-safe if the provider is
          */
         public LineTemplate(ContentProvider contentProvider, int score, Function<String, String> processor) {
+            this(contentProvider, score, processor != null ? ComponentProcessor.fromString(processor) : null);
+        }
+
+        /**
+         * Creates a new line template with a component processor.
+         *
+         * @param contentProvider The content provider
+         * @param score The score value
+         * @param processor Optional component processor
+         */
+        public LineTemplate(ContentProvider contentProvider, int score, ComponentProcessor processor) {
+            this(contentProvider, score, processor, LineScope.PLAYER, null);
+        }
+
+        /**
+         * Creates a new line template with a render scope.
+         * For {@link LineScope#GLOBAL} and {@link LineScope#GROUP} lines, the provider is called
+         * with whichever player needs the line first in each update interval, so it must not
+         * depend on player specific data beyond the group.
+         *
+         * @param contentProvider The content provider
+         * @param score The score value
+         * @param processor Optional component processor
+         * @param scope Who the line is rendered for
+         * @param groupResolver Resolves the group of a player, required for {@link LineScope#GROUP}
+         */
+        public LineTemplate(ContentProvider contentProvider, int score, ComponentProcessor processor,
+                            LineScope scope, Function<Player, String> groupResolver) {
+            if (scope == LineScope.GROUP && groupResolver == null) {
+                throw new IllegalArgumentException("Group lines require a group resolver");
+            }
+
             this.contentProvider = contentProvider;
             this.score = score;
             this.processor = processor;
+            this.threadSafe = contentProvider.isThreadSafe();
+            this.scope = scope;
+            this.groupResolver = groupResolver;
+            this.sharedContent = scope == LineScope.PLAYER ? null : new ConcurrentHashMap<>();
+            this.sharedTicks = 1;
+        }
+
+        /**
+         * Copies a line template for a scoreboard template, with its own shared content.
+         *
+         * @param source The line template to copy
+         * @param sharedTicks How many ticks shared content stays valid
+         */
+        private LineTemplate(LineTemplate source, int sharedTicks) {
+            this.contentProvider = source.contentProvider;
+            this.score = source.score;
+            this.processor = source.processor;
+            this.threadSafe = source.threadSafe;
+            this.scope = source.scope;
+            this.groupResolver = source.groupResolver;
+            this.sharedContent = scope == LineScope.PLAYER ? null : new ConcurrentHashMap<>();
+            this.sharedTicks = sharedTicks;
         }
 
         /**
          * Gets the content for a specific player.
+         * Global and group lines return the content shared by all players of the
+         * group if it was already rendered during the current update interval.
          *
          * @param player The player
          * @return The content component
          */
         public Component getContent(Player player) {
+            if (scope == LineScope.PLAYER) {
+                return renderContent(player);
+            }
+
+            String key = scope == LineScope.GLOBAL ? GLOBAL_KEY : groupResolver.apply(player);
+            if (key == null) {
+                return renderContent(player);
+            }
+
+            long tick = Bukkit.getCurrentTick();
+            if (scope == LineScope.GROUP) {
+                evictExpired(tick);
+            }
+
+            SharedContent shared = sharedContent.get(key);
+            if (shared != null && shared.isValid(tick, sharedTicks)) {
+                return shared.content;
+            }
+
+            return sharedContent.compute(key, (k, current) ->
+                    current != null && current.isValid(tick, sharedTicks)
+                            ? current
+                            : new SharedContent(renderContent(player), tick)).content;
+        }
+
+        /**
+         * Drops content of groups nobody rendered during the last interval, such as groups
+         * whose players left. Scans at most once per interval.
+         *
+         * @param tick The current tick
+         */
+        private void evictExpired(long tick) {
+            long last = lastEviction;
+            if (tick >= last && tick - last < sharedTicks) {
+                return;
+            }
+            lastEviction = tick;
+            sharedContent.values().removeIf(shared -> !shared.isValid(tick, sharedTicks));
+        }
+
+        /**
+         * Renders the content for a player, applying the processor.
+         *
+         * @param player The player
+         * @return The content component
+         */
+        private Component renderContent(Player player) {
             Component content = contentProvider.getContent(player);
 
             if (processor != null && content != null) {
-                String raw = ScoreboardUtil.serializeComponent(content);
-                raw = processor.apply(raw);
-                return ScoreboardUtil.deserializeComponent(raw);
+                return processor.process(content);
             }
 
             return content;
         }
 
+        /**
+         * Gets who this line is rendered for.
+         *
+         * @return The line scope
+         */
+        public LineScope getScope() {
+            return scope;
+        }
+
+        /**
+         * Gets the processor applied to the content.
+         *
+         * @return The processor, or null if none is set
+         */
+        public ComponentProcessor getProcessor() {
+            return processor;
+        }
+
         /**
          * Gets the score value.
          *
@@ -119,5 +275,31 @@ public class ScoreboardTemplate {
         public int getScore() {
             return score;
         }
+
+        /**
+         * Checks if this line can be rendered off the main thread.
+         *
+         * @return true if the content provider is thread-safe
+         */
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+
+        /**
+         * Content rendered once and shared by reference between scoreboards.
+         */
+        private static final class SharedContent {
+            private final Component content;
+            private final long renderedTick;
+
+            SharedContent(Component content, long renderedTick) {
+                this.content = content;
+                this.renderedTick = renderedTick;
+            }
+
+            boolean isValid(long tick, int ticks) {
+                return tick >= renderedTick && tick - renderedTick < ticks;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package net.exylia.commons.scoreboard;
 
 import net.exylia.commons.utils.ColorUtils;
 import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -88,7 +89,7 @@ public class ScoreboardTemplateBuilder {
         }
 
         ContentProvider provider = new StaticContentProvider(content);
-        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, null));
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score));
         return this;
     }
 
@@ -107,7 +108,7 @@ public class ScoreboardTemplateBuilder {
 
         Component component = ColorUtils.parse(content);
         ContentProvider provider = new StaticContentProvider(component);
-        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, null));
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score));
         return this;
     }
 
@@ -124,7 +125,7 @@ public class ScoreboardTemplateBuilder {
             throw new IllegalArgumentException("Line position must be between 0 and 15");
         }
 
-        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, null));
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score));
         return this;
     }
 
@@ -146,6 +147,97 @@ public class ScoreboardTemplateBuilder {
         return this;
     }
 
+    /**
+     * Adds a line to the scoreboard with a component processor.
+     * Unlike string processors, the content isn't serialized and parsed back on every update.
+     *
+     * @param position The line position (0-15)
+     * @param provider The content provider
+     * @param score The score value
+     * @param processor Processor applied to the line content
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder line(int position, ContentProvider provider, int score, ComponentProcessor processor) {
+        if (position < 0 || position > 15) {
+            throw new IllegalArgumentException("Line position must be between 0 and 15");
+        }
+
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, processor));
+        return this;
+    }
+
+    /**
+     * Adds a line that is the same for every player.
+     * It is rendered once per update interval and shared by all scoreboards using this template.
+     *
+     * @param position The line position (0-15)
+     * @param provider The content provider, must not depend on the player it receives
+     * @param score The score value
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder globalLine(int position, ContentProvider provider, int score) {
+        if (position < 0 || position > 15) {
+            throw new IllegalArgumentException("Line position must be between 0 and 15");
+        }
+
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, null, LineScope.GLOBAL, null));
+        return this;
+    }
+
+    /**
+     * Adds a line that is the same for every player, with automatic score calculation (15 - position).
+     *
+     * @param position The line position (0-15)
+     * @param provider The content provider, must not depend on the player it receives
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder globalLine(int position, ContentProvider provider) {
+        return globalLine(position, provider, 15 - position);
+    }
+
+    /**
+     * Adds a line that is the same for every player, with automatic score calculation (15 - position).
+     * Placeholders in the text are resolved once per update interval.
+     *
+     * @param position The line position (0-15)
+     * @param content The content string
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder globalLine(int position, String content) {
+        return globalLine(position, new StaticContentProvider(ColorUtils.parse(content)), 15 - position);
+    }
+
+    /**
+     * Adds a line that is the same for every player of a group.
+     * It is rendered once per update interval for each group and shared by its players.
+     *
+     * @param position The line position (0-15)
+     * @param groupResolver Resolves the group of a player, players without a group get their own render
+     * @param provider The content provider, must only depend on the group of the player it receives
+     * @param score The score value
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder groupLine(int position, Function<Player, String> groupResolver, ContentProvider provider, int score) {
+        if (position < 0 || position > 15) {
+            throw new IllegalArgumentException("Line position must be between 0 and 15");
+        }
+
+        lines.put(position, new ScoreboardTemplate.LineTemplate(provider, score, null, LineScope.GROUP, groupResolver));
+        return this;
+    }
+
+    /**
+     * Adds a line that is the same for every player of a group, with automatic score calculation (15 - position).
+     *
+     * @param position The line position (0-15)
+     * @param groupResolver Resolves the group of a player, players without a group get their own render
+     * @param provider The content provider, must only depend on the group of the player it receives
+     * @return This builder instance
+     */
+    public ScoreboardTemplateBuilder groupLine(int position, Function<Player, String> groupResolver, ContentProvider provider) {
+        return groupLine(position, groupResolver, provider, 15 - position);
+    }
+
     /**
      * Adds a line to the scoreboard with automatic score calculation (15 - position).
      *
@@ -0,0 +1,29 @@
+package net.exylia.commons.scoreboard;
+
+/**
+ * Events that cause {@link AutoScoreboardManager} to re-evaluate scoreboard rules.
+ */
+public enum ScoreboardTrigger {
+
+    /**
+     * The player joined. Every rule is evaluated on join, whatever its triggers.
+     */
+    JOIN,
+
+    /**
+     * The player changed world.
+     */
+    WORLD_CHANGE,
+
+    /**
+     * The player's permissions changed. There is no Bukkit event for this,
+     * so it has to be fired through {@link AutoScoreboardManager#trigger(org.bukkit.entity.Player, ScoreboardTrigger)}.
+     */
+    PERMISSION,
+
+    /**
+     * A custom trigger identified by a key, fired through
+     * {@link AutoScoreboardManager#trigger(org.bukkit.entity.Player, String)} or a registered event.
+     */
+    CUSTOM
+}
@@ -2,10 +2,12 @@ package net.exylia.commons.scoreboard;
 
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.regex.Pattern;
+
 import static net.exylia.commons.ExyliaPlugin.isPlaceholderAPIEnabled;
 
 /**
@@ -14,6 +16,7 @@ import static net.exylia.commons.ExyliaPlugin.isPlaceholderAPIEnabled;
 public final class ScoreboardUtil {
 
     private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%[^%\\s]+%");
 
     private ScoreboardUtil() {
         // Private constructor to prevent instantiation
@@ -78,6 +81,8 @@ public final class ScoreboardUtil {
 
     /**
      * Processes a component for a player, handling placeholders.
+     * Placeholders are replaced inside the component tree, so the component
+     * is never serialized and parsed back as a whole.
      *
      * @param player The player
      * @param component The component
@@ -86,17 +91,29 @@ public final class ScoreboardUtil {
     public static Component processComponent(Player player, Component component) {
         if (!isPlaceholderAPIEnabled() || component == null) return component;
 
-        // Convert to string, process placeholders, then convert back
-        String raw = serializeComponent(component);
-        String processed = setPlaceholders(player, raw);
+        return component.replaceText(TextReplacementConfig.builder()
+                .match(PLACEHOLDER_PATTERN)
+                .replacement((match, builder) -> {
+                    String placeholder = match.group();
+                    String processed = setPlaceholders(player, placeholder);
 
-        // If no changes were made, return the original component
-        if (raw.equals(processed)) {
-            return component;
-        }
+                    // Keep the original text if the placeholder is unknown
+                    if (placeholder.equals(processed)) {
+                        return builder;
+                    }
+                    return deserializeComponent(processed);
+                })
+                .build());
+    }
 
-        // Otherwise, parse the processed text back to a component
-        return deserializeComponent(processed);
+    /**
+     * Checks if a component may contain placeholders.
+     *
+     * @param component The component
+     * @return true if the serialized component contains a placeholder
+     */
+    public static boolean containsPlaceholders(Component component) {
+        return component != null && PLACEHOLDER_PATTERN.matcher(serializeComponent(component)).find();
     }
 
     /**
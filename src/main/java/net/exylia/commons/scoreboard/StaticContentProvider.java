@@ -11,6 +11,7 @@ import static net.exylia.commons.ExyliaPlugin.isPlaceholderAPIEnabled;
 public class StaticContentProvider implements ContentProvider {
 
     private final Component content;
+    private final boolean hasPlaceholders;
 
     /**
      * Creates a new StaticContentProvider.
@@ -19,19 +20,21 @@ public class StaticContentProvider implements ContentProvider {
      */
     public StaticContentProvider(Component content) {
         this.content = content;
+        this.hasPlaceholders = ScoreboardUtil.containsPlaceholders(content);
     }
 
     @Override
     public Component getContent(Player player) {
-        if (isPlaceholderAPIEnabled()) {
+        if (hasPlaceholders && isPlaceholderAPIEnabled()) {
             // Process potential placeholders even for static content
-            String serialized = ScoreboardUtil.serializeComponent(content);
-            String processed = ScoreboardUtil.setPlaceholders(player, serialized);
-
-            if (!serialized.equals(processed)) {
-                return ScoreboardUtil.deserializeComponent(processed);
-            }
+            return ScoreboardUtil.processComponent(player, content);
         }
         return content;
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // Placeholder processing goes through PlaceholderAPI, which must run on the main thread
+        return !hasPlaceholders || !isPlaceholderAPIEnabled();
+    }
 }
\ No newline at end of file
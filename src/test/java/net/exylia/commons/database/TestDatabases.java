@@ -0,0 +1,63 @@
+package net.exylia.commons.database;
+
+import net.exylia.commons.database.connection.DatabaseCredentials;
+import net.exylia.commons.database.core.AbstractDatabaseManager;
+import net.exylia.commons.database.enums.DatabaseType;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Embedded databases for tests: SQLite files in a temporary directory, and in-memory H2
+ * in MySQL mode as a stand-in for the MySQL dialect. H2 reports itself as neither SQLite
+ * nor MariaDB, so the library treats its connections as MySQL.
+ */
+public final class TestDatabases {
+
+    private TestDatabases() {
+    }
+
+    /**
+     * Creates a database manager on a new SQLite file.
+     *
+     * @param directory The temporary directory holding the file
+     * @param singleWriter Whether writes go through the SQLite single writer
+     * @return The database manager, to be closed by the test
+     */
+    public static Manager sqlite(Path directory, boolean singleWriter) {
+        DatabaseCredentials credentials = new DatabaseCredentials.Builder(DatabaseType.SQLITE)
+                .sqliteFile(directory.resolve("test.db").toString())
+                .sqliteSingleWriter(singleWriter)
+                .maxPoolSize(4)
+                .minIdle(1)
+                .slowQueryThreshold(0)
+                .leakDetectionThreshold(0)
+                .poolName("test")
+                .build();
+        return new Manager(credentials);
+    }
+
+    /**
+     * Opens a connection to a new in-memory H2 database in MySQL mode.
+     * The database lives until the connection is closed.
+     *
+     * @return The connection
+     * @throws SQLException If the connection can't be opened
+     */
+    public static Connection h2MySQL() throws SQLException {
+        return DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+    }
+
+    /**
+     * Database manager without any table registration.
+     */
+    public static class Manager extends AbstractDatabaseManager {
+        private Manager(DatabaseCredentials credentials) {
+            super(credentials);
+        }
+    }
+}
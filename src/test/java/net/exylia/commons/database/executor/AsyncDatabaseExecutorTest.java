@@ -0,0 +1,52 @@
+package net.exylia.commons.database.executor;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncDatabaseExecutorTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void tasksBeyondTheQueueAreRejected(boolean virtualThreads) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AsyncDatabaseExecutor executor = new AsyncDatabaseExecutor("test", 2, 3, virtualThreads)) {
+            List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int value = i;
+                accepted.add(executor.submit(() -> {
+                    release.await(10, TimeUnit.SECONDS);
+                    return value;
+                }));
+            }
+
+            CompletableFuture<Integer> rejected = executor.submit(() -> -1);
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+            assertEquals(1, executor.getRejectedCount());
+
+            release.countDown();
+            for (int i = 0; i < accepted.size(); i++) {
+                assertEquals(i, accepted.get(i).get(10, TimeUnit.SECONDS));
+            }
+
+            // Finished tasks free their place, just after completing their future
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.getPendingCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(7, executor.submit(() -> 7).get(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.TestDatabases;
+import net.exylia.commons.database.enums.DatabaseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * MySQL code paths run against H2 in MySQL mode.
+ */
+class MySQLDialectTest {
+    private static final String[] COLUMNS = {"id", "name", "kills", "balance"};
+    private static final String[] KEY_COLUMNS = {"id"};
+
+    private Connection connection;
+    private SQLExecutor executor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = TestDatabases.h2MySQL();
+        executor = new SQLExecutor(connection);
+        executor.update("CREATE TABLE players (id INT NOT NULL PRIMARY KEY, name VARCHAR(32) NOT NULL,"
+                + " kills INT NOT NULL, balance DOUBLE NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        executor.close();
+        connection.close();
+    }
+
+    @Test
+    void connectionIsTreatedAsMySQL() throws SQLException {
+        assertEquals(DatabaseType.MYSQL, DatabaseType.of(connection));
+    }
+
+    @Test
+    void upsertAllUsesOnDuplicateKeyUpdate() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            rows.add(new Object[]{id, "player" + id, 0, 0.0});
+        }
+        assertEquals(100, executor.upsertAll("players", COLUMNS, KEY_COLUMNS, rows));
+
+        List<Object[]> updates = List.of(new Object[]{5, "renamed", 7, 1.5}, new Object[]{100, "new", 1, 2.5});
+        assertEquals(2, executor.upsertAll("players", COLUMNS, KEY_COLUMNS, updates));
+
+        assertEquals(101, count());
+        assertEquals("renamed", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 5));
+        assertEquals(7, executor.<Integer>queryOne("SELECT kills FROM players WHERE id = ?", rs -> rs.getInt(1), 5));
+        assertEquals("new", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 100));
+    }
+
+    @Test
+    void upsertAllSplitsStatementsAtThePlaceholderLimit() throws SQLException {
+        // 4 columns per row: 20000 rows need 80000 placeholders, over the 65535 of one statement
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < 20000; id++) {
+            rows.add(new Object[]{id, "player" + id, id % 10, id * 0.5});
+        }
+        assertEquals(20000, executor.upsertAll("players", COLUMNS, KEY_COLUMNS, rows, 50000));
+        assertEquals(20000, count());
+    }
+
+    @Test
+    void batchInsertsAreNotRewritten() throws SQLException {
+        try (SQLBatchExecutor batch = new SQLBatchExecutor(connection,
+                "INSERT INTO players (id, name, kills, balance) VALUES (?, ?, ?, ?)", 100)) {
+            // The MySQL driver rewrites batches itself through rewriteBatchedStatements
+            assertFalse(batch.isRewritingInserts());
+            for (int id = 0; id < 250; id++) {
+                batch.addBatch(id, "player" + id, id, 0.0);
+            }
+        }
+        assertEquals(250, count());
+    }
+
+    private int count() throws SQLException {
+        return ((Number) executor.queryScalar("SELECT COUNT(*) FROM players", 1)).intValue();
+    }
+}
@@ -0,0 +1,139 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLBatchExecutorTest {
+    private static final String INSERT = "INSERT INTO players (id, name, kills) VALUES (?, ?, ?)";
+
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = TestDatabases.sqlite(directory, false);
+        manager.executeOperation(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL, kills INTEGER)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void rewrittenInsertsWriteEveryRow() throws SQLException {
+        try (Connection conn = manager.getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, INSERT, 1000)) {
+            assertTrue(batch.isRewritingInserts());
+            for (int id = 0; id < 2345; id++) {
+                batch.addBatch(id, "player" + id, id % 7);
+            }
+        }
+
+        assertEquals(2345, countRows());
+        manager.executeOperation(executor -> {
+            assertEquals("player2344", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 2344));
+            return null;
+        });
+    }
+
+    @Test
+    void unrewrittenStatementsWriteEveryRow() throws SQLException {
+        try (Connection conn = manager.getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, INSERT, 100, false, false)) {
+            for (int id = 0; id < 250; id++) {
+                batch.addBatch(id, "player" + id, id);
+            }
+            assertEquals(200, batch.getCommittedRows());
+        }
+
+        assertEquals(250, countRows());
+    }
+
+    @Test
+    void nullParametersAreBoundAsNull() throws SQLException {
+        Integer kills = null;
+        try (Connection conn = manager.getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, "INSERT INTO players (name, kills) VALUES (?, ?)", 10)) {
+            batch.addBatch("alice", kills);
+        }
+
+        manager.executeOperation(executor -> {
+            assertNull(executor.queryOne("SELECT kills FROM players WHERE name = ?", rs -> rs.getObject(1), "alice"));
+            return null;
+        });
+    }
+
+    @Test
+    void rowBinderSetsTypedParameters() throws SQLException {
+        try (Connection conn = manager.getConnection();
+             SQLBatchExecutor batch = new SQLBatchExecutor(conn, INSERT, 50)) {
+            for (int id = 0; id < 120; id++) {
+                int value = id;
+                batch.addBatch(row -> {
+                    row.setInt(1, value);
+                    row.setString(2, "player" + value);
+                    row.setLong(3, value * 2L);
+                });
+            }
+        }
+
+        assertEquals(120, countRows());
+        manager.executeOperation(executor -> {
+            assertEquals(238, executor.<Integer>queryOne("SELECT kills FROM players WHERE id = ?", rs -> rs.getInt(1), 119));
+            return null;
+        });
+    }
+
+    @Test
+    void failedChunkKeepsEarlierCommits() throws SQLException {
+        SQLBatchExecutor batch;
+        try (Connection conn = manager.getConnection()) {
+            batch = new SQLBatchExecutor(conn, INSERT, 2);
+            batch.addBatch(1, "alice", 0);
+            batch.addBatch(2, "bob", 0);
+            batch.addBatch(3, null, 0);
+            assertThrows(SQLException.class, batch::close);
+        }
+
+        assertEquals(2, batch.getCommittedRows());
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    void failedCloseReleasesTheConnectionState() throws SQLException {
+        StatementCache cache = manager.getConnectionPool().getStatementCache();
+        try (Connection conn = manager.getConnection()) {
+            SQLBatchExecutor batch = new SQLBatchExecutor(conn, INSERT, 10, false, false, cache);
+            batch.addBatch(1, "alice", 0);
+            batch.addBatch(2, null, 0);
+            assertThrows(SQLException.class, batch::close);
+
+            assertTrue(conn.getAutoCommit());
+            // The statement went back to the cache instead of staying leased
+            try (StatementCache.Lease lease = cache.prepare(conn, INSERT)) {
+                assertTrue(lease.isCached());
+            }
+        }
+    }
+
+    private int countRows() throws SQLException {
+        return manager.executeOperation(executor ->
+                ((Number) executor.queryScalar("SELECT COUNT(*) FROM players", 1)).intValue());
+    }
+}
@@ -0,0 +1,127 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLExecutorTest {
+    private static final String[] COLUMNS = {"id", "name", "kills"};
+    private static final String[] KEY_COLUMNS = {"id"};
+
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = TestDatabases.sqlite(directory, false);
+        manager.executeOperation(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL, kills INTEGER NOT NULL)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void updateAndQueryRoundTrip() throws SQLException {
+        try (Connection conn = manager.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn)) {
+            assertEquals(1, executor.update("INSERT INTO players (id, name, kills) VALUES (?, ?, ?)", 1, "alice", 3));
+            assertEquals(1, executor.update("INSERT INTO players (id, name, kills) VALUES (?, ?, ?)", 2, "bob", 5));
+            assertEquals(1, executor.update("UPDATE players SET kills = kills + 1 WHERE id = ?", 1));
+
+            assertEquals("alice", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 1));
+            assertNull(executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 3));
+            assertEquals(List.of(4, 5), executor.queryList("SELECT kills FROM players ORDER BY id", rs -> rs.getInt(1)));
+            assertEquals(2, ((Number) executor.queryScalar("SELECT COUNT(*) FROM players", 1)).intValue());
+            assertTrue(executor.exists("SELECT 1 FROM players WHERE name = ?", "bob"));
+            assertFalse(executor.exists("SELECT 1 FROM players WHERE name = ?", "carol"));
+        }
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoRows() throws SQLException {
+        assertThrows(SQLException.class, () -> manager.executeTransaction(executor -> {
+            executor.update("INSERT INTO players (id, name, kills) VALUES (?, ?, ?)", 1, "alice", 0);
+            // Violates NOT NULL and rolls back the whole transaction
+            return executor.update("INSERT INTO players (id, name, kills) VALUES (?, ?, ?)", 2, null, 0);
+        }));
+
+        assertEquals(0, countRows());
+    }
+
+    @Test
+    void unfinishedTransactionIsRolledBackOnClose() throws SQLException {
+        assertThrows(SQLException.class, () -> manager.executeOperation(executor -> {
+            executor.beginTransaction();
+            executor.update("INSERT INTO players (id, name, kills) VALUES (?, ?, ?)", 1, "alice", 0);
+            throw new SQLException("Failed before committing");
+        }));
+
+        assertEquals(0, countRows());
+    }
+
+    @Test
+    void upsertAllInsertsAndUpdatesRows() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < 2500; id++) {
+            rows.add(new Object[]{id, "player" + id, 0});
+        }
+        assertEquals(2500, manager.upsertAll("players", COLUMNS, KEY_COLUMNS, rows));
+
+        // Second pass updates the existing rows instead of failing on their keys
+        List<Object[]> updates = new ArrayList<>();
+        for (int id = 0; id < 2500; id += 2) {
+            updates.add(new Object[]{id, "renamed" + id, id});
+        }
+        try (Connection conn = manager.getConnection();
+             SQLExecutor executor = new SQLExecutor(conn)) {
+            assertEquals(1250, executor.upsertAll("players", COLUMNS, KEY_COLUMNS, updates, 300));
+        }
+
+        assertEquals(2500, countRows());
+        manager.executeOperation(executor -> {
+            assertEquals("renamed10", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 10));
+            assertEquals(10, executor.<Integer>queryOne("SELECT kills FROM players WHERE id = ?", rs -> rs.getInt(1), 10));
+            assertEquals("player11", executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), 11));
+            return null;
+        });
+    }
+
+    @Test
+    void upsertAllThroughSingleWriter(@TempDir Path writerDirectory) throws SQLException {
+        manager.close();
+        manager = TestDatabases.sqlite(writerDirectory, true);
+        manager.executeOperation(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL, kills INTEGER NOT NULL)"));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            rows.add(new Object[]{id, "player" + id, id});
+        }
+        assertEquals(500, manager.upsertAll("players", COLUMNS, KEY_COLUMNS, rows));
+        assertEquals(500, countRows());
+    }
+
+    private int countRows() throws SQLException {
+        return manager.executeOperation(executor ->
+                ((Number) executor.queryScalar("SELECT COUNT(*) FROM players", 1)).intValue());
+    }
+}
@@ -0,0 +1,111 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLiteWriteExecutorTest {
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+    private SQLiteWriteExecutor writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = TestDatabases.sqlite(directory, true);
+        writer = manager.getConnectionPool().getSQLiteWriter();
+        writer.executeStandalone(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void failingWriteDoesNotAffectItsGroup() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int id = 0; id < 50; id++) {
+            Object name = id == 25 ? null : "player" + id;
+            int key = id;
+            futures.add(writer.submit(executor -> executor.update("INSERT INTO players (id, name) VALUES (?, ?)", key, name)));
+        }
+
+        int failed = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                failed++;
+            }
+        }
+        assertEquals(1, failed);
+        assertEquals(49, ((Number) manager.executeOperation(executor ->
+                executor.queryScalar("SELECT COUNT(*) FROM players", 1))).intValue());
+    }
+
+    @Test
+    void operationsManagingTheirOwnTransactionDontJoinQueuedTransactions() throws Exception {
+        List<CompletableFuture<Integer>> transactions = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            int key = id;
+            transactions.add(manager.executeTransactionAsync(executor ->
+                    executor.update("INSERT INTO players (id, name) VALUES (?, ?)", key, "player" + key)));
+            if (id % 10 == 0) {
+                // Rolls back its own insert, which must not undo the queued transactions
+                manager.executeAsync(executor -> {
+                    executor.beginTransaction();
+                    executor.update("INSERT INTO players (id, name) VALUES (?, ?)", 1000 + key, "discarded");
+                    executor.rollback();
+                    return null;
+                });
+            }
+        }
+
+        for (CompletableFuture<Integer> transaction : transactions) {
+            assertEquals(1, transaction.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(100, ((Number) manager.executeOperation(executor ->
+                executor.queryScalar("SELECT COUNT(*) FROM players", 1))).intValue());
+    }
+
+    @Test
+    void writesQueuedConcurrentlyWithCloseNeverHang() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Thread writerThread = new Thread(() -> {
+            for (int id = 0; id < 2000; id++) {
+                int key = id;
+                futures.add(writer.submit(executor -> executor.update("INSERT INTO players (id, name) VALUES (?, ?)", key, "p")));
+            }
+        });
+        writerThread.start();
+        writer.close();
+        writerThread.join();
+
+        // Every write either ran before close or was failed by it
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+        }
+        assertThrows(SQLException.class, () -> writer.execute(executor -> executor.update("DELETE FROM players")));
+    }
+}
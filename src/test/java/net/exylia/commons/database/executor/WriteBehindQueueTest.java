@@ -0,0 +1,100 @@
+package net.exylia.commons.database.executor;
+
+import net.exylia.commons.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private static final String UPSERT = "INSERT INTO players (id, name, kills) VALUES (?, ?, ?)"
+            + " ON CONFLICT(id) DO UPDATE SET name = excluded.name, kills = excluded.kills";
+
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = TestDatabases.sqlite(directory, false);
+        manager.executeOperation(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL, kills INTEGER NOT NULL)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void pendingWritesAreCoalescedAndFlushed() throws SQLException {
+        try (WriteBehindQueue queue = new WriteBehindQueue(manager.getConnectionPool(), 1, TimeUnit.HOURS, 100, 1000)) {
+            queue.register("players", UPSERT);
+            for (int kills = 0; kills < 10; kills++) {
+                assertTrue(queue.enqueue("players", 1, 1, "alice", kills));
+            }
+            assertTrue(queue.enqueue("players", 2, 2, "bob", 0));
+            assertEquals(2, queue.getQueueDepth());
+
+            queue.flush();
+
+            WriteBehindQueue.QueueStats stats = queue.getStats();
+            assertEquals(11, stats.getEnqueued());
+            assertEquals(9, stats.getCoalesced());
+            assertEquals(2, stats.getFlushedRows());
+            assertEquals(0, stats.getFailedRows());
+            assertEquals(0, queue.getQueueDepth());
+        }
+
+        assertEquals(2, countRows());
+        manager.executeOperation(executor -> {
+            assertEquals(9, executor.<Integer>queryOne("SELECT kills FROM players WHERE id = ?", rs -> rs.getInt(1), 1));
+            return null;
+        });
+    }
+
+    @Test
+    void closeWritesPendingRows() throws SQLException {
+        try (WriteBehindQueue queue = new WriteBehindQueue(manager.getConnectionPool(), 1, TimeUnit.HOURS, 1000, 1000)) {
+            queue.register("players", UPSERT);
+            for (int id = 0; id < 300; id++) {
+                queue.enqueue("players", id, id, "player" + id, id);
+            }
+        }
+
+        assertEquals(300, countRows());
+    }
+
+    @Test
+    void onlyUncommittedRowsAreRequeuedAfterAFailure() throws SQLException {
+        WriteBehindQueue queue = new WriteBehindQueue(manager.getConnectionPool(), 1, TimeUnit.HOURS, 2, 1000);
+        queue.register("players", UPSERT);
+        queue.enqueue("players", 1, 1, "alice", 0);
+        queue.enqueue("players", 2, 2, "bob", 0);
+        // Violates NOT NULL after the first two rows were committed
+        queue.enqueue("players", 3, 3, (String) null, 0);
+        // Waits for the flushes requested by the enqueues, then flushes what is left
+        queue.close();
+
+        // Depending on how the flushes interleave the failing row is retried once or more,
+        // but the committed rows are never counted as failed nor written again
+        WriteBehindQueue.QueueStats stats = queue.getStats();
+        assertEquals(2, stats.getFlushedRows());
+        assertTrue(stats.getFailedRows() >= 1);
+        assertEquals(1, queue.getQueueDepth() + stats.getDroppedRows());
+        assertEquals(2, countRows());
+    }
+
+    private int countRows() throws SQLException {
+        return manager.executeOperation(executor ->
+                ((Number) executor.queryScalar("SELECT COUNT(*) FROM players", 1)).intValue());
+    }
+}
@@ -0,0 +1,94 @@
+package net.exylia.commons.database.migration;
+
+import net.exylia.commons.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationRunnerTest {
+    private static final Migration CREATE = Migration.builder(1, "Create players")
+            .sql("CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL)")
+            .build();
+    private static final Migration ADD_KILLS = Migration.builder(2, "Add kills")
+            .sql("ALTER TABLE players ADD COLUMN kills INTEGER NOT NULL DEFAULT 0")
+            .build();
+
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+    private MigrationRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        manager = TestDatabases.sqlite(directory, false);
+        runner = new MigrationRunner(manager.getConnectionPool());
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void pendingMigrationsAreAppliedInVersionOrder() throws SQLException {
+        assertEquals(0, runner.getCurrentVersion("players"));
+
+        assertEquals(List.of(CREATE, ADD_KILLS), runner.migrate("players", List.of(ADD_KILLS, CREATE)));
+        assertEquals(2, runner.getCurrentVersion("players"));
+        assertTrue(hasColumn("kills"));
+
+        // Applied migrations are skipped on the next run
+        assertTrue(runner.migrate("players", List.of(CREATE, ADD_KILLS)).isEmpty());
+    }
+
+    @Test
+    void modifiedMigrationIsRejected() throws SQLException {
+        runner.migrate("players", List.of(CREATE));
+
+        Migration modified = Migration.builder(1, "Create players")
+                .sql("CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT)")
+                .build();
+        assertThrows(SQLException.class, () -> runner.migrate("players", List.of(modified)));
+    }
+
+    @Test
+    void failedMigrationIsNotRecorded() throws SQLException {
+        runner.migrate("players", List.of(CREATE));
+
+        Migration broken = Migration.builder(2, "Broken")
+                .sql("ALTER TABLE players ADD COLUMN kills INTEGER NOT NULL DEFAULT 0")
+                .sql("ALTER TABLE missing ADD COLUMN deaths INTEGER")
+                .build();
+        assertThrows(SQLException.class, () -> runner.migrate("players", List.of(CREATE, broken)));
+
+        // SQLite DDL is transactional, so the first statement was rolled back too
+        assertEquals(1, runner.getCurrentVersion("players"));
+        assertFalse(hasColumn("kills"));
+    }
+
+    @Test
+    void dryRunAppliesNothing() throws SQLException {
+        runner.setDryRun(true);
+
+        assertEquals(List.of(CREATE), runner.migrate("players", List.of(CREATE)));
+        assertEquals(0, runner.getCurrentVersion("players"));
+        assertFalse(manager.<Boolean>executeOperation(executor ->
+                executor.exists("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?", "players")));
+    }
+
+    private boolean hasColumn(String column) throws SQLException {
+        return manager.executeOperation(executor ->
+                executor.exists("SELECT 1 FROM pragma_table_info('players') WHERE name = ?", column));
+    }
+}
@@ -0,0 +1,116 @@
+package net.exylia.commons.database.repository;
+
+import net.exylia.commons.database.TestDatabases;
+import net.exylia.commons.database.executor.SQLExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private TestDatabases.Manager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = TestDatabases.sqlite(directory, false);
+        manager.executeOperation(executor -> executor.update(
+                "CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT NOT NULL)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void writeThroughWritesOfAKeyCommitInOrder() throws Exception {
+        try (PlayerRepository repository = new PlayerRepository(CachedRepository.WriteMode.WRITE_THROUGH)) {
+            // The first save is slow, the second must still commit after it
+            repository.slowName = "old";
+            CompletableFuture<Void> first = repository.put(1, "old");
+            CompletableFuture<Void> second = repository.put(1, "new");
+            CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+            assertEquals("new", storedName(1));
+        }
+    }
+
+    @Test
+    void removeDuringAFlushIsNotUndoneByIt() throws Exception {
+        try (PlayerRepository repository = new PlayerRepository(CachedRepository.WriteMode.WRITE_BEHIND)) {
+            repository.put(1, "alice");
+            repository.saveStarted = new CountDownLatch(1);
+            repository.releaseSave = new CountDownLatch(1);
+
+            Thread flush = new Thread(repository::flush);
+            flush.start();
+            assertTrue(repository.saveStarted.await(10, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> removed = repository.remove(1);
+            repository.releaseSave.countDown();
+            flush.join(10000);
+            removed.get(10, TimeUnit.SECONDS);
+
+            assertNull(storedName(1));
+        }
+    }
+
+    private String storedName(int id) throws SQLException {
+        return manager.executeOperation(executor ->
+                executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), id));
+    }
+
+    private class PlayerRepository extends CachedRepository<Integer, String> {
+        private volatile String slowName;
+        private volatile CountDownLatch saveStarted;
+        private volatile CountDownLatch releaseSave;
+
+        PlayerRepository(WriteMode writeMode) {
+            super(manager, CachedRepository.Settings.builder()
+                    .writeMode(writeMode)
+                    .writeBehindInterval(1, TimeUnit.HOURS)
+                    .build());
+        }
+
+        @Override
+        protected String load(SQLExecutor executor, Integer key) throws SQLException {
+            return executor.queryOne("SELECT name FROM players WHERE id = ?", rs -> rs.getString(1), key);
+        }
+
+        @Override
+        protected void save(SQLExecutor executor, Integer key, String value) throws SQLException {
+            try {
+                if (value.equals(slowName)) {
+                    Thread.sleep(500);
+                }
+                if (saveStarted != null) {
+                    saveStarted.countDown();
+                    releaseSave.await(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor.update("INSERT INTO players (id, name) VALUES (?, ?)"
+                    + " ON CONFLICT(id) DO UPDATE SET name = excluded.name", key, value);
+        }
+
+        @Override
+        protected void delete(SQLExecutor executor, Integer key) throws SQLException {
+            executor.update("DELETE FROM players WHERE id = ?", key);
+        }
+    }
+}